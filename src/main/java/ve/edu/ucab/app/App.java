@@ -5,6 +5,8 @@ import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 import javafx.scene.Parent;
+import ve.edu.ucab.domain.model.AssetManager;
+import ve.edu.ucab.domain.model.PriceEngine;
 import ve.edu.ucab.infrastructure.repository.UserRepository;
 import ve.edu.ucab.infrastructure.exceptions.UserFileNotFoundException;
 import ve.edu.ucab.presentation.util.DialogUtil;
@@ -35,6 +37,10 @@ public class App extends Application {
     }
 
     System.out.println("Contenido de los usuarios: " + userRepository.getAllData());
+    // Un único motor avanza los precios del catálogo para todas las pantallas
+    PriceEngine.getInstance().start();
+    // Los cambios en data/assets.json se aplican sin reiniciar
+    AssetManager.getInstance().startWatching();
 
     try {
       System.out.println("Cargando FXML...");
@@ -51,6 +57,15 @@ public class App extends Application {
     }
   }
 
+  @Override
+  public void stop() {
+    AssetManager.getInstance().stopWatching();
+    PriceEngine.getInstance().stop();
+    if (userRepository != null) {
+      userRepository.close();
+    }
+  }
+
   public static void main(String[] args) {
     launch(args);
   }
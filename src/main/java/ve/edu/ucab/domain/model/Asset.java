@@ -3,6 +3,7 @@ package ve.edu.ucab.domain.model;
 /**
  * Represents an asset in the system, encapsulating its ticker, amount, and purchase price.
  * This class does not hold market-related data such as the current price of the asset.
+ * The amount is kept in {@link Quantity} units and the price in {@link Money} cents.
  */
 public class Asset {
 
@@ -12,26 +13,32 @@ public class Asset {
   private final String ticker;
 
   /**
-   * The quantity of the asset held.
+   * The quantity of the asset held, in {@link Quantity} units.
    */
-  private double amount;
+  private long units;
 
   /**
-   * The average purchase price of the asset.
+   * The average purchase price of the asset, in cents.
    */
-  private double purchasePrice;
+  private long purchasePriceCents;
+
+  /**
+   * The number of the lot in its owner's portfolio when this is a copy returned by
+   * {@link User#getPortfolio()}, or -1. Not persisted.
+   */
+  private transient long lotId = -1;
 
   /**
    * Private constructor to initialize an asset with the specified attributes.
    *
-   * @param ticker        the ticker symbol of the asset
-   * @param amount        the initial quantity of the asset
-   * @param purchasePrice the initial purchase price of the asset
+   * @param ticker             the ticker symbol of the asset
+   * @param units              the initial quantity of the asset, in units
+   * @param purchasePriceCents the initial purchase price of the asset, in cents
    */
-  private Asset(String ticker, double amount, double purchasePrice) {
+  private Asset(String ticker, long units, long purchasePriceCents) {
     this.ticker = ticker;
-    this.amount = amount;
-    this.purchasePrice = purchasePrice;
+    this.units = units;
+    this.purchasePriceCents = purchasePriceCents;
   }
 
   /**
@@ -43,7 +50,42 @@ public class Asset {
    * @return a new {@link Asset} instance
    */
   public static Asset createNewAsset(String ticker, double amount, double purchasePrice) {
-    return new Asset(ticker, amount, purchasePrice);
+    return new Asset(ticker, Quantity.of(amount), Money.of(purchasePrice));
+  }
+
+  /**
+   * Creates a new asset from fixed-point values.
+   *
+   * @param ticker             the ticker symbol of the asset
+   * @param units              the initial quantity of the asset, in {@link Quantity} units
+   * @param purchasePriceCents the initial purchase price of the asset, in cents
+   * @return a new {@link Asset} instance
+   */
+  public static Asset ofUnits(String ticker, long units, long purchasePriceCents) {
+    return new Asset(ticker, units, purchasePriceCents);
+  }
+
+  /**
+   * Copies a lot of a portfolio, keeping the number that identifies it there.
+   *
+   * @param lotId the number of the lot in its portfolio
+   * @return the copy
+   */
+  Asset copyAs(long lotId) {
+    Asset copy = new Asset(ticker, units, purchasePriceCents);
+    copy.lotId = lotId;
+    return copy;
+  }
+
+  /**
+   * Gets the number identifying this lot in its owner's portfolio. It stays the same
+   * while the lot is held, even after a partial sale, so a copy obtained earlier still
+   * names the lot it was taken from.
+   *
+   * @return the lot number, or -1 if this asset was not obtained from a portfolio
+   */
+  public long getLotId() {
+    return lotId;
   }
 
   /**
@@ -61,7 +103,16 @@ public class Asset {
    * @return the amount of the asset
    */
   public double getAmount() {
-    return amount;
+    return Quantity.toDouble(units);
+  }
+
+  /**
+   * Gets the quantity of the asset held, in {@link Quantity} units.
+   *
+   * @return the amount of the asset
+   */
+  public long getUnits() {
+    return units;
   }
 
   /**
@@ -70,7 +121,16 @@ public class Asset {
    * @return the purchase price
    */
   public double getPurchasePrice() {
-    return purchasePrice;
+    return Money.toDouble(purchasePriceCents);
+  }
+
+  /**
+   * Gets the average purchase price of the asset, in cents.
+   *
+   * @return the purchase price
+   */
+  public long getPurchasePriceCents() {
+    return purchasePriceCents;
   }
 
   /**
@@ -81,11 +141,13 @@ public class Asset {
    * @param newPurchasePrice the purchase price of the added amount
    */
   public void addAmount(double newAmount, double newPurchasePrice) {
-    if (newAmount >= 0) {
-      double totalAmount = this.amount + newAmount;
-      double weightedPrice = ((this.amount * this.purchasePrice) + (newAmount * newPurchasePrice)) / totalAmount;
-      this.amount = totalAmount;
-      this.purchasePrice = weightedPrice;
+    long newUnits = Quantity.of(newAmount);
+    if (newUnits > 0) {
+      long totalUnits = this.units + newUnits;
+      long totalCost = Money.times(this.purchasePriceCents, this.units)
+          + Money.times(Money.of(newPurchasePrice), newUnits);
+      this.units = totalUnits;
+      this.purchasePriceCents = Money.perUnit(totalCost, totalUnits);
     }
   }
 
@@ -97,11 +159,31 @@ public class Asset {
    * @param amountSold the amount to subtract from the asset's quantity
    */
   public void subtractAmount(double amountSold) {
-    if (amountSold >= this.amount) {
-      this.amount = 0;
-      this.purchasePrice = 0;
+    subtractUnits(Quantity.of(amountSold));
+  }
+
+  /**
+   * Subtracts a quantity in {@link Quantity} units, as {@link #subtractAmount(double)}
+   * does. The lot is emptied exactly when the units sold reach the units held.
+   *
+   * @param unitsSold the units to subtract from the asset's quantity
+   */
+  public void subtractUnits(long unitsSold) {
+    if (unitsSold >= this.units) {
+      this.units = 0;
+      this.purchasePriceCents = 0;
     } else {
-      this.amount -= amountSold;
+      this.units -= unitsSold;
     }
   }
+
+  /**
+   * Replaces the purchase price, when a sale at average cost leaves every lot of the
+   * ticker at the average.
+   *
+   * @param purchasePriceCents the new purchase price, in cents
+   */
+  void reprice(long purchasePriceCents) {
+    this.purchasePriceCents = purchasePriceCents;
+  }
 }
@@ -3,25 +3,90 @@ package ve.edu.ucab.domain.model;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
-import java.io.FileReader;
-import java.io.FileWriter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import ve.edu.ucab.domain.repository.Repository;
+import ve.edu.ucab.domain.repository.StorageFormat;
+import ve.edu.ucab.infrastructure.datasource.SnapshotFiles;
+import ve.edu.ucab.infrastructure.repository.BinaryCatalogFile;
+import ve.edu.ucab.infrastructure.repository.CatalogAssetAdapter;
 
 public class AssetManager {
   private static AssetManager instance;
   private static final String FILE = "data/assets.json";
-  private List<CatalogAsset> catalogAssets;
-  private final Random random = new Random();
+  // Catálogo en formato binario, usado con -Drepository.format=binary
+  private static final String BINARY_FILE = "data/assets.bin";
+  private final StorageFormat storageFormat = Repository.configuredStorageFormat();
+  // Tiempo que se espera a que el editor termine de escribir assets.json antes de recargarlo
+  private static final long RELOAD_DELAY_MS = 200;
+  // El catálogo y sus índices se reemplazan juntos al recargar assets.json
+  private volatile List<CatalogAsset> catalogAssets;
+  // Modelo de precios de cada tipo de activo, de la sección priceModels de assets.json
+  private Map<AssetsType, PriceModelSettings> priceModels = Map.of();
+  // Índice inmutable ticker -> activo y su id interno (posición en el catálogo)
+  private volatile Map<String, CatalogAsset> catalogByTicker = Map.of();
+  private volatile Map<String, Integer> tickerIds = Map.of();
+  // Ticker de cada posición del catálogo, compartido por todas las instantáneas de precios
+  private volatile List<String> tickers = List.of();
+  // Tickers cuyo precio base cambió en la última recarga; toman el precio del catálogo
+  private Set<String> repriced = Set.of();
+  // Vigilancia de assets.json y métricas de las recargas
+  private WatchService watchService;
+  private final Object reloadLock = new Object();
+  private SnapshotFiles.Checksum loadedChecksum;
+  private volatile CatalogReloadMetrics reloadMetrics = new CatalogReloadMetrics(0, 0, 0, 0, 0, 0, 0);
+  // Versión del último PriceSnapshot copiado a los CatalogAsset
+  private long appliedVersion = -1;
+  // Semilla maestra de la simulación (-Dprices.seed=N); sin ella cada ejecución es distinta
+  private static final Long SEED = Long.getLong("prices.seed");
+  // Volatilidad de cada posición del catálogo en arreglos primitivos
+  private PriceSimulator simulator;
 
   private AssetManager() {
     loadCatalog();
+    indexCatalog();
   }
 
-  public static AssetManager getInstance() {
+  // Contenido de un assets.json: los activos y los modelos de precios por tipo
+  private record JsonCatalog(List<CatalogAsset> assets, Map<AssetsType, PriceModelSettings> models) {
+  }
+
+  // Tipo de la sección priceModels de assets.json
+  private static final Type PRICE_MODELS_TYPE = new TypeToken<HashMap<AssetsType, PriceModelSettings>>() {
+  }.getType();
+
+  /**
+   * Gets the catalog of the application, loading it the first time. Synchronized, as
+   * the price engine, the catalog watcher and the UI may all ask for it first.
+   *
+   * @return the single instance of {@link AssetManager}
+   */
+  public static synchronized AssetManager getInstance() {
     if (instance == null) {
       instance = new AssetManager();
     }
@@ -29,21 +94,65 @@ public class AssetManager {
   }
 
   private void loadCatalog() {
-    Gson gson = new Gson();
-    try (FileReader reader = new FileReader(FILE)) {
-      Type listType = new TypeToken<ArrayList<CatalogAsset>>() {
-      }.getType();
-      catalogAssets = gson.fromJson(reader, listType);
+    Path binaryFile = Paths.get(BINARY_FILE);
+    if (storageFormat == StorageFormat.BINARY && Files.isRegularFile(binaryFile)) {
+      try {
+        catalogAssets = readBinaryCatalog(binaryFile);
+        if (!catalogAssets.isEmpty()) {
+          // Los modelos de precios se configuran siempre en el catálogo JSON
+          priceModels = readPriceModels(Paths.get(FILE));
+          return;
+        }
+      } catch (IOException e) {
+        System.err.println("Error leyendo el catálogo binario, se usará " + FILE + ": " + e.getMessage());
+      }
+    }
+    Path jsonFile = Paths.get(FILE);
+    try {
+      // Un archivo truncado o dañado se reemplaza por la generación anterior
+      SnapshotFiles.verify(jsonFile);
+    } catch (IOException e) {
+      restorePrevious(jsonFile, e);
+    }
+    loadJsonCatalog();
+    if (storageFormat == StorageFormat.BINARY) {
+      // Importar el catálogo JSON al formato binario
+      saveCatalog();
+    }
+  }
+
+  // Lee el catálogo binario; si está dañado, lo reemplaza por la generación anterior
+  private List<CatalogAsset> readBinaryCatalog(Path binaryFile) throws IOException {
+    try {
+      return BinaryCatalogFile.read(binaryFile);
+    } catch (IOException e) {
+      if (!restorePrevious(binaryFile, e)) {
+        throw e;
+      }
+      return BinaryCatalogFile.read(binaryFile);
+    }
+  }
+
+  private static boolean restorePrevious(Path file, IOException cause) {
+    try {
+      if (SnapshotFiles.restorePrevious(file)) {
+        System.err.println("Catálogo dañado (" + cause.getMessage() + "); se restauró la generación anterior de " + file);
+        return true;
+      }
+    } catch (IOException e) {
+      System.err.println("No se pudo restaurar la generación anterior de " + file + ": " + e.getMessage());
+    }
+    return false;
+  }
+
+  private void loadJsonCatalog() {
+    try (Reader reader = Files.newBufferedReader(Paths.get(FILE), StandardCharsets.UTF_8)) {
+      JsonCatalog catalog = parseJsonCatalog(reader);
+      catalogAssets = catalog.assets();
+      priceModels = catalog.models();
       if (catalogAssets == null || catalogAssets.isEmpty()) {
         catalogAssets = getDefaultAssets();
         saveCatalog();
-      } else {
-        // Inicializar precios actuales al precio base si están en 0
-        for (CatalogAsset asset : catalogAssets) {
-          if (asset.getCurrentPrice() == 0) {
-            asset.setCurrentPrice(asset.getBasePrice() > 0 ? asset.getBasePrice() : getJsonPrice(asset));
-          }
-        }
       }
     } catch (IOException e) {
       catalogAssets = getDefaultAssets();
@@ -51,34 +160,111 @@ public class AssetManager {
     }
   }
 
-  // Método auxiliar para obtener el campo 'price' del JSON si existe
-  private double getJsonPrice(CatalogAsset asset) {
-    try (FileReader reader = new FileReader(FILE)) {
-      com.google.gson.JsonArray arr = com.google.gson.JsonParser.parseReader(reader).getAsJsonArray();
-      for (com.google.gson.JsonElement el : arr) {
-        com.google.gson.JsonObject obj = el.getAsJsonObject();
-        if (obj.get("ticker").getAsString().equals(asset.getTicker()) && obj.has("price")) {
-          return obj.get("price").getAsDouble();
+  // Gson del catálogo: lee price, basePrice y currentPrice de cada activo en una sola pasada
+  private static GsonBuilder catalogGson() {
+    return new GsonBuilder().registerTypeAdapter(CatalogAsset.class, new CatalogAssetAdapter());
+  }
+
+  // Lee un catálogo JSON en cualquiera de sus dos formatos
+  private static JsonCatalog parseJsonCatalog(Reader in) throws IOException {
+    Gson gson = catalogGson().create();
+    JsonReader reader = new JsonReader(in);
+    Type listType = new TypeToken<ArrayList<CatalogAsset>>() {
+    }.getType();
+    List<CatalogAsset> assets = null;
+    Map<AssetsType, PriceModelSettings> models = Map.of();
+    if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+      // Catálogo con modelos de precios: {"priceModels": {...}, "assets": [...]}
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.nextName()) {
+          case "priceModels" -> models = readPriceModels(gson, reader);
+          case "assets" -> assets = gson.fromJson(reader, listType);
+          default -> reader.skipValue();
         }
       }
-    } catch (Exception ignored) {
+    } else {
+      assets = gson.fromJson(reader, listType);
     }
-    return 0;
+    return new JsonCatalog(assets, models);
   }
 
-  private void saveCatalog() {
-    Gson gson = new GsonBuilder().setPrettyPrinting().create();
-    // Redondear todos los precios antes de guardar
-    for (CatalogAsset asset : catalogAssets) {
-      asset.setCurrentPrice(round2(asset.getCurrentPrice()));
+
+  // Lee la sección priceModels, descartando los tipos de activo desconocidos
+  private static Map<AssetsType, PriceModelSettings> readPriceModels(Gson gson, JsonReader reader) {
+    Map<AssetsType, PriceModelSettings> parsed = gson.fromJson(reader, PRICE_MODELS_TYPE);
+    Map<AssetsType, PriceModelSettings> models = new EnumMap<>(AssetsType.class);
+    if (parsed != null) {
+      parsed.forEach((type, settings) -> {
+        if (type == null || settings == null) {
+          System.err.println("Se ignoró un modelo de precios de un tipo de activo desconocido");
+        } else {
+          models.put(type, settings);
+        }
+      });
+    }
+    return models;
+  }
+
+  // Lee solo la sección priceModels de un catálogo JSON; vacía si no la tiene
+  private static Map<AssetsType, PriceModelSettings> readPriceModels(Path file) {
+    if (!Files.isRegularFile(file)) {
+      return Map.of();
+    }
+    try (JsonReader reader = new JsonReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+      if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+        return Map.of();
+      }
+      reader.beginObject();
+      while (reader.hasNext()) {
+        if (reader.nextName().equals("priceModels")) {
+          return readPriceModels(new Gson(), reader);
+        }
+        reader.skipValue();
+      }
+    } catch (IOException | RuntimeException e) {
+      System.err.println("Error leyendo los modelos de precios de " + file + ": " + e.getMessage());
     }
-    try (FileWriter writer = new FileWriter(FILE)) {
-      gson.toJson(catalogAssets, writer);
+    return Map.of();
+  }
+
+  private void saveCatalog() {
+    try {
+      if (storageFormat == StorageFormat.BINARY) {
+        BinaryCatalogFile.write(Paths.get(BINARY_FILE), catalogAssets);
+      } else {
+        writeJsonCatalog(Paths.get(FILE), catalogAssets, priceModels);
+      }
     } catch (IOException e) {
       System.err.println("Error guardando el catálogo de activos: " + e.getMessage());
     }
   }
 
+  // Exporta un catálogo al formato JSON de data/assets.json, conservando los modelos
+  // de precios que ya tenga el archivo
+  public static void writeJsonCatalog(Path file, List<CatalogAsset> assets) throws IOException {
+    writeJsonCatalog(file, assets, readPriceModels(file));
+  }
+
+  // Se escribe en un archivo temporal que luego reemplaza al actual, conservando la
+  // generación anterior. Sin modelos de precios se usa el formato de arreglo original
+  private static void writeJsonCatalog(Path file, List<CatalogAsset> assets,
+      Map<AssetsType, PriceModelSettings> models) throws IOException {
+    Gson gson = catalogGson().setPrettyPrinting().create();
+    Path temp = SnapshotFiles.temp(file);
+    try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+      if (models.isEmpty()) {
+        gson.toJson(assets, writer);
+      } else {
+        Map<String, Object> catalog = new LinkedHashMap<>();
+        catalog.put("priceModels", models);
+        catalog.put("assets", assets);
+        gson.toJson(catalog, writer);
+      }
+    }
+    SnapshotFiles.commit(temp, file, SnapshotFiles.checksum(temp));
+  }
+
   private List<CatalogAsset> getDefaultAssets() {
     List<CatalogAsset> defaults = new ArrayList<>();
     defaults.add(new CatalogAsset("Apple Inc.", "AAPL", AssetsType.STOCK, 180.00, 0.03));
@@ -94,32 +280,261 @@ public class AssetManager {
     return defaults;
   }
 
+  // Construye los índices por ticker a partir del catálogo
+  private void indexCatalog() {
+    Map<String, CatalogAsset> byTicker = new HashMap<>();
+    Map<String, Integer> ids = new HashMap<>();
+    for (int i = 0; i < catalogAssets.size(); i++) {
+      CatalogAsset asset = catalogAssets.get(i);
+      // Si un ticker se repite se conserva el primero, igual que una búsqueda lineal
+      if (byTicker.putIfAbsent(asset.getTicker(), asset) == null) {
+        ids.put(asset.getTicker(), i);
+      }
+    }
+    List<String> catalogTickers = new ArrayList<>(catalogAssets.size());
+    for (CatalogAsset asset : catalogAssets) {
+      catalogTickers.add(asset.getTicker());
+    }
+    tickers = List.copyOf(catalogTickers);
+    catalogByTicker = Map.copyOf(byTicker);
+    tickerIds = Map.copyOf(ids);
+    // Al recargar, los tickers que siguen continúan su recorrido con el mismo generador
+    simulator = simulator == null ? PriceSimulator.forCatalog(catalogAssets, createPriceModels(), SEED)
+        : simulator.reload(catalogAssets, createPriceModels());
+  }
+
+  // Crea el modelo de cada tipo; uno desconocido se reemplaza por el uniforme
+  private Map<AssetsType, PriceModel> createPriceModels() {
+    Map<AssetsType, PriceModel> models = new EnumMap<>(AssetsType.class);
+    for (Map.Entry<AssetsType, PriceModelSettings> entry : priceModels.entrySet()) {
+      try {
+        models.put(entry.getKey(), PriceModel.create(entry.getValue()));
+      } catch (IllegalArgumentException e) {
+        System.err.println("Modelo de precios inválido para " + entry.getKey() + ": " + e.getMessage());
+      }
+    }
+    return models;
+  }
+
   public List<CatalogAsset> getCatalogAssets() {
     return catalogAssets;
   }
 
-  // Simula la variación de precios según la volatilidad de cada activo
-  public void simulatePriceChanges() {
-    for (CatalogAsset asset : catalogAssets) {
-      double maxVar = asset.getVolatility();
-      double variation = (random.nextDouble() - 0.5) * 2 * maxVar; // Ej: ±0.05
-      if (asset.getCurrentPrice() <= 0.011) {
-        // Si está en el mínimo, solo permitir variación positiva
-        variation = Math.abs(variation);
+  // Busca un activo del catálogo por su ticker en tiempo constante; null si no existe
+  public CatalogAsset findByTicker(String ticker) {
+    return ticker != null ? catalogByTicker.get(ticker) : null;
+  }
+
+  // Id interno del ticker para consultar su precio con getPrice; -1 si no existe
+  public int tickerId(String ticker) {
+    Integer id = ticker != null ? tickerIds.get(ticker) : null;
+    return id != null ? id : -1;
+  }
+
+  // Precio actual del ticker con el id dado, tomado del último PriceSnapshot publicado
+  public double getPrice(int tickerId) {
+    return PriceEngine.getInstance().getLatest().getPrice(tickerId);
+  }
+
+  // Publica un nuevo precio para un activo del catálogo a través del PriceEngine
+  public void setPrice(CatalogAsset asset, double price) {
+    if (findByTicker(asset.getTicker()) == asset) {
+      PriceEngine.getInstance().setPrice(asset.getTicker(), price);
+    } else {
+      asset.setCurrentPrice(price);
+    }
+  }
+
+  // Versión 0 de los precios: los del catálogo recién cargado
+  PriceSnapshot initialPrices() {
+    double[] initial = new double[catalogAssets.size()];
+    for (int i = 0; i < initial.length; i++) {
+      initial[i] = catalogAssets.get(i).getCurrentPrice();
+    }
+    return new PriceSnapshot(0, System.currentTimeMillis(), tickers, tickerIds, initial);
+  }
+
+  // Calcula la siguiente versión de los precios según la volatilidad de cada activo,
+  // sin modificar la actual. Solo la llama el PriceEngine
+  synchronized PriceSnapshot simulatePriceChanges(PriceSnapshot current) {
+    PriceSnapshot base = rebase(current);
+    return base.withPrices(simulator.next(base.prices()));
+  }
+
+  // Pasa una instantánea tomada antes de recargar el catálogo al catálogo actual:
+  // los tickers que siguen conservan su precio y los nuevos toman el del catálogo
+  synchronized PriceSnapshot rebase(PriceSnapshot current) {
+    if (current.hasLayout(tickers)) {
+      return current;
+    }
+    double[] next = new double[catalogAssets.size()];
+    for (int i = 0; i < next.length; i++) {
+      CatalogAsset asset = catalogAssets.get(i);
+      double price = current.getPrice(asset.getTicker());
+      next[i] = Double.isNaN(price) || repriced.contains(asset.getTicker()) ? asset.getCurrentPrice() : price;
+    }
+    return current.withLayout(tickers, tickerIds, next);
+  }
+
+  // Copia los precios publicados a los CatalogAsset que muestran las pantallas,
+  // ignorando versiones más viejas que la ya aplicada
+  synchronized void applyPrices(PriceSnapshot snapshot) {
+    if (snapshot.getVersion() <= appliedVersion || !snapshot.hasLayout(tickers)) {
+      return;
+    }
+    appliedVersion = snapshot.getVersion();
+    for (int i = 0; i < snapshot.size(); i++) {
+      catalogAssets.get(i).setCurrentPrice(snapshot.getPrice(i));
+    }
+  }
+
+  // Vigila data/assets.json y aplica sus cambios sin reiniciar la aplicación
+  public synchronized void startWatching() {
+    if (watchService != null) {
+      return;
+    }
+    Path directory = Paths.get(FILE).toAbsolutePath().getParent();
+    try {
+      WatchService service = FileSystems.getDefault().newWatchService();
+      directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+      watchService = service;
+      Thread watcher = new Thread(() -> watch(service), "catalog-watcher");
+      watcher.setDaemon(true);
+      watcher.start();
+    } catch (IOException e) {
+      System.err.println("No se pudo vigilar " + FILE + ": " + e.getMessage());
+    }
+  }
+
+  public synchronized void stopWatching() {
+    if (watchService == null) {
+      return;
+    }
+    try {
+      watchService.close();
+    } catch (IOException e) {
+      System.err.println("Error deteniendo la vigilancia de " + FILE + ": " + e.getMessage());
+    }
+    watchService = null;
+  }
+
+  private void watch(WatchService service) {
+    Path catalogName = Paths.get(FILE).getFileName();
+    try {
+      while (true) {
+        WatchKey key = service.take();
+        boolean changed = touchesCatalog(key, catalogName);
+        // Juntar los eventos seguidos de una misma escritura antes de recargar
+        WatchKey more;
+        while ((more = service.poll(RELOAD_DELAY_MS, TimeUnit.MILLISECONDS)) != null) {
+          changed |= touchesCatalog(more, catalogName);
+        }
+        if (changed) {
+          reloadCatalog();
+        }
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      // Vigilancia detenida
+    }
+  }
+
+  private static boolean touchesCatalog(WatchKey key, Path catalogName) {
+    boolean touches = false;
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (catalogName.equals(event.context())) {
+        touches = true;
+      }
+    }
+    key.reset();
+    return touches;
+  }
+
+  // Recarga data/assets.json: agrega, actualiza y retira tickers de una sola vez.
+  // Los activos sin cambios conservan su objeto y su precio actual; los que cambian de
+  // precio base toman el precio del archivo. Devuelve false si no hubo nada que aplicar
+  public boolean reloadCatalog() {
+    synchronized (reloadLock) {
+      long start = System.nanoTime();
+      Path file = Paths.get(FILE);
+      JsonCatalog parsed;
+      SnapshotFiles.Checksum checksum;
+      try {
+        byte[] contents = Files.readAllBytes(file);
+        checksum = SnapshotFiles.checksum(contents);
+        if (checksum.equals(loadedChecksum)) {
+          return false;
+        }
+        parsed = parseJsonCatalog(new StringReader(new String(contents, StandardCharsets.UTF_8)));
+        if (parsed.assets() == null || parsed.assets().isEmpty()) {
+          throw new IOException("el catálogo está vacío");
+        }
+      } catch (IOException | RuntimeException e) {
+        CatalogReloadMetrics metrics = reloadMetrics;
+        reloadMetrics = new CatalogReloadMetrics(metrics.reloads(), metrics.failedReloads() + 1, metrics.added(),
+            metrics.updated(), metrics.retired(), metrics.lastReloadMicros(), metrics.maxReloadMicros());
+        System.err.println("No se pudo recargar " + FILE + ": " + e.getMessage());
+        return false;
+      }
+      int added = 0;
+      int updated = 0;
+      int retired;
+      synchronized (this) {
+        List<CatalogAsset> next = new ArrayList<>(parsed.assets().size());
+        Set<String> seen = new HashSet<>();
+        Set<String> newPrices = new HashSet<>();
+        for (CatalogAsset asset : parsed.assets()) {
+          if (asset.getTicker() == null || !seen.add(asset.getTicker())) {
+            continue;
+          }
+          CatalogAsset old = catalogByTicker.get(asset.getTicker());
+          if (old == null) {
+            added++;
+            next.add(asset);
+          } else if (sameDefinition(old, asset)) {
+            next.add(old);
+          } else {
+            updated++;
+            if (old.getBasePrice() == asset.getBasePrice()) {
+              asset.setCurrentPrice(old.getCurrentPrice());
+            } else {
+              newPrices.add(asset.getTicker());
+            }
+            next.add(asset);
+          }
+        }
+        retired = catalogAssets.size() - (next.size() - added);
+        catalogAssets = next;
+        priceModels = parsed.models();
+        repriced = Set.copyOf(newPrices);
+        indexCatalog();
+        loadedChecksum = checksum;
+      }
+      PriceEngine.getInstance().publishCatalog();
+      try {
+        if (storageFormat == StorageFormat.BINARY) {
+          saveCatalog();
+        } else {
+          // El archivo editado a mano pasa a ser la generación vigente
+          SnapshotFiles.writeChecksum(file, checksum);
+        }
+      } catch (IOException e) {
+        System.err.println("Error guardando el checksum de " + FILE + ": " + e.getMessage());
       }
-      double newPrice = asset.getCurrentPrice() * (1 + variation);
-      asset.setCurrentPrice(Math.max(round2(newPrice), 0.01));
+      long micros = (System.nanoTime() - start) / 1000;
+      CatalogReloadMetrics metrics = reloadMetrics;
+      reloadMetrics = new CatalogReloadMetrics(metrics.reloads() + 1, metrics.failedReloads(), added, updated,
+          retired, micros, Math.max(metrics.maxReloadMicros(), micros));
+      System.out.println("Catálogo recargado: " + reloadMetrics);
+      return true;
     }
   }
 
-  // Redondea a 2 decimales
-  private double round2(double value) {
-    return Math.round(value * 100.0) / 100.0;
+  private static boolean sameDefinition(CatalogAsset a, CatalogAsset b) {
+    return Objects.equals(a.getAssetName(), b.getAssetName()) && a.getAssetType() == b.getAssetType()
+        && a.getBasePrice() == b.getBasePrice() && a.getVolatility() == b.getVolatility();
   }
 
-  // Refresca los precios y guarda el catálogo actualizado
-  public void refreshAndSavePrices() {
-    simulatePriceChanges();
-    saveCatalog();
+  public CatalogReloadMetrics getReloadMetrics() {
+    return reloadMetrics;
   }
 }
@@ -1,7 +1,22 @@
 package ve.edu.ucab.domain.model;
 
 public enum AssetsType {
-  CRYPTO,
-  STOCK,
-  CURRENCY
+  CRYPTO(8),
+  STOCK(4),
+  CURRENCY(2);
+
+  private final int quantityScale;
+
+  AssetsType(int quantityScale) {
+    this.quantityScale = quantityScale;
+  }
+
+  /**
+   * Gets the number of decimals a quantity of this type is traded with.
+   *
+   * @return the decimals, at most {@link Quantity#SCALE}
+   */
+  public int getQuantityScale() {
+    return quantityScale;
+  }
 }
@@ -0,0 +1,46 @@
+package ve.edu.ucab.domain.model;
+
+/**
+ * The resolutions the {@link PriceBarStore} aggregates prices into.
+ */
+public enum BarResolution {
+  SECOND(1000L, "1s"),
+  MINUTE(60_000L, "1m"),
+  HOUR(3_600_000L, "1h");
+
+  private final long millis;
+  private final String suffix;
+
+  BarResolution(long millis, String suffix) {
+    this.millis = millis;
+    this.suffix = suffix;
+  }
+
+  /**
+   * Gets the length of a bar.
+   *
+   * @return the length in milliseconds
+   */
+  public long getMillis() {
+    return millis;
+  }
+
+  /**
+   * Gets the short name of the resolution, used in file names.
+   *
+   * @return the name, such as {@code 1m}
+   */
+  public String getSuffix() {
+    return suffix;
+  }
+
+  /**
+   * Gets the start of the bar containing a time.
+   *
+   * @param timestamp the time, in milliseconds since the epoch
+   * @return the start of its bar
+   */
+  public long barStart(long timestamp) {
+    return timestamp - Math.floorMod(timestamp, millis);
+  }
+}
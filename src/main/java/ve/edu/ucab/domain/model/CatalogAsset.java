@@ -6,7 +6,8 @@ public class CatalogAsset {
   private AssetsType assetType;
   private double basePrice;
   private double volatility; // porcentaje máximo de variación por ciclo (ej: 0.05 para 5%)
-  private double currentPrice;
+  // volatile: lo escribe el PriceEngine y lo leen las pantallas. En centavos
+  private volatile long currentPriceCents;
 
   public CatalogAsset(String assetName, String ticker, AssetsType assetType, double basePrice, double volatility) {
     this.assetName = assetName;
@@ -14,7 +15,7 @@ public class CatalogAsset {
     this.assetType = assetType;
     this.basePrice = basePrice;
     this.volatility = volatility;
-    this.currentPrice = basePrice;
+    this.currentPriceCents = Money.of(basePrice);
   }
 
   public String getAssetName() {
@@ -38,14 +39,18 @@ public class CatalogAsset {
   }
 
   public double getCurrentPrice() {
-    return currentPrice;
+    return Money.toDouble(currentPriceCents);
+  }
+
+  public long getCurrentPriceCents() {
+    return currentPriceCents;
   }
 
   public void setCurrentPrice(double currentPrice) {
-    this.currentPrice = currentPrice;
+    this.currentPriceCents = Money.of(currentPrice);
   }
 
   public void resetPrice() {
-    this.currentPrice = this.basePrice;
+    this.currentPriceCents = Money.of(this.basePrice);
   }
 }
\ No newline at end of file
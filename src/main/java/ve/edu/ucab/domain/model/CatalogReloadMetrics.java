@@ -0,0 +1,23 @@
+package ve.edu.ucab.domain.model;
+
+/**
+ * A point-in-time view of the hot reloads of {@code data/assets.json}.
+ *
+ * @param reloads           the number of reloads applied so far
+ * @param failedReloads     the number of reloads rejected because the file could not
+ *                          be read or parsed
+ * @param added             the number of tickers added by the last reload
+ * @param updated           the number of tickers changed by the last reload
+ * @param retired           the number of tickers retired by the last reload
+ * @param lastReloadMicros  the duration of the last reload, in microseconds
+ * @param maxReloadMicros   the longest reload so far, in microseconds
+ */
+public record CatalogReloadMetrics(long reloads, long failedReloads, int added, int updated, int retired,
+    long lastReloadMicros, long maxReloadMicros) {
+
+  @Override
+  public String toString() {
+    return String.format("recargas=%d fallidas=%d cambios=+%d ~%d -%d latencia=%d us (máx. %d)", reloads,
+        failedReloads, added, updated, retired, lastReloadMicros, maxReloadMicros);
+  }
+}
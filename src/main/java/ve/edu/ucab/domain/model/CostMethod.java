@@ -0,0 +1,26 @@
+package ve.edu.ucab.domain.model;
+
+/**
+ * How {@link User#sellAsset(String, double, CostMethod)} chooses the lots a sale
+ * comes from, which decides the cost basis of the realized gain.
+ */
+public enum CostMethod {
+
+  /**
+   * The oldest lots are sold first.
+   */
+  FIFO,
+
+  /**
+   * The newest lots are sold first.
+   */
+  LIFO,
+
+  /**
+   * The gain is computed at the average purchase price of every lot of the ticker. The
+   * amount sold comes out of the oldest lots, and the lots left are repriced to the
+   * average, so the cost of the ticker stays the average times the amount held
+   * whatever the order of later sales.
+   */
+  AVERAGE
+}
@@ -0,0 +1,29 @@
+package ve.edu.ucab.domain.model;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Geometric Brownian motion: the log price moves by the drift minus half the
+ * variance, μ - σ²/2, plus a normal shock with the volatility σ of the asset. Prices
+ * stay positive, returns are lognormal and the expected price grows by e^μ per tick.
+ */
+class GbmPriceModel implements PriceModel {
+
+  private final double drift;
+
+  GbmPriceModel(double drift) {
+    this.drift = drift;
+  }
+
+  @Override
+  public void step(double[] current, double[] next, double[] volatility, double[] base, int from, int to,
+      RandomGenerator[] random) {
+    for (int i = from; i < to; i++) {
+      next[i] = random[i].nextGaussian();
+    }
+    for (int i = from; i < to; i++) {
+      double sigma = volatility[i];
+      next[i] = current[i] * Math.exp(drift - 0.5 * sigma * sigma + sigma * next[i]);
+    }
+  }
+}
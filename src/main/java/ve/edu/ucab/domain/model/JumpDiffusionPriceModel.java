@@ -0,0 +1,45 @@
+package ve.edu.ucab.domain.model;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Merton jump diffusion: geometric Brownian motion plus, with the jump intensity as
+ * probability per tick, a normal jump of the log price. The drift is compensated for
+ * the expected jump, so the drift parameter stays the expected return.
+ */
+class JumpDiffusionPriceModel implements PriceModel {
+
+  private final double jumpIntensity;
+  private final double jumpMean;
+  private final double jumpVolatility;
+
+  /**
+   * The arithmetic drift of the diffusion between jumps; the log price moves by it
+   * minus σ²/2.
+   */
+  private final double compensatedDrift;
+
+  JumpDiffusionPriceModel(double drift, double jumpIntensity, double jumpMean, double jumpVolatility) {
+    this.jumpIntensity = jumpIntensity;
+    this.jumpMean = jumpMean;
+    this.jumpVolatility = jumpVolatility;
+    compensatedDrift = drift - jumpIntensity * (Math.exp(jumpMean + 0.5 * jumpVolatility * jumpVolatility) - 1);
+  }
+
+  @Override
+  public void step(double[] current, double[] next, double[] volatility, double[] base, int from, int to,
+      RandomGenerator[] random) {
+    // Primero el cambio aleatorio del logaritmo del precio, con el salto si lo hay
+    for (int i = from; i < to; i++) {
+      double change = volatility[i] * random[i].nextGaussian();
+      if (random[i].nextDouble() < jumpIntensity) {
+        change += jumpMean + jumpVolatility * random[i].nextGaussian();
+      }
+      next[i] = change;
+    }
+    for (int i = from; i < to; i++) {
+      double sigma = volatility[i];
+      next[i] = current[i] * Math.exp(compensatedDrift - 0.5 * sigma * sigma + next[i]);
+    }
+  }
+}
@@ -0,0 +1,361 @@
+package ve.edu.ucab.domain.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * The lots of a portfolio, indexed by ticker. The lots of each ticker are kept in a
+ * deque in purchase order, so the oldest and newest lot of a ticker are reached in
+ * constant time and a sale never scans the lots of other tickers.
+ *
+ * <p>As a list, the book holds the lots grouped by ticker, tickers in the order they
+ * were first bought and lots oldest first. Each lot also gets a sequence number when
+ * it is added, which gives the order the portfolio had when it was a single list.
+ */
+final class LotBook {
+
+  private final Map<String, LotDeque> byTicker = new LinkedHashMap<>();
+  private final List<Asset> view = new View();
+  private int size;
+  private long nextSequence;
+
+  /**
+   * Creates a book with the given lots, in order.
+   *
+   * @param lots the lots
+   */
+  LotBook(Collection<Asset> lots) {
+    for (Asset lot : lots) {
+      add(lot);
+    }
+  }
+
+  /**
+   * Appends a lot as the newest of its ticker.
+   *
+   * @param lot the lot
+   */
+  void add(Asset lot) {
+    byTicker.computeIfAbsent(lot.getTicker(), ticker -> new LotDeque()).addLast(lot, nextSequence++);
+    size++;
+  }
+
+  /**
+   * Gets the lots of a ticker.
+   *
+   * @param ticker the ticker
+   * @return the lots oldest first, or {@code null} if there are none
+   */
+  LotDeque lots(String ticker) {
+    return byTicker.get(ticker);
+  }
+
+  /**
+   * Finds a lot copied by {@link #copy()} among the lots of its ticker, by its lot
+   * number. Lots are numbered in the order they are read, so a portfolio evicted and
+   * read again numbers its lots as before.
+   *
+   * @param lot the copy of the lot to look for
+   * @return its position among the lots of its ticker, or -1 if the lot is no longer
+   *         held or was not copied from this book
+   */
+  int indexOf(Asset lot) {
+    LotDeque lots = byTicker.get(lot.getTicker());
+    return lots != null && lot.getLotId() >= 0 ? lots.indexOfSequence(lot.getLotId()) : -1;
+  }
+
+  /**
+   * Copies every lot, each with its sequence number as lot number.
+   *
+   * @return the copies, in the order of {@link #asList()}
+   */
+  List<Asset> copy() {
+    List<Asset> copy = new ArrayList<>(size);
+    for (LotDeque lots : byTicker.values()) {
+      for (int i = 0; i < lots.size(); i++) {
+        copy.add(lots.get(i).copyAs(lots.sequence(i)));
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Subtracts an amount from a lot, removing the lot if it is emptied.
+   *
+   * @param ticker the ticker
+   * @param index  the position of the lot among the lots of its ticker
+   * @param units  the amount to subtract, in {@link Quantity} units
+   * @return the lot
+   */
+  Asset reduce(String ticker, int index, long units) {
+    LotDeque lots = byTicker.get(ticker);
+    if (lots == null) {
+      throw new IndexOutOfBoundsException("No hay lotes de " + ticker);
+    }
+    Asset lot = lots.get(index);
+    long before = lot.getUnits();
+    long purchasePrice = lot.getPurchasePriceCents();
+    lot.subtractUnits(units);
+    lots.subtracted(before, lot.getUnits(), purchasePrice);
+    if (lot.getUnits() == 0) {
+      lots.remove(index);
+      size--;
+      if (lots.size() == 0) {
+        byTicker.remove(ticker);
+      }
+    }
+    return lot;
+  }
+
+  /**
+   * Sets the purchase price of every lot of a ticker, keeping their amounts.
+   *
+   * @param ticker     the ticker
+   * @param priceCents the new purchase price, in cents
+   */
+  void reprice(String ticker, long priceCents) {
+    LotDeque lots = byTicker.get(ticker);
+    if (lots != null) {
+      lots.reprice(priceCents);
+    }
+  }
+
+  /**
+   * Finds a lot by the position it would have in the portfolio as a single list in
+   * purchase order, which is how older journals refer to lots.
+   *
+   * @param index the position
+   * @return the ticker of the lot and its position among the lots of that ticker
+   */
+  Map.Entry<String, Integer> locateBySequence(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Lote inexistente: " + index);
+    }
+    long[] sequences = new long[size];
+    int count = 0;
+    for (LotDeque lots : byTicker.values()) {
+      for (int i = 0; i < lots.size(); i++) {
+        sequences[count++] = lots.sequence(i);
+      }
+    }
+    Arrays.sort(sequences);
+    long wanted = sequences[index];
+    for (Map.Entry<String, LotDeque> entry : byTicker.entrySet()) {
+      LotDeque lots = entry.getValue();
+      for (int i = 0; i < lots.size(); i++) {
+        if (lots.sequence(i) == wanted) {
+          return Map.entry(entry.getKey(), i);
+        }
+      }
+    }
+    throw new IllegalStateException("Secuencia de lote perdida: " + wanted);
+  }
+
+  /**
+   * Gets the number of lots.
+   *
+   * @return the number of lots of every ticker
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Gets the lots as a read-only list grouped by ticker. Iterating is linear; getting
+   * a lot by position costs one step per ticker.
+   *
+   * @return a live view of the lots
+   */
+  List<Asset> asList() {
+    return view;
+  }
+
+  /**
+   * The lots of one ticker in a circular array: adding and removing at either end is
+   * constant time. The total amount and cost of the lots are kept as they change, in
+   * {@link Quantity} units and cents; the cost is the sum of the cost of every lot, so
+   * it is exact whatever the order of the sales.
+   */
+  static final class LotDeque {
+
+    private Asset[] lots = new Asset[4];
+    private long[] sequences = new long[4];
+    private int head;
+    private int size;
+    private long amount;
+    private long cost;
+
+    int size() {
+      return size;
+    }
+
+    long amount() {
+      return amount;
+    }
+
+    long cost() {
+      return cost;
+    }
+
+    void subtracted(long before, long after, long purchasePrice) {
+      amount -= before - after;
+      cost -= Money.times(purchasePrice, before) - Money.times(purchasePrice, after);
+    }
+
+    void reprice(long priceCents) {
+      cost = 0;
+      for (int i = 0; i < size; i++) {
+        Asset lot = lots[slot(i)];
+        lot.reprice(priceCents);
+        cost += Money.times(priceCents, lot.getUnits());
+      }
+    }
+
+    Asset get(int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("Lote inexistente: " + index);
+      }
+      return lots[slot(index)];
+    }
+
+    Asset first() {
+      return get(0);
+    }
+
+    Asset last() {
+      return get(size - 1);
+    }
+
+    long sequence(int index) {
+      return sequences[slot(index)];
+    }
+
+    // Las secuencias crecen de la más antigua a la más nueva: búsqueda binaria
+    int indexOfSequence(long sequence) {
+      int low = 0;
+      int high = size - 1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        long midSequence = sequence(mid);
+        if (midSequence < sequence) {
+          low = mid + 1;
+        } else if (midSequence > sequence) {
+          high = mid - 1;
+        } else {
+          return mid;
+        }
+      }
+      return -1;
+    }
+
+    private int slot(int index) {
+      return (head + index) & (lots.length - 1);
+    }
+
+    void addLast(Asset lot, long sequence) {
+      if (size == lots.length) {
+        grow();
+      }
+      int slot = slot(size);
+      lots[slot] = lot;
+      sequences[slot] = sequence;
+      size++;
+      amount += lot.getUnits();
+      cost += Money.times(lot.getPurchasePriceCents(), lot.getUnits());
+    }
+
+    // Quitar de un extremo es O(1); del medio desplaza el lado más corto
+    void remove(int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("Lote inexistente: " + index);
+      }
+      if (index < size / 2) {
+        for (int i = index; i > 0; i--) {
+          lots[slot(i)] = lots[slot(i - 1)];
+          sequences[slot(i)] = sequences[slot(i - 1)];
+        }
+        lots[head] = null;
+        head = slot(1);
+      } else {
+        for (int i = index; i < size - 1; i++) {
+          lots[slot(i)] = lots[slot(i + 1)];
+          sequences[slot(i)] = sequences[slot(i + 1)];
+        }
+        lots[slot(size - 1)] = null;
+      }
+      size--;
+      if (size == 0) {
+        amount = 0;
+        cost = 0;
+      }
+    }
+
+    // La capacidad es siempre potencia de 2
+    private void grow() {
+      Asset[] grownLots = new Asset[lots.length * 2];
+      long[] grownSequences = new long[lots.length * 2];
+      for (int i = 0; i < size; i++) {
+        grownLots[i] = lots[slot(i)];
+        grownSequences[i] = sequences[slot(i)];
+      }
+      lots = grownLots;
+      sequences = grownSequences;
+      head = 0;
+    }
+  }
+
+  private final class View extends AbstractList<Asset> {
+
+    @Override
+    public Asset get(int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("Lote inexistente: " + index);
+      }
+      for (LotDeque lots : byTicker.values()) {
+        if (index < lots.size()) {
+          return lots.get(index);
+        }
+        index -= lots.size();
+      }
+      throw new IndexOutOfBoundsException("Lote inexistente: " + index);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public Iterator<Asset> iterator() {
+      Iterator<LotDeque> tickers = new ArrayList<>(byTicker.values()).iterator();
+      return new Iterator<>() {
+        private LotDeque current;
+        private int next;
+
+        @Override
+        public boolean hasNext() {
+          while ((current == null || next >= current.size()) && tickers.hasNext()) {
+            current = tickers.next();
+            next = 0;
+          }
+          return current != null && next < current.size();
+        }
+
+        @Override
+        public Asset next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          return current.get(next++);
+        }
+      };
+    }
+  }
+}
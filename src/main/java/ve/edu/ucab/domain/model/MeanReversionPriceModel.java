@@ -0,0 +1,29 @@
+package ve.edu.ucab.domain.model;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Ornstein-Uhlenbeck mean reversion of the log price: each tick closes a fixed
+ * fraction of the distance to the log of the base price and adds a normal shock with
+ * the volatility of the asset.
+ */
+class MeanReversionPriceModel implements PriceModel {
+
+  private final double reversion;
+
+  MeanReversionPriceModel(double reversion) {
+    this.reversion = reversion;
+  }
+
+  @Override
+  public void step(double[] current, double[] next, double[] volatility, double[] base, int from, int to,
+      RandomGenerator[] random) {
+    for (int i = from; i < to; i++) {
+      next[i] = random[i].nextGaussian();
+    }
+    for (int i = from; i < to; i++) {
+      double log = Math.log(current[i]);
+      next[i] = Math.exp(log + reversion * (Math.log(base[i]) - log) + volatility[i] * next[i]);
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package ve.edu.ucab.domain.model;
+
+/**
+ * Amounts of US dollars as a {@code long} number of cents. Balances, prices and
+ * trade values are kept in this form so sums are exact and a value is rounded once,
+ * when it enters the domain, instead of on every operation.
+ *
+ * <p>The methods are static and work on plain {@code long}s, so nothing is boxed.
+ * Every amount is expected to be non-negative.
+ */
+public final class Money {
+
+  /**
+   * The number of decimals of an amount.
+   */
+  public static final int SCALE = 2;
+
+  /**
+   * The number of cents in a dollar.
+   */
+  public static final long ONE = 100;
+
+  private Money() {
+  }
+
+  /**
+   * Converts dollars to cents, rounding half up.
+   *
+   * @param dollars the amount in dollars
+   * @return the amount in cents
+   */
+  public static long of(double dollars) {
+    return Math.round(dollars * ONE);
+  }
+
+  /**
+   * Converts cents to dollars.
+   *
+   * @param cents the amount in cents
+   * @return the amount in dollars, the closest {@code double} to the exact value
+   */
+  public static double toDouble(long cents) {
+    return cents / (double) ONE;
+  }
+
+  /**
+   * Computes the value of a quantity at a unit price, rounded half up to the cent.
+   * The quantity is split into whole and fractional units; the fraction times the
+   * price fits in a {@code long} for any price up to about 922 million dollars
+   * ({@code Long.MAX_VALUE / Quantity.ONE} cents).
+   *
+   * @param priceCents the price of one unit, in cents
+   * @param units      the quantity, in {@link Quantity} units
+   * @return the value in cents
+   * @throws ArithmeticException if the value, or the fraction times the price, does
+   *                             not fit in a {@code long}
+   */
+  public static long times(long priceCents, long units) {
+    long whole = units / Quantity.ONE;
+    long fraction = units % Quantity.ONE;
+    long fractionValue = Math.addExact(Math.multiplyExact(priceCents, fraction), Quantity.ONE / 2) / Quantity.ONE;
+    return Math.addExact(Math.multiplyExact(priceCents, whole), fractionValue);
+  }
+
+  /**
+   * Computes the unit price of a quantity bought for a total, rounded half up to the
+   * cent.
+   *
+   * @param cents the total, in cents
+   * @param units the quantity, in {@link Quantity} units; must be positive
+   * @return the price of one unit, in cents
+   */
+  public static long perUnit(long cents, long units) {
+    long high = Math.multiplyHigh(cents, Quantity.ONE);
+    long scaled = cents * Quantity.ONE;
+    if (high != 0 || scaled < 0) {
+      // Solo con totales de más de 900 millones de dólares
+      return Math.round((double) cents / units * Quantity.ONE);
+    }
+    return (scaled + units / 2) / units;
+  }
+}
@@ -0,0 +1,218 @@
+package ve.edu.ucab.domain.model;
+
+/**
+ * A limit, stop or stop-limit order of a user, resting in the {@link OrderManager}
+ * until the price of its ticker reaches it. Quantities and prices are kept as
+ * {@link Quantity} units and {@link Money} cents, like the lots they turn into.
+ *
+ * <p>The fields describing the order never change; its status is updated by the
+ * thread that matches or cancels it and may be read from any thread.
+ */
+public final class Order {
+
+  private final long id;
+  private final User user;
+  private final String ticker;
+  private final TransactionType side;
+  private final OrderType type;
+  private final long units;
+  private final long limitPriceCents;
+  private final long stopPriceCents;
+  private final CostMethod costMethod;
+  private volatile OrderStatus status = OrderStatus.OPEN;
+  private volatile long fillPriceCents = -1;
+  private volatile long fillVersion;
+  private volatile String rejectReason;
+
+  Order(long id, User user, String ticker, TransactionType side, OrderType type, long units, long limitPriceCents,
+      long stopPriceCents, CostMethod costMethod) {
+    this.id = id;
+    this.user = user;
+    this.ticker = ticker;
+    this.side = side;
+    this.type = type;
+    this.units = units;
+    this.limitPriceCents = limitPriceCents;
+    this.stopPriceCents = stopPriceCents;
+    this.costMethod = costMethod;
+  }
+
+  /**
+   * Gets the number of the order, unique while the application runs.
+   *
+   * @return the id
+   */
+  public long getId() {
+    return id;
+  }
+
+  /**
+   * Gets the user who placed the order.
+   *
+   * @return the user
+   */
+  public User getUser() {
+    return user;
+  }
+
+  /**
+   * Gets the ticker traded.
+   *
+   * @return the ticker
+   */
+  public String getTicker() {
+    return ticker;
+  }
+
+  /**
+   * Gets whether the order buys or sells.
+   *
+   * @return {@link TransactionType#BUY} or {@link TransactionType#SELL}
+   */
+  public TransactionType getSide() {
+    return side;
+  }
+
+  /**
+   * Gets the type of the order.
+   *
+   * @return the type
+   */
+  public OrderType getType() {
+    return type;
+  }
+
+  /**
+   * Gets the quantity to trade.
+   *
+   * @return the quantity, in {@link Quantity} units
+   */
+  public long getUnits() {
+    return units;
+  }
+
+  /**
+   * Gets the quantity to trade.
+   *
+   * @return the quantity
+   */
+  public double getAmount() {
+    return Quantity.toDouble(units);
+  }
+
+  /**
+   * Gets the limit price.
+   *
+   * @return the limit, in cents, or 0 for a {@link OrderType#STOP} order
+   */
+  public long getLimitPriceCents() {
+    return limitPriceCents;
+  }
+
+  /**
+   * Gets the limit price.
+   *
+   * @return the limit, or 0 for a {@link OrderType#STOP} order
+   */
+  public double getLimitPrice() {
+    return Money.toDouble(limitPriceCents);
+  }
+
+  /**
+   * Gets the stop price.
+   *
+   * @return the stop, in cents, or 0 for a {@link OrderType#LIMIT} order
+   */
+  public long getStopPriceCents() {
+    return stopPriceCents;
+  }
+
+  /**
+   * Gets the stop price.
+   *
+   * @return the stop, or 0 for a {@link OrderType#LIMIT} order
+   */
+  public double getStopPrice() {
+    return Money.toDouble(stopPriceCents);
+  }
+
+  /**
+   * Gets how the lots of a sale are chosen.
+   *
+   * @return the cost method
+   */
+  public CostMethod getCostMethod() {
+    return costMethod;
+  }
+
+  /**
+   * Gets the state of the order.
+   *
+   * @return the status
+   */
+  public OrderStatus getStatus() {
+    return status;
+  }
+
+  /**
+   * Checks whether the order is still waiting in the book.
+   *
+   * @return {@code true} if it is open or triggered
+   */
+  public boolean isActive() {
+    OrderStatus current = status;
+    return current == OrderStatus.OPEN || current == OrderStatus.TRIGGERED;
+  }
+
+  /**
+   * Gets the price the order executed at.
+   *
+   * @return the price, or {@link Double#NaN} if it has not executed
+   */
+  public double getFillPrice() {
+    long price = fillPriceCents;
+    return price < 0 ? Double.NaN : Money.toDouble(price);
+  }
+
+  /**
+   * Gets the version of the prices the order executed at.
+   *
+   * @return the version, or 0 if it has not executed
+   */
+  public long getFillVersion() {
+    return fillVersion;
+  }
+
+  /**
+   * Gets why the order could not execute.
+   *
+   * @return the reason, or {@code null} unless the order was rejected or failed
+   */
+  public String getRejectReason() {
+    return rejectReason;
+  }
+
+  void triggered() {
+    status = OrderStatus.TRIGGERED;
+  }
+
+  void filled(long priceCents, long version) {
+    fillPriceCents = priceCents;
+    fillVersion = version;
+    status = OrderStatus.FILLED;
+  }
+
+  void cancelled() {
+    status = OrderStatus.CANCELLED;
+  }
+
+  void rejected(String reason) {
+    rejectReason = reason;
+    status = OrderStatus.REJECTED;
+  }
+
+  void failed(String reason) {
+    rejectReason = reason;
+    status = OrderStatus.FAILED;
+  }
+}
@@ -0,0 +1,200 @@
+package ve.edu.ucab.domain.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The resting orders of one ticker, indexed by price. Buy and sell limits and buy
+ * and sell stops are kept in four ladders of price levels; within a level, orders
+ * keep the order they were placed in.
+ *
+ * <p>Each ladder is sorted so that the levels a price reaches are always at its end:
+ * matching a price is a binary search for the first level reached followed by
+ * removing the levels after it, so a tick costs O(log n) plus the orders it fills,
+ * however many orders rest away from the price.
+ *
+ * <p>The methods are synchronized; the orders matched are returned to be executed
+ * after the book is released.
+ */
+final class OrderBook {
+
+  private final Ladder buyLimits = new Ladder(false);
+  private final Ladder sellLimits = new Ladder(true);
+  private final Ladder buyStops = new Ladder(true);
+  private final Ladder sellStops = new Ladder(false);
+
+  /**
+   * Adds an order at its stop, or at its limit if it is a limit order.
+   *
+   * @param order the order
+   */
+  synchronized void add(Order order) {
+    if (order.getType() == OrderType.LIMIT) {
+      limits(order.getSide()).add(order.getLimitPriceCents(), order);
+    } else {
+      stops(order.getSide()).add(order.getStopPriceCents(), order);
+    }
+  }
+
+  /**
+   * Removes an order that has not been matched.
+   *
+   * @param order the order
+   * @return {@code true} if it was in the book
+   */
+  synchronized boolean remove(Order order) {
+    // Un stop-límite disparado ya descansa en su límite
+    if (order.getType() == OrderType.LIMIT || order.getStatus() == OrderStatus.TRIGGERED) {
+      return limits(order.getSide()).remove(order.getLimitPriceCents(), order);
+    }
+    return stops(order.getSide()).remove(order.getStopPriceCents(), order);
+  }
+
+  /**
+   * Takes the orders a price reaches. Stop orders reached execute; stop-limit orders
+   * reached rest at their limit from then on, and execute now if the price is already
+   * there.
+   *
+   * @param priceCents the price, in cents
+   * @param fills      receives the orders to execute at the price
+   */
+  synchronized void match(long priceCents, List<Order> fills) {
+    List<Order> triggered = new ArrayList<>();
+    buyStops.pollReached(priceCents, triggered);
+    sellStops.pollReached(priceCents, triggered);
+    for (Order order : triggered) {
+      if (order.getType() == OrderType.STOP_LIMIT) {
+        order.triggered();
+        limits(order.getSide()).add(order.getLimitPriceCents(), order);
+      } else {
+        fills.add(order);
+      }
+    }
+    buyLimits.pollReached(priceCents, fills);
+    sellLimits.pollReached(priceCents, fills);
+  }
+
+  /**
+   * Takes every order, for a ticker that left the catalog.
+   *
+   * @param orders receives the orders
+   */
+  synchronized void clear(List<Order> orders) {
+    buyStops.pollAll(orders);
+    sellStops.pollAll(orders);
+    buyLimits.pollAll(orders);
+    sellLimits.pollAll(orders);
+  }
+
+  /**
+   * Gets the number of orders resting.
+   *
+   * @return the number of orders of every ladder
+   */
+  synchronized int size() {
+    return buyLimits.orders + sellLimits.orders + buyStops.orders + sellStops.orders;
+  }
+
+  private Ladder limits(TransactionType side) {
+    return side == TransactionType.BUY ? buyLimits : sellLimits;
+  }
+
+  private Ladder stops(TransactionType side) {
+    return side == TransactionType.BUY ? buyStops : sellStops;
+  }
+
+  /**
+   * Price levels in a sorted array of {@code long} keys, with the orders of each level
+   * in a parallel list. The key of a price is the price itself, or its negation for a
+   * descending ladder, so a price reaches every level whose key is at least the key of
+   * the price:
+   * <ul>
+   * <li>a buy limit at or above the price, ascending;</li>
+   * <li>a sell limit at or below the price, descending;</li>
+   * <li>a buy stop at or below the price, descending;</li>
+   * <li>a sell stop at or above the price, ascending.</li>
+   * </ul>
+   * Levels near the price are at the end, so adding one shifts few entries.
+   */
+  static final class Ladder {
+
+    private final boolean descending;
+    private long[] keys = new long[8];
+    private final List<ArrayDeque<Order>> levels = new ArrayList<>();
+    private int size;
+    private int orders;
+
+    Ladder(boolean descending) {
+      this.descending = descending;
+    }
+
+    private long key(long priceCents) {
+      return descending ? -priceCents : priceCents;
+    }
+
+    void add(long priceCents, Order order) {
+      long key = key(priceCents);
+      int index = Arrays.binarySearch(keys, 0, size, key);
+      if (index < 0) {
+        index = -index - 1;
+        if (size == keys.length) {
+          keys = Arrays.copyOf(keys, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        keys[index] = key;
+        levels.add(index, new ArrayDeque<>());
+        size++;
+      }
+      levels.get(index).addLast(order);
+      orders++;
+    }
+
+    boolean remove(long priceCents, Order order) {
+      int index = Arrays.binarySearch(keys, 0, size, key(priceCents));
+      if (index < 0 || !levels.get(index).remove(order)) {
+        return false;
+      }
+      orders--;
+      if (levels.get(index).isEmpty()) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        levels.remove(index);
+        size--;
+      }
+      return true;
+    }
+
+    void pollReached(long priceCents, List<Order> out) {
+      pollFrom(firstAtLeast(key(priceCents)), out);
+    }
+
+    void pollAll(List<Order> out) {
+      pollFrom(0, out);
+    }
+
+    // Los niveles más alejados del precio, los más agresivos, se atienden primero
+    private void pollFrom(int from, List<Order> out) {
+      for (int i = size - 1; i >= from; i--) {
+        orders -= levels.get(i).size();
+        out.addAll(levels.get(i));
+      }
+      levels.subList(from, size).clear();
+      size = from;
+    }
+
+    private int firstAtLeast(long key) {
+      int low = 0;
+      int high = size;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (keys[mid] < key) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+}
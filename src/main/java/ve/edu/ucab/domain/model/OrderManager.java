@@ -0,0 +1,272 @@
+package ve.edu.ucab.domain.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the limit, stop and stop-limit orders of every user, in memory, in one
+ * {@link OrderBook} per ticker, and executes them as the {@link PriceEngine} publishes
+ * prices.
+ *
+ * <p>The manager subscribes to the engine's {@link PriceTickPublisher}. Each tick only
+ * visits the books of the tickers whose price changed, and each book only takes the
+ * orders the new price reaches, so resting orders far from the price cost nothing. A
+ * matched order executes at the price of the tick, as a market trade of its user
+ * would; an order the user cannot afford or cover when it is reached is rejected, and
+ * one whose execution throws an unexpected error is marked failed, both with the
+ * reason. Nothing is reserved when an order is placed.
+ *
+ * <p>Ticks published while a match is running are merged by the publisher, so orders
+ * are always matched against the latest price of each ticker, and a price that was
+ * replaced before it was matched is never seen.
+ */
+public final class OrderManager {
+
+  private static OrderManager instance;
+
+  private final Map<String, OrderBook> books = new ConcurrentHashMap<>();
+  private final Map<Integer, Set<Order>> openByUser = new ConcurrentHashMap<>();
+  private final AtomicLong nextId = new AtomicLong();
+
+  /**
+   * Creates a manager that is not subscribed to any ticks; {@link #getInstance()}
+   * subscribes the application's one.
+   */
+  OrderManager() {
+  }
+
+  /**
+   * Gets the order manager of the application, subscribing it to the engine's ticks
+   * the first time.
+   *
+   * @return the single instance of {@link OrderManager}
+   */
+  public static synchronized OrderManager getInstance() {
+    if (instance == null) {
+      instance = new OrderManager();
+      PriceEngine.getInstance().getTicks().subscribe(instance.new Matcher());
+    }
+    return instance;
+  }
+
+  /**
+   * Places an order. An order the current price already reaches executes before this
+   * returns.
+   *
+   * @param user       the user placing the order
+   * @param ticker     the ticker to trade
+   * @param side       {@link TransactionType#BUY} or {@link TransactionType#SELL}
+   * @param type       the type of the order
+   * @param amount     the quantity, rounded to the decimals of the ticker's type
+   * @param limitPrice the limit price; ignored for a {@link OrderType#STOP} order
+   * @param stopPrice  the stop price; ignored for a {@link OrderType#LIMIT} order
+   * @param method     how the lots of a sale are chosen
+   * @return the order
+   * @throws IllegalArgumentException if the ticker is not in the catalog, or the
+   *                                  quantity or a price it needs is not positive
+   */
+  public Order place(User user, String ticker, TransactionType side, OrderType type, double amount,
+      double limitPrice, double stopPrice, CostMethod method) {
+    CatalogAsset asset = AssetManager.getInstance().findByTicker(ticker);
+    if (asset == null)
+      throw new IllegalArgumentException("El activo no está en el catálogo");
+    if (side != TransactionType.BUY && side != TransactionType.SELL)
+      throw new IllegalArgumentException("La orden debe ser de compra o de venta");
+    long units = Quantity.of(amount, asset.getAssetType());
+    if (amount <= 0 || units <= 0)
+      throw new IllegalArgumentException("La cantidad debe ser mayor a 0");
+    long limit = type == OrderType.STOP ? 0 : Money.of(limitPrice);
+    long stop = type == OrderType.LIMIT ? 0 : Money.of(stopPrice);
+    if (type != OrderType.STOP && limit <= 0)
+      throw new IllegalArgumentException("El precio límite debe ser mayor a 0");
+    if (type != OrderType.LIMIT && stop <= 0)
+      throw new IllegalArgumentException("El precio stop debe ser mayor a 0");
+    Order order = new Order(nextId.incrementAndGet(), user, ticker, side, type, units, limit, stop, method);
+    OrderBook book = rest(order);
+    // Una orden que el precio actual ya alcanza se ejecuta en el acto
+    PriceSnapshot prices = PriceEngine.getInstance().getLatest();
+    double price = prices.getPrice(ticker);
+    if (!Double.isNaN(price)) {
+      match(book, Money.of(price), prices.getVersion());
+    }
+    return order;
+  }
+
+  /**
+   * Puts an order in the book of its ticker and among the open orders of its user,
+   * without matching it.
+   *
+   * @param order the order
+   * @return the book of the order's ticker
+   */
+  OrderBook rest(Order order) {
+    openByUser.compute(order.getUser().getId(), (id, orders) -> {
+      Set<Order> open = orders != null ? orders : ConcurrentHashMap.newKeySet();
+      open.add(order);
+      return open;
+    });
+    OrderBook book = books.computeIfAbsent(order.getTicker(), key -> new OrderBook());
+    book.add(order);
+    return book;
+  }
+
+  /**
+   * Cancels an order that has not executed.
+   *
+   * @param order the order
+   * @return {@code true} if it was cancelled, {@code false} if it had already
+   *         executed, been rejected or been cancelled
+   */
+  public boolean cancel(Order order) {
+    OrderBook book = books.get(order.getTicker());
+    if (book == null || !book.remove(order)) {
+      return false;
+    }
+    order.cancelled();
+    closed(order);
+    return true;
+  }
+
+  /**
+   * Gets the orders of a user that are still waiting.
+   *
+   * @param user the user
+   * @return the open and triggered orders, oldest first
+   */
+  public List<Order> getOpenOrders(User user) {
+    Set<Order> open = openByUser.get(user.getId());
+    if (open == null) {
+      return List.of();
+    }
+    List<Order> orders = new ArrayList<>(open);
+    orders.sort(Comparator.comparingLong(Order::getId));
+    return orders;
+  }
+
+  /**
+   * Gets the number of orders waiting, of every user.
+   *
+   * @return the number of orders in the books
+   */
+  public int getOpenOrderCount() {
+    int count = 0;
+    for (OrderBook book : books.values()) {
+      count += book.size();
+    }
+    return count;
+  }
+
+  /**
+   * Matches the books of the tickers in a delta against their new prices, walking the
+   * smaller of the delta and the books. The orders of a ticker that left the catalog
+   * are rejected.
+   *
+   * @param delta the price changes
+   */
+  void applyPrices(PriceDelta delta) {
+    Map<String, Double> prices = delta.prices();
+    if (prices.size() < books.size()) {
+      for (Map.Entry<String, Double> entry : prices.entrySet()) {
+        OrderBook book = books.get(entry.getKey());
+        if (book != null) {
+          match(book, Money.of(entry.getValue()), delta.version());
+        }
+      }
+    } else {
+      for (Map.Entry<String, OrderBook> entry : books.entrySet()) {
+        Double price = prices.get(entry.getKey());
+        if (price != null) {
+          match(entry.getValue(), Money.of(price), delta.version());
+        }
+      }
+    }
+    for (String ticker : delta.removed()) {
+      OrderBook book = books.get(ticker);
+      if (book == null) {
+        continue;
+      }
+      List<Order> orders = new ArrayList<>();
+      book.clear(orders);
+      for (Order order : orders) {
+        order.rejected("El activo salió del catálogo");
+        closed(order);
+      }
+    }
+  }
+
+  // Las órdenes se ejecutan fuera del libro, que queda libre para el siguiente tick
+  private void match(OrderBook book, long priceCents, long version) {
+    List<Order> fills = new ArrayList<>();
+    book.match(priceCents, fills);
+    for (Order order : fills) {
+      execute(order, priceCents, version);
+    }
+  }
+
+  private void execute(Order order, long priceCents, long version) {
+    try {
+      if (order.getSide() == TransactionType.BUY) {
+        CatalogAsset asset = AssetManager.getInstance().findByTicker(order.getTicker());
+        if (asset == null)
+          throw new IllegalArgumentException("El activo no está en el catálogo");
+        order.getUser().fillBuy(asset, order.getUnits(), priceCents, version);
+      } else {
+        order.getUser().fillSell(order.getTicker(), order.getUnits(), order.getCostMethod(), priceCents, version);
+      }
+      order.filled(priceCents, version);
+    } catch (IllegalArgumentException e) {
+      order.rejected(e.getMessage());
+    } catch (RuntimeException e) {
+      // La orden ya salió del libro: queda FAILED con el motivo para que el usuario lo vea
+      System.err.println("Error al ejecutar la orden " + order.getId() + ": " + e);
+      order.failed("Error al ejecutar la orden: " + e);
+    } finally {
+      closed(order);
+    }
+  }
+
+  private void closed(Order order) {
+    openByUser.computeIfPresent(order.getUser().getId(), (id, open) -> {
+      open.remove(order);
+      return open.isEmpty() ? null : open;
+    });
+  }
+
+  /**
+   * Receives the engine's ticks, one delta at a time.
+   */
+  private final class Matcher implements Flow.Subscriber<PriceDelta> {
+
+    private Flow.Subscription subscription;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      subscription.request(1);
+    }
+
+    @Override
+    public void onNext(PriceDelta delta) {
+      try {
+        applyPrices(delta);
+      } finally {
+        subscription.request(1);
+      }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+      System.err.println("Error recibiendo los precios: " + error.getMessage());
+    }
+
+    @Override
+    public void onComplete() {
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package ve.edu.ucab.domain.model;
+
+/**
+ * The state of an {@link Order}.
+ */
+public enum OrderStatus {
+
+  /**
+   * Resting in the book, waiting for its price.
+   */
+  OPEN,
+
+  /**
+   * A {@link OrderType#STOP_LIMIT} order whose stop was reached, resting as a limit
+   * order.
+   */
+  TRIGGERED,
+
+  /**
+   * Executed.
+   */
+  FILLED,
+
+  /**
+   * Cancelled by the user before it executed.
+   */
+  CANCELLED,
+
+  /**
+   * Reached its price but could not execute, for instance for lack of balance.
+   */
+  REJECTED,
+
+  /**
+   * Reached its price but its execution stopped on an unexpected error.
+   */
+  FAILED
+}
@@ -0,0 +1,25 @@
+package ve.edu.ucab.domain.model;
+
+/**
+ * When a resting {@link Order} executes, relative to the price of its ticker.
+ */
+public enum OrderType {
+
+  /**
+   * Executes once the price is at the limit or better: at or below it for a buy, at or
+   * above it for a sale.
+   */
+  LIMIT,
+
+  /**
+   * Executes at the market once the price reaches the stop: at or above it for a buy,
+   * at or below it for a sale.
+   */
+  STOP,
+
+  /**
+   * Becomes a limit order once the price reaches the stop, as a {@link #STOP} order
+   * would execute.
+   */
+  STOP_LIMIT
+}
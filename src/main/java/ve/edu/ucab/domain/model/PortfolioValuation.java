@@ -0,0 +1,232 @@
+package ve.edu.ucab.domain.model;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The current value of a user's portfolio, kept as running per-ticker aggregates so
+ * it never has to walk the lots again.
+ *
+ * <p>The {@link User} updates a ticker's amount and cost basis in constant time on
+ * every buy and sale. Price changes are applied from the {@link PriceDelta}s of the
+ * {@link PriceEngine}, and only the tickers held are revalued. The totals of the
+ * whole portfolio are adjusted by the difference of each change instead of being
+ * summed again.
+ *
+ * <p>Amounts are kept in {@link Quantity} units and values in {@link Money} cents, as
+ * the lots are, so a position sold lot by lot closes exactly and its cost basis is
+ * the sum of the cost of its lots.
+ *
+ * <p>The methods are synchronized, so trades and price updates may come from
+ * different threads.
+ */
+public class PortfolioValuation {
+
+  private final Map<String, Position> positions = new LinkedHashMap<>();
+  private long marketValue;
+  private long costBasis;
+
+  /**
+   * The running aggregate of one ticker.
+   */
+  private static final class Position {
+
+    long units;
+    long costBasis;
+    long price;
+
+    long marketValue() {
+      return Money.times(price, units);
+    }
+  }
+
+  /**
+   * Creates the valuation of a portfolio at the given prices.
+   *
+   * @param lots   the lots of the portfolio
+   * @param prices the current prices
+   */
+  PortfolioValuation(List<Asset> lots, PriceSnapshot prices) {
+    for (Asset lot : lots) {
+      Position position = positions.computeIfAbsent(lot.getTicker(), ticker -> {
+        Position created = new Position();
+        created.price = priceOf(prices.getPrice(ticker));
+        return created;
+      });
+      position.units += lot.getUnits();
+      position.costBasis += Money.times(lot.getPurchasePriceCents(), lot.getUnits());
+    }
+    for (Position position : positions.values()) {
+      marketValue += position.marketValue();
+      costBasis += position.costBasis;
+    }
+  }
+
+  // Un ticker fuera del catálogo vale 0, como en la pantalla de portafolio
+  private static long priceOf(double price) {
+    return Double.isNaN(price) ? 0 : Money.of(price);
+  }
+
+  /**
+   * Adds a bought lot to its ticker.
+   *
+   * @param ticker             the ticker
+   * @param units              the amount bought, in {@link Quantity} units
+   * @param purchasePriceCents the price paid per unit, in cents
+   * @param price              the current price of the ticker, or {@link Double#NaN}
+   *                           if it is not in the catalog
+   */
+  synchronized void lotAdded(String ticker, long units, long purchasePriceCents, double price) {
+    Position position = positions.get(ticker);
+    if (position == null) {
+      position = new Position();
+      position.price = priceOf(price);
+      positions.put(ticker, position);
+    }
+    long cost = Money.times(purchasePriceCents, units);
+    long before = position.marketValue();
+    position.units += units;
+    position.costBasis += cost;
+    marketValue += position.marketValue() - before;
+    costBasis += cost;
+  }
+
+  /**
+   * Removes an amount sold from a lot of a ticker. The position is closed once its
+   * amount reaches zero.
+   *
+   * @param ticker             the ticker
+   * @param lotUnits           the amount of the lot before the sale, in
+   *                           {@link Quantity} units
+   * @param unitsSold          the amount sold from the lot, in {@link Quantity} units
+   * @param purchasePriceCents the price paid per unit for the lot, in cents
+   */
+  synchronized void lotReduced(String ticker, long lotUnits, long unitsSold, long purchasePriceCents) {
+    Position position = positions.get(ticker);
+    if (position == null) {
+      return;
+    }
+    if (position.units <= unitsSold) {
+      marketValue -= position.marketValue();
+      costBasis -= position.costBasis;
+      positions.remove(ticker);
+      return;
+    }
+    // El costo de un lote es el de sus unidades: se resta la diferencia, como en LotBook
+    long cost = Money.times(purchasePriceCents, lotUnits) - Money.times(purchasePriceCents, lotUnits - unitsSold);
+    long before = position.marketValue();
+    position.units -= unitsSold;
+    position.costBasis -= cost;
+    marketValue += position.marketValue() - before;
+    costBasis -= cost;
+  }
+
+  /**
+   * Replaces the cost basis of a ticker, after its lots were repriced to their
+   * average purchase price.
+   *
+   * @param ticker         the ticker
+   * @param costBasisCents the new cost of the position, in cents
+   */
+  synchronized void repriced(String ticker, long costBasisCents) {
+    Position position = positions.get(ticker);
+    if (position != null) {
+      costBasis += costBasisCents - position.costBasis;
+      position.costBasis = costBasisCents;
+    }
+  }
+
+  /**
+   * Revalues the tickers held whose price changed. Runs in time proportional to the
+   * smaller of the delta and the portfolio.
+   *
+   * @param delta the price changes
+   * @return the tickers whose value changed
+   */
+  public synchronized Set<String> applyPrices(PriceDelta delta) {
+    Set<String> changed = new HashSet<>();
+    if (delta.prices().size() < positions.size()) {
+      for (Map.Entry<String, Double> entry : delta.prices().entrySet()) {
+        reprice(entry.getKey(), positions.get(entry.getKey()), Money.of(entry.getValue()), changed);
+      }
+    } else {
+      for (Map.Entry<String, Position> entry : positions.entrySet()) {
+        Double price = delta.prices().get(entry.getKey());
+        if (price != null) {
+          reprice(entry.getKey(), entry.getValue(), Money.of(price), changed);
+        }
+      }
+    }
+    for (String ticker : delta.removed()) {
+      reprice(ticker, positions.get(ticker), 0, changed);
+    }
+    return changed;
+  }
+
+  private void reprice(String ticker, Position position, long price, Set<String> changed) {
+    if (position == null || position.price == price) {
+      return;
+    }
+    long before = position.marketValue();
+    position.price = price;
+    marketValue += position.marketValue() - before;
+    changed.add(ticker);
+  }
+
+  /**
+   * Gets the value of one ticker.
+   *
+   * @param ticker the ticker
+   * @return its value, or {@code null} if the portfolio holds none
+   */
+  public synchronized PositionValue getPosition(String ticker) {
+    Position position = positions.get(ticker);
+    return position != null ? new PositionValue(ticker, position.units, position.costBasis, position.price)
+        : null;
+  }
+
+  /**
+   * Gets the value of every ticker held, in the order they were first bought.
+   *
+   * @return the positions
+   */
+  public synchronized List<PositionValue> getPositions() {
+    List<PositionValue> values = new ArrayList<>(positions.size());
+    for (Map.Entry<String, Position> entry : positions.entrySet()) {
+      Position position = entry.getValue();
+      values.add(new PositionValue(entry.getKey(), position.units, position.costBasis, position.price));
+    }
+    return values;
+  }
+
+  /**
+   * Gets the current value of the whole portfolio.
+   *
+   * @return the sum of every amount times its current price
+   */
+  public synchronized double getMarketValue() {
+    return Money.toDouble(marketValue);
+  }
+
+  /**
+   * Gets what was paid for the whole portfolio.
+   *
+   * @return the sum of every amount times its purchase price
+   */
+  public synchronized double getCostBasis() {
+    return Money.toDouble(costBasis);
+  }
+
+  /**
+   * Gets the unrealized gain of the whole portfolio.
+   *
+   * @return the market value minus the cost basis
+   */
+  public synchronized double getGain() {
+    return Money.toDouble(marketValue - costBasis);
+  }
+}
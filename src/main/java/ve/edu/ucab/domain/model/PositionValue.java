@@ -0,0 +1,58 @@
+package ve.edu.ucab.domain.model;
+
+/**
+ * The value of every lot of one ticker in a portfolio, as computed by a
+ * {@link PortfolioValuation}, in {@link Quantity} units and {@link Money} cents.
+ *
+ * @param ticker         the ticker
+ * @param units          the total amount held, in units
+ * @param costBasisCents what was paid for that amount, in cents
+ * @param priceCents     the current price of the ticker, in cents
+ */
+public record PositionValue(String ticker, long units, long costBasisCents, long priceCents) {
+
+  /**
+   * Gets the total amount held.
+   *
+   * @return the amount
+   */
+  public double amount() {
+    return Quantity.toDouble(units);
+  }
+
+  /**
+   * Gets what was paid for the amount held.
+   *
+   * @return the cost basis
+   */
+  public double costBasis() {
+    return Money.toDouble(costBasisCents);
+  }
+
+  /**
+   * Gets the current price of the ticker.
+   *
+   * @return the price
+   */
+  public double price() {
+    return Money.toDouble(priceCents);
+  }
+
+  /**
+   * Gets the current value of the position.
+   *
+   * @return the amount times the current price, rounded to the cent
+   */
+  public double marketValue() {
+    return Money.toDouble(Money.times(priceCents, units));
+  }
+
+  /**
+   * Gets the unrealized gain of the position.
+   *
+   * @return the market value minus the cost basis
+   */
+  public double gain() {
+    return Money.toDouble(Money.times(priceCents, units) - costBasisCents);
+  }
+}
@@ -0,0 +1,13 @@
+package ve.edu.ucab.domain.model;
+
+/**
+ * The open, high, low and close prices of one ticker over one bar.
+ *
+ * @param start the start of the bar, in milliseconds since the epoch
+ * @param open  the first price of the bar
+ * @param high  the highest price of the bar
+ * @param low   the lowest price of the bar
+ * @param close the last price of the bar
+ */
+public record PriceBar(long start, double open, double high, double low, double close) {
+}
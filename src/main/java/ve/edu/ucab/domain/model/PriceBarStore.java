@@ -0,0 +1,289 @@
+package ve.edu.ucab.domain.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import ve.edu.ucab.infrastructure.datasource.BarFile;
+
+/**
+ * Aggregates the published price snapshots into OHLC bars of every
+ * {@link BarResolution}, so charts and analytics can query price history without
+ * rescanning raw ticks.
+ *
+ * <p>The most recent bars of each resolution live in an off-heap ring buffer with
+ * room for {@code -Dprices.bars.capacity} bars per ticker (120 by default). Every
+ * closed bar is also appended to a memory-mapped {@link BarFile} per resolution
+ * ({@code data/bars-1s.bin}, {@code data/bars-1m.bin} and {@code data/bars-1h.bin}),
+ * which keeps the full history; {@code -Dprices.bars=false} keeps the bars in memory
+ * only.
+ *
+ * <p>Snapshots are fed by the {@link PriceEngine}; queries may come from any thread.
+ */
+public class PriceBarStore {
+
+  /**
+   * Whether closed bars are persisted.
+   */
+  private static final boolean PERSIST = Boolean.parseBoolean(System.getProperty("prices.bars", "true"));
+
+  /**
+   * The number of bars per ticker kept in each ring buffer.
+   */
+  private static final int CAPACITY = Integer.getInteger("prices.bars.capacity", 120);
+
+  /**
+   * The directory of the bar files.
+   */
+  private static final Path DIRECTORY = Paths.get("data");
+
+  /**
+   * The size of a bar in the ring buffers: long start and four double prices.
+   */
+  private static final int BAR_SIZE = Long.BYTES + 4 * Double.BYTES;
+
+  private final Map<BarResolution, Series> series = new EnumMap<>(BarResolution.class);
+  private String[] tickers = new String[0];
+  private Map<String, Integer> tickerIds = Map.of();
+  private long lastVersion = -1;
+
+  /**
+   * The bars of one resolution: the open bar of every ticker, the ring buffer of the
+   * latest closed bars and the bar file.
+   */
+  private static final class Series {
+
+    final BarResolution resolution;
+    final ByteBuffer ring;
+    final double[] open;
+    final double[] high;
+    final double[] low;
+    final double[] close;
+    long currentStart = Long.MIN_VALUE;
+    // Posición del próximo bar en el anillo y cantidad de bares guardados
+    int head;
+    int size;
+    BarFile file;
+
+    Series(BarResolution resolution, int tickers) {
+      this.resolution = resolution;
+      ring = ByteBuffer.allocateDirect(Math.multiplyExact(tickers, CAPACITY * BAR_SIZE));
+      open = new double[tickers];
+      high = new double[tickers];
+      low = new double[tickers];
+      close = new double[tickers];
+    }
+
+    int offset(int ticker, int slot) {
+      return (ticker * CAPACITY + slot) * BAR_SIZE;
+    }
+
+    // Índice en el anillo del i-ésimo bar más viejo
+    int slot(int age) {
+      return Math.floorMod(head - size + age, CAPACITY);
+    }
+  }
+
+  /**
+   * Adds a snapshot to the open bars, closing the bars whose interval ended. Older
+   * versions than the last one added are ignored.
+   *
+   * @param snapshot the published snapshot
+   */
+  synchronized void add(PriceSnapshot snapshot) {
+    if (snapshot.getVersion() <= lastVersion && snapshot.size() == tickers.length) {
+      return;
+    }
+    lastVersion = snapshot.getVersion();
+    if (!sameTickers(snapshot)) {
+      reset(snapshot);
+    }
+    long timestamp = snapshot.getTimestamp();
+    for (Series bars : series.values()) {
+      long start = bars.resolution.barStart(timestamp);
+      // Un snapshot con hora anterior al bar abierto se suma a ese bar
+      if (start > bars.currentStart) {
+        if (bars.currentStart != Long.MIN_VALUE) {
+          closeBars(bars);
+        }
+        bars.currentStart = start;
+        for (int i = 0; i < tickers.length; i++) {
+          double price = snapshot.getPrice(i);
+          bars.open[i] = price;
+          bars.high[i] = price;
+          bars.low[i] = price;
+          bars.close[i] = price;
+        }
+      } else {
+        for (int i = 0; i < tickers.length; i++) {
+          double price = snapshot.getPrice(i);
+          bars.high[i] = Math.max(bars.high[i], price);
+          bars.low[i] = Math.min(bars.low[i], price);
+          bars.close[i] = price;
+        }
+      }
+    }
+  }
+
+  private boolean sameTickers(PriceSnapshot snapshot) {
+    if (snapshot.size() != tickers.length) {
+      return false;
+    }
+    for (int i = 0; i < tickers.length; i++) {
+      if (!tickers[i].equals(snapshot.getTicker(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Un catálogo distinto empieza series nuevas; los archivos viejos pasan a .prev
+  private void reset(PriceSnapshot snapshot) {
+    close();
+    tickers = new String[snapshot.size()];
+    Map<String, Integer> ids = new HashMap<>();
+    for (int i = 0; i < tickers.length; i++) {
+      tickers[i] = snapshot.getTicker(i);
+      ids.putIfAbsent(tickers[i], i);
+    }
+    tickerIds = ids;
+    for (BarResolution resolution : BarResolution.values()) {
+      Series bars = new Series(resolution, tickers.length);
+      if (PERSIST) {
+        Path path = DIRECTORY.resolve("bars-" + resolution.getSuffix() + ".bin");
+        try {
+          bars.file = BarFile.open(path, resolution.getMillis(), tickers);
+        } catch (IOException | RuntimeException e) {
+          System.err.println("No se pudo abrir el archivo de barras " + path + ": " + e.getMessage());
+        }
+      }
+      series.put(resolution, bars);
+    }
+  }
+
+  private void closeBars(Series bars) {
+    for (int i = 0; i < tickers.length; i++) {
+      int offset = bars.offset(i, bars.head);
+      bars.ring.putLong(offset, bars.currentStart);
+      bars.ring.putDouble(offset + 8, bars.open[i]);
+      bars.ring.putDouble(offset + 16, bars.high[i]);
+      bars.ring.putDouble(offset + 24, bars.low[i]);
+      bars.ring.putDouble(offset + 32, bars.close[i]);
+    }
+    bars.head = (bars.head + 1) % CAPACITY;
+    bars.size = Math.min(bars.size + 1, CAPACITY);
+    if (bars.file != null) {
+      try {
+        for (int i = 0; i < tickers.length; i++) {
+          bars.file.append(i, bars.currentStart, bars.open[i], bars.high[i], bars.low[i], bars.close[i]);
+        }
+      } catch (IOException | RuntimeException e) {
+        System.err.println("Error guardando las barras de " + bars.resolution.getSuffix()
+            + ", se guardarán solo en memoria: " + e.getMessage());
+        closeFile(bars);
+      }
+    }
+  }
+
+  /**
+   * Gets the bars of a ticker that start within a range, oldest first. The bar still
+   * open is included last if it starts within the range. Bars older than the ring
+   * buffer are read from the bar file.
+   *
+   * @param ticker     the ticker
+   * @param resolution the resolution
+   * @param from       the earliest start, inclusive, in milliseconds since the epoch
+   * @param to         the latest start, exclusive
+   * @return the bars, empty if the ticker is unknown
+   */
+  public synchronized List<PriceBar> getBars(String ticker, BarResolution resolution, long from, long to) {
+    List<PriceBar> result = new ArrayList<>();
+    Integer id = ticker != null ? tickerIds.get(ticker) : null;
+    Series bars = series.get(resolution);
+    if (id == null || bars == null) {
+      return result;
+    }
+    long oldestInRing = bars.size > 0 ? bars.ring.getLong(bars.offset(id, bars.slot(0))) : bars.currentStart;
+    if (from < oldestInRing && bars.file != null) {
+      BarFile file = bars.file;
+      for (long index = file.search(from); index < file.size(); index++) {
+        long start = file.getStart(index);
+        if (start >= to) {
+          break;
+        }
+        if (file.getTicker(index) == id) {
+          result.add(new PriceBar(start, file.getOpen(index), file.getHigh(index), file.getLow(index),
+              file.getClose(index)));
+        }
+      }
+    } else {
+      for (int age = 0; age < bars.size; age++) {
+        int offset = bars.offset(id, bars.slot(age));
+        long start = bars.ring.getLong(offset);
+        if (start >= from && start < to) {
+          result.add(new PriceBar(start, bars.ring.getDouble(offset + 8), bars.ring.getDouble(offset + 16),
+              bars.ring.getDouble(offset + 24), bars.ring.getDouble(offset + 32)));
+        }
+      }
+    }
+    if (bars.currentStart >= from && bars.currentStart < to) {
+      result.add(new PriceBar(bars.currentStart, bars.open[id], bars.high[id], bars.low[id], bars.close[id]));
+    }
+    return result;
+  }
+
+  /**
+   * Gets the latest closing prices of a ticker, for sparklines. The last one is that
+   * of the bar still open.
+   *
+   * @param ticker     the ticker
+   * @param resolution the resolution
+   * @param count      the maximum number of prices
+   * @return up to {@code count} closing prices, oldest first
+   */
+  public synchronized double[] getCloses(String ticker, BarResolution resolution, int count) {
+    Integer id = ticker != null ? tickerIds.get(ticker) : null;
+    Series bars = series.get(resolution);
+    if (id == null || bars == null || bars.currentStart == Long.MIN_VALUE || count <= 0) {
+      return new double[0];
+    }
+    int closed = Math.min(bars.size, count - 1);
+    double[] closes = new double[closed + 1];
+    for (int i = 0; i < closed; i++) {
+      closes[i] = bars.ring.getDouble(bars.offset(id, bars.slot(bars.size - closed + i)) + 32);
+    }
+    closes[closed] = bars.close[id];
+    return closes;
+  }
+
+  /**
+   * Writes the closed bars to disk and closes the bar files. Bars added afterwards
+   * open them again.
+   */
+  synchronized void close() {
+    for (Series bars : series.values()) {
+      closeFile(bars);
+    }
+    series.clear();
+    tickers = new String[0];
+    tickerIds = Map.of();
+  }
+
+  private static void closeFile(Series bars) {
+    if (bars.file == null) {
+      return;
+    }
+    try {
+      bars.file.close();
+    } catch (IOException e) {
+      System.err.println("Error cerrando el archivo de barras de " + bars.resolution.getSuffix() + ": "
+          + e.getMessage());
+    }
+    bars.file = null;
+  }
+}
@@ -0,0 +1,81 @@
+package ve.edu.ucab.domain.model;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The prices that changed between two snapshots published by the {@link PriceEngine},
+ * as delivered by its {@link PriceTickPublisher}. Changes that a slow subscriber has
+ * not requested yet are merged into one delta, so it only ever receives the latest
+ * price of each ticker.
+ *
+ * @param version   the version of the latest snapshot the delta includes
+ * @param timestamp the time of that snapshot, in milliseconds since the epoch
+ * @param prices    the new price of every ticker that changed or was added
+ * @param removed   the tickers that are no longer in the catalog
+ */
+public record PriceDelta(long version, long timestamp, Map<String, Double> prices, Set<String> removed) {
+
+  /**
+   * Creates a delta with every price of a snapshot, for a new subscriber.
+   *
+   * @param snapshot the snapshot
+   * @return the delta
+   */
+  static PriceDelta of(PriceSnapshot snapshot) {
+    Map<String, Double> prices = new LinkedHashMap<>();
+    for (int i = 0; i < snapshot.size(); i++) {
+      prices.put(snapshot.getTicker(i), snapshot.getPrice(i));
+    }
+    return new PriceDelta(snapshot.getVersion(), snapshot.getTimestamp(), Collections.unmodifiableMap(prices),
+        Set.of());
+  }
+
+  /**
+   * Creates the delta between two snapshots.
+   *
+   * @param previous the snapshot published before
+   * @param next     the new snapshot
+   * @return the delta
+   */
+  static PriceDelta between(PriceSnapshot previous, PriceSnapshot next) {
+    Map<String, Double> prices = new LinkedHashMap<>();
+    Set<String> removed = new HashSet<>();
+    if (next.sameLayout(previous)) {
+      double[] before = previous.prices();
+      double[] after = next.prices();
+      for (int i = 0; i < after.length; i++) {
+        if (Double.compare(before[i], after[i]) != 0) {
+          prices.put(next.getTicker(i), after[i]);
+        }
+      }
+    } else {
+      // Catálogo recargado: se compara por ticker
+      for (int i = 0; i < next.size(); i++) {
+        double before = previous.getPrice(next.getTicker(i));
+        if (Double.compare(before, next.getPrice(i)) != 0) {
+          prices.put(next.getTicker(i), next.getPrice(i));
+        }
+      }
+      for (int i = 0; i < previous.size(); i++) {
+        if (next.indexOf(previous.getTicker(i)) < 0) {
+          removed.add(previous.getTicker(i));
+        }
+      }
+    }
+    return new PriceDelta(next.getVersion(), next.getTimestamp(), Collections.unmodifiableMap(prices),
+        Collections.unmodifiableSet(removed));
+  }
+
+  /**
+   * Checks whether the delta changes anything.
+   *
+   * @return {@code true} if no price changed and no ticker was removed
+   */
+  public boolean isEmpty() {
+    return prices.isEmpty() && removed.isEmpty();
+  }
+}
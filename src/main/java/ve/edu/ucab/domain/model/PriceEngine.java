@@ -0,0 +1,352 @@
+package ve.edu.ucab.domain.model;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import ve.edu.ucab.infrastructure.datasource.TickFile;
+
+/**
+ * The only owner of catalog price updates. A single scheduled thread advances every
+ * price of the {@link AssetManager} once per tick and publishes the result as an
+ * immutable {@link PriceSnapshot}, so prices move at the same rate whatever screens
+ * are open. Screens subscribe to the engine's {@link PriceTickPublisher} instead of
+ * driving it.
+ *
+ * <p>The current snapshot is published through an {@link AtomicReference}: readers
+ * never lock, and a reader that keeps one snapshot sees a consistent set of prices
+ * even while the engine publishes the next version.
+ *
+ * <p>The tick interval defaults to 5 seconds and can be changed with
+ * {@code -Dprices.tick=N} (milliseconds). For reproducible load tests:
+ * <ul>
+ * <li>{@code -Dprices.seed=N} fixes the master seed of the simulation;</li>
+ * <li>{@code -Dprices.record=FILE} records every published snapshot to a
+ * {@link TickFile};</li>
+ * <li>{@code -Dprices.replay=FILE} replays a recording instead of simulating, at the
+ * speed given by {@code -Dprices.replay.speed} (1 is real time, 0 is as fast as
+ * possible).</li>
+ * </ul>
+ */
+public class PriceEngine {
+
+  /**
+   * The interval between ticks, in milliseconds.
+   */
+  private static final long TICK_MS = Long.getLong("prices.tick", 5000);
+
+  /**
+   * The tick file every snapshot is recorded to, or {@code null}.
+   */
+  private static final String RECORD_FILE = System.getProperty("prices.record");
+
+  /**
+   * The tick file replayed instead of simulating, or {@code null}.
+   */
+  private static final String REPLAY_FILE = System.getProperty("prices.replay");
+
+  /**
+   * The replay speed relative to the recording; 0 replays as fast as possible.
+   */
+  private static final double REPLAY_SPEED = Double.parseDouble(System.getProperty("prices.replay.speed", "1"));
+
+  /**
+   * The longest pause between checks for {@link #stop()} while replaying.
+   */
+  private static final long REPLAY_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+  private static PriceEngine instance;
+
+  /**
+   * Publishes the changes of every published snapshot.
+   */
+  private final PriceTickPublisher ticksPublisher;
+
+  /**
+   * Guards {@link #recorder}.
+   */
+  private final Object recordLock = new Object();
+
+  /**
+   * The current prices. Replaced with compare-and-set, never modified.
+   */
+  private final AtomicReference<PriceSnapshot> latest;
+
+  private ScheduledExecutorService executor;
+  private ScheduledFuture<?> ticks;
+
+  /**
+   * The recording of the published snapshots, or {@code null}.
+   */
+  private TickFile.Writer recorder;
+
+  /**
+   * The OHLC bars of the published snapshots.
+   */
+  private final PriceBarStore bars = new PriceBarStore();
+
+  /**
+   * Set by {@link #stop()} to end a replay.
+   */
+  private volatile boolean stopping;
+
+  private PriceEngine() {
+    latest = new AtomicReference<>(AssetManager.getInstance().initialPrices());
+    ticksPublisher = new PriceTickPublisher(latest.get());
+  }
+
+  /**
+   * Gets the engine of the application.
+   *
+   * @return the single instance of {@link PriceEngine}
+   */
+  public static synchronized PriceEngine getInstance() {
+    if (instance == null) {
+      instance = new PriceEngine();
+    }
+    return instance;
+  }
+
+  /**
+   * Starts ticking, or replaying the configured recording. Does nothing if the engine
+   * is already running.
+   */
+  public synchronized void start() {
+    if (ticks != null) {
+      return;
+    }
+    stopping = false;
+    if (RECORD_FILE != null) {
+      startRecording(Paths.get(RECORD_FILE));
+    }
+    executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "price-engine");
+      thread.setDaemon(true);
+      return thread;
+    });
+    if (REPLAY_FILE != null) {
+      ticks = executor.schedule(() -> replayConfigured(Paths.get(REPLAY_FILE)), 0, TimeUnit.MILLISECONDS);
+    } else {
+      ticks = executor.scheduleAtFixedRate(this::tick, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void startRecording(Path file) {
+    PriceSnapshot current = latest.get();
+    String[] tickers = new String[current.size()];
+    for (int i = 0; i < tickers.length; i++) {
+      tickers[i] = current.getTicker(i);
+    }
+    try {
+      synchronized (recordLock) {
+        recorder = new TickFile.Writer(file, tickers);
+      }
+      // La grabación empieza con los precios actuales
+      record(current);
+      System.out.println("Grabando los precios en " + file);
+    } catch (IOException e) {
+      System.err.println("No se pudo crear la grabación de precios " + file + ": " + e.getMessage());
+    }
+  }
+
+  private void replayConfigured(Path file) {
+    try {
+      long count = replay(file, REPLAY_SPEED, () -> stopping);
+      System.out.println("Reproducción de precios terminada: " + count + " ticks de " + file);
+    } catch (IOException e) {
+      System.err.println("Error reproduciendo los precios de " + file + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Stops ticking and waits for the current tick to finish.
+   */
+  public synchronized void stop() {
+    if (ticks == null) {
+      return;
+    }
+    stopping = true;
+    ticks.cancel(false);
+    executor.shutdown();
+    try {
+      executor.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    ticks = null;
+    executor = null;
+    bars.close();
+    synchronized (recordLock) {
+      if (recorder != null) {
+        try {
+          recorder.close();
+        } catch (IOException e) {
+          System.err.println("Error cerrando la grabación de precios: " + e.getMessage());
+        }
+        recorder = null;
+      }
+    }
+  }
+
+  /**
+   * Advances every price once and notifies the subscribers. Runs on the engine thread.
+   */
+  void tick() {
+    PriceSnapshot snapshot;
+    try {
+      AssetManager manager = AssetManager.getInstance();
+      PriceSnapshot current;
+      do {
+        current = latest.get();
+        snapshot = manager.simulatePriceChanges(current);
+      } while (!latest.compareAndSet(current, snapshot));
+      manager.applyPrices(snapshot);
+    } catch (RuntimeException e) {
+      // Una excepción cancelaría los ticks siguientes
+      System.err.println("Error simulando los precios: " + e.getMessage());
+      e.printStackTrace();
+      return;
+    }
+    publish(snapshot);
+  }
+
+  private void publish(PriceSnapshot snapshot) {
+    record(snapshot);
+    bars.add(snapshot);
+    ticksPublisher.submit(snapshot);
+  }
+
+  private void record(PriceSnapshot snapshot) {
+    synchronized (recordLock) {
+      if (recorder == null) {
+        return;
+      }
+      try {
+        recorder.write(snapshot.getTimestamp(), snapshot.prices());
+      } catch (IOException e) {
+        System.err.println("Error grabando los precios, se detiene la grabación: " + e.getMessage());
+        try {
+          recorder.close();
+        } catch (IOException ignored) {
+        }
+        recorder = null;
+      }
+    }
+  }
+
+  /**
+   * Publishes every tick of a recording, in order, on the calling thread. Recorded
+   * tickers missing from the catalog are skipped and catalog tickers missing from the
+   * recording keep their price, so a recording can be replayed against a changed
+   * catalog. Benchmarks can call this directly to run against identical prices.
+   *
+   * @param file  the tick file
+   * @param speed the speed relative to the recording, or 0 to replay as fast as
+   *              possible
+   * @return the number of ticks replayed
+   * @throws IOException if the recording cannot be read
+   */
+  public long replay(Path file, double speed) throws IOException {
+    return replay(file, speed, () -> false);
+  }
+
+  private long replay(Path file, double speed, BooleanSupplier stopped) throws IOException {
+    AssetManager manager = AssetManager.getInstance();
+    try (TickFile.Reader reader = new TickFile.Reader(file)) {
+      String[] recorded = reader.getTickers();
+      long count = 0;
+      long firstTimestamp = 0;
+      long startNanos = System.nanoTime();
+      while (!stopped.getAsBoolean() && reader.next()) {
+        if (count == 0) {
+          firstTimestamp = reader.getTimestamp();
+        } else if (speed > 0) {
+          long due = startNanos + (long) ((reader.getTimestamp() - firstTimestamp) * 1_000_000 / speed);
+          long wait;
+          while (!stopped.getAsBoolean() && (wait = due - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(Math.min(wait, REPLAY_PARK_NANOS));
+          }
+        }
+        double[] prices = reader.getPrices();
+        PriceSnapshot snapshot = latest.updateAndGet(current -> {
+          // Por ticker, porque el catálogo puede recargarse durante la reproducción
+          double[] next = current.toArray();
+          for (int i = 0; i < recorded.length; i++) {
+            int id = current.indexOf(recorded[i]);
+            if (id >= 0) {
+              next[id] = prices[i];
+            }
+          }
+          return current.withPrices(next);
+        });
+        manager.applyPrices(snapshot);
+        publish(snapshot);
+        count++;
+      }
+      return count;
+    }
+  }
+
+  /**
+   * Gets the current prices. Callers that need several prices, or the same price
+   * twice, should keep the returned snapshot instead of calling this again.
+   *
+   * @return the latest snapshot
+   */
+  public PriceSnapshot getLatest() {
+    return latest.get();
+  }
+
+  /**
+   * Publishes a new version with one price changed and notifies the subscribers.
+   *
+   * @param ticker the ticker
+   * @param price  the new price
+   * @return the published snapshot
+   */
+  public PriceSnapshot setPrice(String ticker, double price) {
+    PriceSnapshot snapshot = latest.updateAndGet(current -> current.withPrice(ticker, price));
+    AssetManager.getInstance().applyPrices(snapshot);
+    publish(snapshot);
+    return snapshot;
+  }
+
+  /**
+   * Publishes the prices of a reloaded catalog: tickers kept from the previous
+   * catalog keep their current price and new ones start at their catalog price.
+   *
+   * @return the published snapshot
+   */
+  PriceSnapshot publishCatalog() {
+    AssetManager manager = AssetManager.getInstance();
+    PriceSnapshot snapshot = latest.updateAndGet(manager::rebase);
+    manager.applyPrices(snapshot);
+    publish(snapshot);
+    return snapshot;
+  }
+
+  /**
+   * Gets the OHLC bars aggregated from the published snapshots.
+   *
+   * @return the bar store
+   */
+  public PriceBarStore getBars() {
+    return bars;
+  }
+
+  /**
+   * Gets the publisher of the price changes. Subscriptions should be cancelled when
+   * the screen that made them is left.
+   *
+   * @return the publisher of a {@link PriceDelta} per published snapshot
+   */
+  public PriceTickPublisher getTicks() {
+    return ticksPublisher;
+  }
+}
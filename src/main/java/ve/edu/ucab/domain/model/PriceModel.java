@@ -0,0 +1,56 @@
+package ve.edu.ucab.domain.model;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A stochastic model that advances catalog prices by one tick. Each
+ * {@link AssetsType} of the catalog is stepped with the model configured for it in
+ * the {@code priceModels} section of {@code data/assets.json} (see
+ * {@link PriceModelSettings}), and assets without one use {@code uniform}.
+ *
+ * <p>Models are stepped in batches over the primitive arrays of
+ * {@link PriceSimulator}: a step must not allocate, must only write
+ * {@code next[from..to)} and may leave unrounded prices there; the simulator rounds
+ * them to cents and applies the minimum price afterwards.
+ */
+public interface PriceModel {
+
+  /**
+   * Advances a range of prices by one tick.
+   *
+   * @param current    the current prices, indexed by ticker ID; not modified
+   * @param next       receives the next prices
+   * @param volatility the volatility of each price per tick
+   * @param base       the base price of each asset, which mean-reverting models
+   *                   are pulled towards
+   * @param from       the first ticker ID of the range
+   * @param to         the ticker ID after the last one of the range
+   * @param random     the generator of each price
+   */
+  void step(double[] current, double[] next, double[] volatility, double[] base, int from, int to,
+      RandomGenerator[] random);
+
+  /**
+   * Creates the model described by some settings.
+   *
+   * @param settings the model name and its parameters
+   * @return the model
+   * @throws IllegalArgumentException if the model name is unknown
+   */
+  static PriceModel create(PriceModelSettings settings) {
+    String name = settings.getModel() != null ? settings.getModel() : PriceModelSettings.UNIFORM;
+    switch (name) {
+      case PriceModelSettings.UNIFORM:
+        return new UniformPriceModel();
+      case PriceModelSettings.GBM:
+        return new GbmPriceModel(settings.getDrift());
+      case PriceModelSettings.MEAN_REVERSION:
+        return new MeanReversionPriceModel(settings.getReversion());
+      case PriceModelSettings.JUMP_DIFFUSION:
+        return new JumpDiffusionPriceModel(settings.getDrift(), settings.getJumpIntensity(),
+            settings.getJumpMean(), settings.getJumpVolatility());
+      default:
+        throw new IllegalArgumentException("Unknown price model: " + name);
+    }
+  }
+}
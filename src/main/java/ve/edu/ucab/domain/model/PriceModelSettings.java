@@ -0,0 +1,111 @@
+package ve.edu.ucab.domain.model;
+
+/**
+ * The price model of one {@link AssetsType}, as stored in the {@code priceModels}
+ * section of {@code data/assets.json}:
+ *
+ * <pre>
+ * {
+ *   "priceModels": {
+ *     "STOCK": { "model": "gbm", "drift": 0.0002 },
+ *     "CURRENCY": { "model": "ou", "reversion": 0.1 },
+ *     "CRYPTO": { "model": "merton", "jumpIntensity": 0.02, "jumpVolatility": 0.15 }
+ *   },
+ *   "assets": [ ... ]
+ * }
+ * </pre>
+ *
+ * <p>Every parameter is per tick. The volatility of each model is the
+ * {@code volatility} of the asset itself.
+ */
+public class PriceModelSettings {
+
+  /**
+   * A uniform step of up to ±volatility, the original behavior.
+   */
+  public static final String UNIFORM = "uniform";
+
+  /**
+   * Geometric Brownian motion with a drift.
+   */
+  public static final String GBM = "gbm";
+
+  /**
+   * Ornstein-Uhlenbeck mean reversion of the log price towards the base price.
+   */
+  public static final String MEAN_REVERSION = "ou";
+
+  /**
+   * Merton jump diffusion: geometric Brownian motion plus normal jumps of the log
+   * price.
+   */
+  public static final String JUMP_DIFFUSION = "merton";
+
+  private String model = UNIFORM;
+  private double drift;
+  private double reversion = 0.05;
+  private double jumpIntensity = 0.01;
+  private double jumpMean;
+  private double jumpVolatility = 0.1;
+
+  public PriceModelSettings() {
+  }
+
+  public PriceModelSettings(String model) {
+    this.model = model;
+  }
+
+  public String getModel() {
+    return model;
+  }
+
+  /**
+   * Gets the drift per tick of the {@code gbm} and {@code merton} models: the
+   * arithmetic drift μ, so the expected price after a tick is the current price times
+   * e^μ. The log price moves by μ - σ²/2 on average, where σ is the volatility of the
+   * asset.
+   *
+   * @return the drift
+   */
+  public double getDrift() {
+    return drift;
+  }
+
+  /**
+   * Gets the fraction of the distance to the base price closed per tick by the
+   * {@code ou} model.
+   *
+   * @return the reversion speed, between 0 and 1
+   */
+  public double getReversion() {
+    return reversion;
+  }
+
+  /**
+   * Gets the probability of a jump per tick in the {@code merton} model.
+   *
+   * @return the jump intensity
+   */
+  public double getJumpIntensity() {
+    return jumpIntensity;
+  }
+
+  /**
+   * Gets the mean log size of the jumps of the {@code merton} model.
+   *
+   * @return the jump mean
+   */
+  public double getJumpMean() {
+    return jumpMean;
+  }
+
+  /**
+   * Gets the standard deviation of the log size of the jumps of the {@code merton}
+   * model.
+   *
+   * @return the jump volatility
+   */
+  public double getJumpVolatility() {
+    return jumpVolatility;
+  }
+}
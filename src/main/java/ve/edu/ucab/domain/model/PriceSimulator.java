@@ -0,0 +1,270 @@
+package ve.edu.ucab.domain.model;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Advances a whole price vector by one tick. The model is kept as a structure of
+ * arrays indexed by ticker ID, so very large catalogs are simulated over primitive
+ * arrays without touching any {@link CatalogAsset}.
+ *
+ * <p>Every ticker draws from its own {@link SplittableRandom}. With a master seed the
+ * stream of each ticker is derived from the seed and a 64-bit hash of the ticker, so
+ * the same seed reproduces the same path of every asset whatever else is in the
+ * catalog. When the catalog is reloaded, {@link #reload(List, Map)} hands every ticker
+ * that stays its current generator, so its path goes on instead of starting over.
+ *
+ * <p>The vector is cut into fixed shards of {@link #SHARD_SIZE} prices, and large
+ * vectors are advanced in parallel on the common {@link ForkJoinPool}. Within a shard
+ * every run of consecutive prices with the same {@link PriceModel} is stepped in one
+ * batch, and the results are then rounded in a branch-free loop the JIT can
+ * vectorize.
+ *
+ * <p>Instances are not thread-safe; only the {@link PriceEngine} thread calls
+ * {@link #next(double[])}.
+ */
+class PriceSimulator {
+
+  /**
+   * The number of prices per shard.
+   */
+  static final int SHARD_SIZE = 4096;
+
+  /**
+   * The lowest price a simulated asset can reach.
+   */
+  private static final double MIN_PRICE = 0.01;
+
+  /**
+   * The maximum relative change per tick of each price (e.g. 0.05 for ±5%).
+   */
+  private final double[] volatility;
+
+  /**
+   * The price each mean-reverting price is pulled towards.
+   */
+  private final double[] base;
+
+  /**
+   * The model of each price.
+   */
+  private final PriceModel[] models;
+
+  /**
+   * The generator of each price.
+   */
+  private final SplittableRandom[] streams;
+
+  /**
+   * The ticker of each price, to find its generator when the catalog is reloaded.
+   */
+  private final String[] tickers;
+
+  /**
+   * The master seed, or {@code null} if the generators come from {@link #master}.
+   */
+  private final Long seed;
+
+  /**
+   * The generator new tickers are split from when there is no master seed.
+   */
+  private final SplittableRandom master;
+
+  /**
+   * The number of shards.
+   */
+  private final int shards;
+
+  /**
+   * Creates a simulator.
+   *
+   * @param volatility the volatility per tick of each price, indexed by ticker ID
+   * @param base       the base price of each asset
+   * @param models     the model of each price
+   * @param streams    the generator of each price
+   * @param tickers    the ticker of each price
+   * @param seed       the master seed, or {@code null}
+   * @param master     the generator to split new streams from if there is no seed
+   */
+  private PriceSimulator(double[] volatility, double[] base, PriceModel[] models, SplittableRandom[] streams,
+      String[] tickers, Long seed, SplittableRandom master) {
+    this.volatility = volatility;
+    this.base = base;
+    this.models = models;
+    this.streams = streams;
+    this.tickers = tickers;
+    this.seed = seed;
+    this.master = master;
+    shards = (volatility.length + SHARD_SIZE - 1) / SHARD_SIZE;
+  }
+
+  /**
+   * Creates a simulator for a catalog.
+   *
+   * @param catalog the catalog, in ticker ID order
+   * @param models  the model of each asset type; other assets use
+   *                {@link PriceModelSettings#UNIFORM}
+   * @param seed    the master seed, or {@code null} for a different path every run
+   * @return the simulator
+   */
+  static PriceSimulator forCatalog(List<CatalogAsset> catalog, Map<AssetsType, PriceModel> models, Long seed) {
+    return create(catalog, models, seed, seed == null ? new SplittableRandom() : null, Map.of());
+  }
+
+  /**
+   * Creates a simulator for a reloaded catalog. Tickers this simulator already
+   * advances keep their generator, with the state it has reached; only new tickers
+   * get a new one. The generators are shared, so this simulator must not be used
+   * afterwards.
+   *
+   * @param catalog the new catalog, in ticker ID order
+   * @param models  the model of each asset type
+   * @return the simulator of the new catalog
+   */
+  PriceSimulator reload(List<CatalogAsset> catalog, Map<AssetsType, PriceModel> models) {
+    Map<String, SplittableRandom> kept = new HashMap<>();
+    for (int i = 0; i < tickers.length; i++) {
+      kept.putIfAbsent(tickers[i], streams[i]);
+    }
+    return create(catalog, models, seed, master, kept);
+  }
+
+  private static PriceSimulator create(List<CatalogAsset> catalog, Map<AssetsType, PriceModel> models, Long seed,
+      SplittableRandom master, Map<String, SplittableRandom> kept) {
+    double[] volatility = new double[catalog.size()];
+    double[] base = new double[catalog.size()];
+    PriceModel[] assetModels = new PriceModel[catalog.size()];
+    SplittableRandom[] streams = new SplittableRandom[catalog.size()];
+    String[] tickers = new String[catalog.size()];
+    Map<String, SplittableRandom> unused = kept.isEmpty() ? kept : new HashMap<>(kept);
+    PriceModel uniform = new UniformPriceModel();
+    for (int i = 0; i < volatility.length; i++) {
+      CatalogAsset asset = catalog.get(i);
+      volatility[i] = asset.getVolatility();
+      // Los catálogos JSON antiguos no tienen precio base; se usa el precio inicial
+      base[i] = asset.getBasePrice() > 0 ? asset.getBasePrice() : Math.max(asset.getCurrentPrice(), MIN_PRICE);
+      PriceModel model = asset.getAssetType() != null ? models.get(asset.getAssetType()) : null;
+      assetModels[i] = model != null ? model : uniform;
+      tickers[i] = asset.getTicker();
+      // Cada generador se entrega una sola vez: un ticker repetido no comparte el suyo
+      SplittableRandom stream = unused.isEmpty() ? null : unused.remove(asset.getTicker());
+      if (stream == null) {
+        stream = seed != null ? stream(seed, asset.getTicker()) : master.split();
+      }
+      streams[i] = stream;
+    }
+    return new PriceSimulator(volatility, base, assetModels, streams, tickers, seed, master);
+  }
+
+  /**
+   * Derives the generator of a ticker from a master seed.
+   *
+   * @param seed   the master seed
+   * @param ticker the ticker
+   * @return a generator independent of those of other tickers
+   */
+  static SplittableRandom stream(long seed, String ticker) {
+    long hash = ticker != null ? hash(ticker) : 0;
+    // split() deriva también el incremento, así que semillas cercanas no comparten secuencias
+    return new SplittableRandom(seed + 0x9E3779B97F4A7C15L * hash).split();
+  }
+
+  /**
+   * Hashes a ticker to 64 bits with FNV-1a. Unlike {@link String#hashCode()}, short
+   * tickers practically never collide, so no two tickers share a path.
+   *
+   * @param ticker the ticker
+   * @return the hash of its characters
+   */
+  static long hash(String ticker) {
+    long hash = 0xCBF29CE484222325L;
+    for (int i = 0; i < ticker.length(); i++) {
+      hash = (hash ^ ticker.charAt(i)) * 0x100000001B3L;
+    }
+    return hash;
+  }
+
+  /**
+   * Gets the number of prices the simulator advances.
+   *
+   * @return the length of the price vector
+   */
+  int size() {
+    return volatility.length;
+  }
+
+  /**
+   * Computes the prices of the next tick. Each price is stepped with its model, rounded
+   * to cents and never falls below {@value #MIN_PRICE}.
+   *
+   * @param current the current prices, indexed by ticker ID; not modified
+   * @return a new array with the next prices
+   */
+  double[] next(double[] current) {
+    if (current.length != volatility.length) {
+      throw new IllegalArgumentException(
+          "Expected " + volatility.length + " prices but got " + current.length + ".");
+    }
+    double[] next = new double[current.length];
+    if (shards <= 1) {
+      for (int shard = 0; shard < shards; shard++) {
+        advance(shard, current, next);
+      }
+    } else {
+      ForkJoinPool.commonPool().invoke(new ShardTask(0, shards, current, next));
+    }
+    return next;
+  }
+
+  private void advance(int shard, double[] current, double[] next) {
+    int from = shard * SHARD_SIZE;
+    int to = Math.min(from + SHARD_SIZE, current.length);
+    int run = from;
+    while (run < to) {
+      PriceModel model = models[run];
+      int end = run + 1;
+      while (end < to && models[end] == model) {
+        end++;
+      }
+      model.step(current, next, volatility, base, run, end, streams);
+      run = end;
+    }
+    for (int i = from; i < to; i++) {
+      next[i] = Math.max(Math.floor(next[i] * 100.0 + 0.5) / 100.0, MIN_PRICE);
+    }
+  }
+
+  /**
+   * Advances a range of shards, splitting it in halves down to single shards.
+   */
+  private final class ShardTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int fromShard;
+    private final int toShard;
+    private final double[] current;
+    private final double[] next;
+
+    ShardTask(int fromShard, int toShard, double[] current, double[] next) {
+      this.fromShard = fromShard;
+      this.toShard = toShard;
+      this.current = current;
+      this.next = next;
+    }
+
+    @Override
+    protected void compute() {
+      if (toShard - fromShard == 1) {
+        advance(fromShard, current, next);
+        return;
+      }
+      int middle = (fromShard + toShard) >>> 1;
+      invokeAll(new ShardTask(fromShard, middle, current, next), new ShardTask(middle, toShard, current, next));
+    }
+  }
+}
@@ -0,0 +1,181 @@
+package ve.edu.ucab.domain.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, versioned vector of every catalog price, published by the
+ * {@link PriceEngine}. Prices are indexed by the ticker ID of
+ * {@link AssetManager#tickerId(String)}. Every published change gets the next
+ * version, so a trade can record exactly which prices it used.
+ *
+ * <p>Ticker IDs belong to the catalog the snapshot was taken from; they change when
+ * the catalog is reloaded, so code that keeps a snapshot should look prices up by
+ * ticker.
+ */
+public final class PriceSnapshot {
+
+  private final long version;
+  private final long timestamp;
+  private final List<String> tickers;
+  private final Map<String, Integer> tickerIds;
+  private final double[] prices;
+
+  PriceSnapshot(long version, long timestamp, List<String> tickers, Map<String, Integer> tickerIds,
+      double[] prices) {
+    this.version = version;
+    this.timestamp = timestamp;
+    this.tickers = tickers;
+    this.tickerIds = tickerIds;
+    this.prices = prices;
+  }
+
+  /**
+   * Gets the version of this snapshot.
+   *
+   * @return the version, starting at 0 for the prices loaded from the catalog
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Gets the time the snapshot was taken.
+   *
+   * @return the time in milliseconds since the epoch
+   */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * Gets the number of prices in the snapshot.
+   *
+   * @return the number of catalog assets
+   */
+  public int size() {
+    return prices.length;
+  }
+
+  /**
+   * Gets the ticker with the given ID.
+   *
+   * @param tickerId the ticker ID
+   * @return the ticker
+   */
+  public String getTicker(int tickerId) {
+    return tickers.get(tickerId);
+  }
+
+  /**
+   * Gets the price of the ticker with the given ID.
+   *
+   * @param tickerId the ticker ID
+   * @return the price
+   */
+  public double getPrice(int tickerId) {
+    return prices[tickerId];
+  }
+
+  /**
+   * Gets the price of a ticker.
+   *
+   * @param ticker the ticker
+   * @return the price, or {@link Double#NaN} if the ticker is not in the catalog
+   */
+  public double getPrice(String ticker) {
+    Integer id = ticker != null ? tickerIds.get(ticker) : null;
+    return id != null ? prices[id] : Double.NaN;
+  }
+
+  /**
+   * Gets the ID of a ticker in this snapshot.
+   *
+   * @param ticker the ticker
+   * @return the ticker ID, or -1 if the ticker is not in the snapshot
+   */
+  int indexOf(String ticker) {
+    Integer id = ticker != null ? tickerIds.get(ticker) : null;
+    return id != null ? id : -1;
+  }
+
+  /**
+   * Checks whether the snapshot was taken from a catalog layout.
+   *
+   * @param layout the tickers of the catalog, in ticker ID order
+   * @return {@code true} if the snapshot uses exactly that list
+   */
+  boolean hasLayout(List<String> layout) {
+    return tickers == layout;
+  }
+
+  /**
+   * Checks whether another snapshot was taken from the same catalog layout, so its
+   * prices can be compared by ticker ID.
+   *
+   * @param other the other snapshot
+   * @return {@code true} if both use the same list of tickers
+   */
+  boolean sameLayout(PriceSnapshot other) {
+    return tickers == other.tickers;
+  }
+
+  /**
+   * Creates the next version of the snapshot with one price changed.
+   *
+   * @param ticker the ticker
+   * @param price  the new price
+   * @return the new snapshot, or this one if the ticker is not in it
+   */
+  PriceSnapshot withPrice(String ticker, double price) {
+    int id = indexOf(ticker);
+    if (id < 0) {
+      return this;
+    }
+    double[] next = toArray();
+    next[id] = price;
+    return new PriceSnapshot(version + 1, System.currentTimeMillis(), tickers, tickerIds, next);
+  }
+
+  /**
+   * Creates the next version of the snapshot for a reloaded catalog.
+   *
+   * @param layout    the tickers of the new catalog, in ticker ID order
+   * @param layoutIds the ticker ID of each ticker of the new catalog
+   * @param next      the new prices, indexed by the new ticker IDs
+   * @return the new snapshot
+   */
+  PriceSnapshot withLayout(List<String> layout, Map<String, Integer> layoutIds, double[] next) {
+    return new PriceSnapshot(version + 1, System.currentTimeMillis(), layout, layoutIds, next);
+  }
+
+  /**
+   * Creates the next version of the snapshot with new prices for every ticker.
+   *
+   * @param next the new prices, indexed by ticker ID; owned by the snapshot afterwards
+   * @return the new snapshot
+   */
+  PriceSnapshot withPrices(double[] next) {
+    return new PriceSnapshot(version + 1, System.currentTimeMillis(), tickers, tickerIds, next);
+  }
+
+  /**
+   * Gets the prices without copying them. Callers in this package must not modify
+   * the array.
+   *
+   * @return the prices, indexed by ticker ID
+   */
+  double[] prices() {
+    return prices;
+  }
+
+  /**
+   * Copies every price.
+   *
+   * @return a new array indexed by ticker ID
+   */
+  public double[] toArray() {
+    return Arrays.copyOf(prices, prices.length);
+  }
+}
@@ -0,0 +1,250 @@
+package ve.edu.ucab.domain.model;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the price changes of the {@link PriceEngine} as {@link PriceDelta}s, one
+ * per published snapshot, to any number of back-pressured subscribers.
+ *
+ * <p>Each subscription buffers at most one delta. When a subscriber has not requested
+ * more, new deltas are merged into the buffered one, so a slow subscriber receives the
+ * latest price of every ticker that changed instead of a growing queue, and can never
+ * slow down the engine. The first delta a subscriber receives holds every price.
+ *
+ * <p>Signals are delivered on the executor given when subscribing, one at a time;
+ * screens pass {@code Platform::runLater} to receive them on the JavaFX thread.
+ */
+public final class PriceTickPublisher implements Flow.Publisher<PriceDelta> {
+
+  /**
+   * The executor of subscribers that do not give one.
+   */
+  private static final ExecutorService DELIVERY = Executors.newCachedThreadPool(new ThreadFactory() {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "price-ticks-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  });
+
+  private final List<TickSubscription> subscriptions = new CopyOnWriteArrayList<>();
+  private PriceSnapshot last;
+
+  PriceTickPublisher(PriceSnapshot initial) {
+    last = initial;
+  }
+
+  /**
+   * Subscribes with signals delivered on a shared pool of daemon threads.
+   *
+   * @param subscriber the subscriber
+   */
+  @Override
+  public void subscribe(Flow.Subscriber<? super PriceDelta> subscriber) {
+    subscribe(subscriber, DELIVERY);
+  }
+
+  /**
+   * Subscribes with signals delivered on an executor.
+   *
+   * @param subscriber the subscriber
+   * @param executor   runs the signals; each signal is submitted once the previous one
+   *                   returned
+   */
+  public void subscribe(Flow.Subscriber<? super PriceDelta> subscriber, Executor executor) {
+    Objects.requireNonNull(subscriber, "subscriber");
+    Objects.requireNonNull(executor, "executor");
+    TickSubscription subscription;
+    synchronized (this) {
+      subscription = new TickSubscription(subscriber, executor, PriceDelta.of(last));
+      subscriptions.add(subscription);
+    }
+    subscription.signal();
+  }
+
+  /**
+   * Gets the number of open subscriptions.
+   *
+   * @return the number of subscribers
+   */
+  public int getSubscriberCount() {
+    return subscriptions.size();
+  }
+
+  /**
+   * Offers the changes of a snapshot to every subscriber. Snapshots older than the last
+   * one submitted are ignored, since every newer snapshot already includes them.
+   *
+   * @param snapshot the published snapshot
+   */
+  synchronized void submit(PriceSnapshot snapshot) {
+    if (snapshot.getVersion() <= last.getVersion()) {
+      return;
+    }
+    PriceSnapshot previous = last;
+    last = snapshot;
+    if (subscriptions.isEmpty()) {
+      return;
+    }
+    PriceDelta delta = PriceDelta.between(previous, snapshot);
+    if (delta.isEmpty()) {
+      return;
+    }
+    for (TickSubscription subscription : subscriptions) {
+      subscription.offer(delta);
+    }
+  }
+
+  /**
+   * A subscription with one pending delta, merged in place while the subscriber has no
+   * demand. {@code work} counts the signals requested while a drain is running, so only
+   * one drain runs at a time.
+   */
+  private final class TickSubscription implements Flow.Subscription {
+
+    private final Flow.Subscriber<? super PriceDelta> subscriber;
+    private final Executor executor;
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger work = new AtomicInteger();
+    private final Map<String, Double> pendingPrices = new LinkedHashMap<>();
+    private final Set<String> pendingRemoved = new HashSet<>();
+    private long pendingVersion = -1;
+    private long pendingTimestamp;
+    private boolean subscribed;
+    private volatile boolean cancelled;
+    private volatile Throwable invalidRequest;
+
+    TickSubscription(Flow.Subscriber<? super PriceDelta> subscriber, Executor executor, PriceDelta initial) {
+      this.subscriber = subscriber;
+      this.executor = executor;
+      merge(initial);
+    }
+
+    void offer(PriceDelta delta) {
+      synchronized (this) {
+        if (cancelled) {
+          return;
+        }
+        merge(delta);
+      }
+      signal();
+    }
+
+    // Solo queda el último precio de cada ticker
+    private void merge(PriceDelta delta) {
+      pendingPrices.keySet().removeAll(delta.removed());
+      pendingRemoved.addAll(delta.removed());
+      pendingPrices.putAll(delta.prices());
+      pendingRemoved.removeAll(delta.prices().keySet());
+      pendingVersion = delta.version();
+      pendingTimestamp = delta.timestamp();
+    }
+
+    private synchronized PriceDelta takePending() {
+      if (pendingVersion < 0) {
+        return null;
+      }
+      PriceDelta delta = new PriceDelta(pendingVersion, pendingTimestamp,
+          Collections.unmodifiableMap(new LinkedHashMap<>(pendingPrices)),
+          Collections.unmodifiableSet(new HashSet<>(pendingRemoved)));
+      pendingPrices.clear();
+      pendingRemoved.clear();
+      pendingVersion = -1;
+      return delta;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        invalidRequest = new IllegalArgumentException("La cantidad pedida debe ser positiva: " + n);
+      } else {
+        demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+      }
+      signal();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      subscriptions.remove(this);
+      synchronized (this) {
+        pendingPrices.clear();
+        pendingRemoved.clear();
+        pendingVersion = -1;
+      }
+    }
+
+    void signal() {
+      if (work.getAndIncrement() == 0) {
+        try {
+          executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+          System.err.println("No se pudieron entregar los precios: " + e.getMessage());
+          cancel();
+        }
+      }
+    }
+
+    private void drain() {
+      int missed = 1;
+      do {
+        if (!subscribed) {
+          subscribed = true;
+          if (!deliver(() -> subscriber.onSubscribe(this))) {
+            return;
+          }
+        }
+        Throwable error = invalidRequest;
+        if (error != null && !cancelled) {
+          cancel();
+          deliver(() -> subscriber.onError(error));
+          return;
+        }
+        while (!cancelled && demand.get() > 0) {
+          PriceDelta next = takePending();
+          if (next == null) {
+            break;
+          }
+          if (demand.get() != Long.MAX_VALUE) {
+            demand.decrementAndGet();
+          }
+          if (!deliver(() -> subscriber.onNext(next))) {
+            return;
+          }
+        }
+        missed = work.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    // Un suscriptor que lanza una excepción pierde su suscripción
+    private boolean deliver(Runnable signal) {
+      try {
+        signal.run();
+        return true;
+      } catch (RuntimeException e) {
+        System.err.println("Error notificando los precios: " + e.getMessage());
+        e.printStackTrace();
+        cancel();
+        return false;
+      }
+    }
+  }
+}
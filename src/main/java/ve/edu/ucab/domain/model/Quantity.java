@@ -0,0 +1,85 @@
+package ve.edu.ucab.domain.model;
+
+/**
+ * Quantities of an asset as a {@code long} number of units of 10<sup>-8</sup>, the
+ * finest scale of any {@link AssetsType}. Every quantity uses the same scale, so lots
+ * and transactions of different types are added and compared directly; a quantity
+ * entered for a type is rounded to the decimals that type allows.
+ *
+ * <p>The methods are static and work on plain {@code long}s, so nothing is boxed.
+ */
+public final class Quantity {
+
+  /**
+   * The number of decimals of a quantity.
+   */
+  public static final int SCALE = 8;
+
+  /**
+   * The number of units in one whole asset.
+   */
+  public static final long ONE = 100_000_000L;
+
+  private static final long[] POWERS_OF_TEN = {
+      1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L
+  };
+
+  /**
+   * The magnitude a quantity in units must stay below, 2<sup>63</sup>.
+   */
+  private static final double LIMIT = 0x1p63;
+
+  private Quantity() {
+  }
+
+  /**
+   * Converts a quantity to units, rounding half up to the finest scale.
+   *
+   * @param amount the quantity
+   * @return the quantity in units
+   * @throws IllegalArgumentException if the amount is not a number or its units do
+   *                                  not fit in a {@code long}
+   */
+  public static long of(double amount) {
+    return Math.round(checked(amount));
+  }
+
+  /**
+   * Converts a quantity of an asset to units, rounding half up to the decimals of its
+   * type.
+   *
+   * @param amount the quantity
+   * @param type   the type of the asset, or {@code null} to keep every decimal
+   * @return the quantity in units
+   * @throws IllegalArgumentException if the amount is not a number or its units do
+   *                                  not fit in a {@code long}
+   */
+  public static long of(double amount, AssetsType type) {
+    checked(amount);
+    int scale = type != null ? type.getQuantityScale() : SCALE;
+    try {
+      return Math.multiplyExact(Math.round(amount * POWERS_OF_TEN[scale]), POWERS_OF_TEN[SCALE - scale]);
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException("Cantidad fuera de rango: " + amount, e);
+    }
+  }
+
+  // Math.round satura en Long.MAX_VALUE y convierte NaN en 0: se rechaza antes
+  private static double checked(double amount) {
+    double scaled = amount * ONE;
+    if (!(Math.abs(scaled) < LIMIT)) {
+      throw new IllegalArgumentException("Cantidad fuera de rango: " + amount);
+    }
+    return scaled;
+  }
+
+  /**
+   * Converts units to a quantity.
+   *
+   * @param units the quantity in units
+   * @return the quantity, the closest {@code double} to the exact value
+   */
+  public static double toDouble(long units) {
+    return units / (double) ONE;
+  }
+}
@@ -0,0 +1,24 @@
+package ve.edu.ucab.domain.model;
+
+/**
+ * The gain realized by selling an amount of one lot, or of the whole ticker at its
+ * average purchase price when selling with {@link CostMethod#AVERAGE}.
+ *
+ * @param ticker        the ticker sold
+ * @param amount        the amount sold
+ * @param purchasePrice the price paid per unit
+ * @param salePrice     the price received per unit
+ * @param method        the cost method of the sale
+ */
+public record RealizedGain(String ticker, double amount, double purchasePrice, double salePrice,
+    CostMethod method) {
+
+  /**
+   * Gets the gain, negative for a loss.
+   *
+   * @return the amount times the difference between the sale and purchase prices
+   */
+  public double gain() {
+    return amount * (salePrice - purchasePrice);
+  }
+}
@@ -2,63 +2,87 @@ package ve.edu.ucab.domain.model;
 
 import java.time.LocalDate;
 
+// Vista de una posición de un TransactionLog; los valores viven en sus columnas
 public class Transaction {
-  private final TransactionType transactionType;
-  private final double amount;
-  private final String assetTicker;
-  private final AssetsType assetType;
-  private final LocalDate dateRelease;
-  private final double purchasePrice; // Nuevo campo
-
-  private Transaction(TransactionType transactionType, double amount, String assetTicker, AssetsType assetType,
-      double purchasePrice) {
-    this.transactionType = transactionType;
-    this.amount = amount;
-    this.assetTicker = assetTicker;
-    this.assetType = assetType;
-    this.dateRelease = LocalDate.now();
-    this.purchasePrice = purchasePrice;
-  }
-
-  private Transaction(TransactionType transactionType, double amount, String assetTicker, AssetsType assetType,
-      LocalDate dateRelease, double purchasePrice) {
-    this.transactionType = transactionType;
-    this.amount = amount;
-    this.assetTicker = assetTicker;
-    this.assetType = assetType;
-    this.dateRelease = dateRelease;
-    this.purchasePrice = purchasePrice;
+  private final TransactionLog log;
+  private final int index;
+
+  Transaction(TransactionLog log, int index) {
+    this.log = log;
+    this.index = index;
   }
 
   public static Transaction createNewTransaction(TransactionType transactionType, double amount, String assetTicker,
       AssetsType assetType, double purchasePrice, LocalDate dateRelease) {
+    return createNewTransaction(transactionType, amount, assetTicker, assetType, purchasePrice, dateRelease, 0);
+  }
+
+  // priceVersion: versión del PriceSnapshot del que salió el precio (0 si no se conoce)
+  public static Transaction createNewTransaction(TransactionType transactionType, double amount, String assetTicker,
+      AssetsType assetType, double purchasePrice, LocalDate dateRelease, long priceVersion) {
+    return ofUnits(transactionType, Quantity.of(amount), assetTicker, assetType, Money.of(purchasePrice),
+        dateRelease, priceVersion);
+  }
+
+  // Igual, con la cantidad en unidades de Quantity y el precio en centavos. Crea su
+  // propio log de una fila: para agregar a un historial se usa TransactionLog.append
+  public static Transaction ofUnits(TransactionType transactionType, long units, String assetTicker,
+      AssetsType assetType, long purchasePriceCents, LocalDate dateRelease, long priceVersion) {
     if (dateRelease == null) {
-      return new Transaction(transactionType, amount, assetTicker, assetType, purchasePrice);
+      dateRelease = LocalDate.now();
     }
-    return new Transaction(transactionType, amount, assetTicker, assetType, dateRelease, purchasePrice);
+    TransactionLog log = new TransactionLog(1);
+    return new Transaction(log, log.append(transactionType, units, assetTicker, assetType, purchasePriceCents,
+        dateRelease, priceVersion));
+  }
+
+  TransactionLog log() {
+    return log;
+  }
+
+  int index() {
+    return index;
+  }
+
+  public TransactionType getType() {
+    return log.transactionTypeAt(index);
   }
 
   public String getTransactionType() {
-    return transactionType.name();
+    TransactionType type = log.transactionTypeAt(index);
+    return type != null ? type.name() : null;
   }
 
   public double getAmount() {
-    return amount;
+    return Quantity.toDouble(log.amountAt(index));
+  }
+
+  public long getUnits() {
+    return log.amountAt(index);
   }
 
   public String getAssetTicker() {
-    return assetTicker;
+    return log.assetTickerAt(index);
   }
 
   public String getAssetType() {
-    return assetType.name(); // o assetType.toString()
+    AssetsType assetType = log.assetTypeAt(index);
+    return assetType != null ? assetType.name() : null; // o assetType.toString()
   }
 
   public LocalDate getDateRelease() {
-    return dateRelease;
+    return log.dateReleaseAt(index);
   }
 
   public double getPurchasePrice() {
-    return purchasePrice;
+    return Money.toDouble(log.purchasePriceAt(index));
+  }
+
+  public long getPurchasePriceCents() {
+    return log.purchasePriceAt(index);
+  }
+
+  public long getPriceVersion() {
+    return log.priceVersionAt(index);
   }
 }
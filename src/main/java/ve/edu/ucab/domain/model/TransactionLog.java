@@ -0,0 +1,309 @@
+package ve.edu.ucab.domain.model;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * An append-only transaction history stored column by column in primitive arrays.
+ * Each entry takes 38 bytes (epoch day, type, ticker ID, asset type, amount, price
+ * and price version) instead of a {@link Transaction} object with its own
+ * {@link LocalDate}. Amounts are kept in {@link Quantity} units and prices in
+ * {@link Money} cents.
+ *
+ * <p>Entries are exposed as {@link Transaction} flyweights that only hold the log and
+ * a position; their values are read from the arrays on every call. Since entries are
+ * never modified or removed, a flyweight stays valid for the life of the log.
+ */
+public final class TransactionLog extends AbstractList<Transaction> implements RandomAccess {
+
+  /**
+   * The capacity allocated on the first append.
+   */
+  private static final int INITIAL_CAPACITY = 8;
+
+  /**
+   * Marks a missing date, type, asset type or ticker.
+   */
+  private static final long NO_DATE = Long.MIN_VALUE;
+  private static final byte NO_ENUM = -1;
+  private static final int NO_TICKER = -1;
+
+  /**
+   * The ID of every ticker seen by any log, so each entry stores an {@code int}
+   * instead of a reference.
+   */
+  private static final Map<String, Integer> TICKER_IDS = new HashMap<>();
+
+  /**
+   * The ticker of every ID. Replaced on every new ticker so readers on other threads
+   * see the element before its ID.
+   */
+  private static volatile String[] tickers = new String[64];
+  private static int tickerCount;
+
+  private static final TransactionType[] TRANSACTION_TYPES = TransactionType.values();
+  private static final AssetsType[] ASSET_TYPES = AssetsType.values();
+
+  // Columnas del historial, una posición por transacción
+  private long[] epochDays;
+  private byte[] transactionTypes;
+  private byte[] assetTypes;
+  private int[] tickerIds;
+  private long[] amounts;
+  private long[] purchasePrices;
+  private long[] priceVersions;
+  private int size;
+  // Las vistas comparten las columnas del log original y no admiten nuevas entradas
+  private boolean readOnly;
+
+  /**
+   * Creates an empty log.
+   */
+  public TransactionLog() {
+    this(0);
+  }
+
+  /**
+   * Creates an empty log with room for the given number of transactions.
+   *
+   * @param capacity the initial capacity
+   */
+  public TransactionLog(int capacity) {
+    allocate(capacity);
+  }
+
+  /**
+   * Creates a read-only view over the first {@code size} entries of a log.
+   *
+   * @param source the log whose columns are shared
+   */
+  private TransactionLog(TransactionLog source) {
+    epochDays = source.epochDays;
+    transactionTypes = source.transactionTypes;
+    assetTypes = source.assetTypes;
+    tickerIds = source.tickerIds;
+    amounts = source.amounts;
+    purchasePrices = source.purchasePrices;
+    priceVersions = source.priceVersions;
+    size = source.size;
+    readOnly = true;
+  }
+
+  /**
+   * Returns a read-only view of the entries appended so far. The view shares the
+   * columns of this log, so it is created in constant time. Entries are never
+   * modified and appends only write past the end of the view, or into new arrays,
+   * so later appends do not change what the view shows. The caller must not append
+   * to this log while the view is being created.
+   *
+   * @return a view bounded by the current size
+   */
+  public TransactionLog view() {
+    return new TransactionLog(this);
+  }
+
+  /**
+   * Tells whether this log is a view that does not accept new entries.
+   *
+   * @return {@code true} for a view created by {@link #view()}
+   */
+  public boolean isReadOnly() {
+    return readOnly;
+  }
+
+  /**
+   * Creates a log holding a copy of the given transactions.
+   *
+   * @param transactions the transactions to copy
+   * @return a new log with the same entries
+   */
+  public static TransactionLog copyOf(List<Transaction> transactions) {
+    TransactionLog log = new TransactionLog(transactions.size());
+    if (transactions instanceof TransactionLog) {
+      // Otro log se copia columna por columna, sin crear una transacción por entrada
+      TransactionLog source = (TransactionLog) transactions;
+      System.arraycopy(source.epochDays, 0, log.epochDays, 0, source.size);
+      System.arraycopy(source.transactionTypes, 0, log.transactionTypes, 0, source.size);
+      System.arraycopy(source.assetTypes, 0, log.assetTypes, 0, source.size);
+      System.arraycopy(source.tickerIds, 0, log.tickerIds, 0, source.size);
+      System.arraycopy(source.amounts, 0, log.amounts, 0, source.size);
+      System.arraycopy(source.purchasePrices, 0, log.purchasePrices, 0, source.size);
+      System.arraycopy(source.priceVersions, 0, log.priceVersions, 0, source.size);
+      log.size = source.size;
+      return log;
+    }
+    for (Transaction transaction : transactions) {
+      log.add(transaction);
+    }
+    return log;
+  }
+
+  /**
+   * Appends a copy of a transaction's values.
+   *
+   * @param transaction the transaction to append
+   * @return always {@code true}
+   */
+  @Override
+  public boolean add(Transaction transaction) {
+    checkWritable();
+    TransactionLog source = transaction.log();
+    int index = transaction.index();
+    ensureCapacity(size + 1);
+    epochDays[size] = source.epochDays[index];
+    transactionTypes[size] = source.transactionTypes[index];
+    assetTypes[size] = source.assetTypes[index];
+    tickerIds[size] = source.tickerIds[index];
+    amounts[size] = source.amounts[index];
+    purchasePrices[size] = source.purchasePrices[index];
+    priceVersions[size] = source.priceVersions[index];
+    size++;
+    modCount++;
+    return true;
+  }
+
+  /**
+   * Appends a transaction from its values.
+   *
+   * @param transactionType the type of the transaction, or {@code null}
+   * @param amount          the amount traded or deposited, in {@link Quantity} units
+   * @param assetTicker     the ticker of the asset, or {@code null}
+   * @param assetType       the type of the asset, or {@code null}
+   * @param purchasePrice   the unit price of the trade, in cents
+   * @param dateRelease     the date of the transaction, or {@code null}
+   * @param priceVersion    the version of the {@link PriceSnapshot} the price was
+   *                        taken from, or 0 if unknown
+   * @return the position of the new entry
+   */
+  public int append(TransactionType transactionType, long amount, String assetTicker, AssetsType assetType,
+      long purchasePrice, LocalDate dateRelease, long priceVersion) {
+    checkWritable();
+    ensureCapacity(size + 1);
+    epochDays[size] = dateRelease != null ? dateRelease.toEpochDay() : NO_DATE;
+    transactionTypes[size] = transactionType != null ? (byte) transactionType.ordinal() : NO_ENUM;
+    assetTypes[size] = assetType != null ? (byte) assetType.ordinal() : NO_ENUM;
+    tickerIds[size] = assetTicker != null ? tickerId(assetTicker) : NO_TICKER;
+    amounts[size] = amount;
+    purchasePrices[size] = purchasePrice;
+    priceVersions[size] = priceVersion;
+    modCount++;
+    return size++;
+  }
+
+  @Override
+  public Transaction get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    return new Transaction(this, index);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the number of bytes held by the columns, including unused capacity.
+   *
+   * @return the retained size of the arrays, without object headers
+   */
+  public long retainedBytes() {
+    return (long) epochDays.length * (4 * Long.BYTES + 2 * Byte.BYTES + Integer.BYTES);
+  }
+
+  TransactionType transactionTypeAt(int index) {
+    byte type = transactionTypes[index];
+    return type != NO_ENUM ? TRANSACTION_TYPES[type] : null;
+  }
+
+  AssetsType assetTypeAt(int index) {
+    byte type = assetTypes[index];
+    return type != NO_ENUM ? ASSET_TYPES[type] : null;
+  }
+
+  String assetTickerAt(int index) {
+    int id = tickerIds[index];
+    return id != NO_TICKER ? tickers[id] : null;
+  }
+
+  LocalDate dateReleaseAt(int index) {
+    long epochDay = epochDays[index];
+    return epochDay != NO_DATE ? LocalDate.ofEpochDay(epochDay) : null;
+  }
+
+  long amountAt(int index) {
+    return amounts[index];
+  }
+
+  long purchasePriceAt(int index) {
+    return purchasePrices[index];
+  }
+
+  long priceVersionAt(int index) {
+    return priceVersions[index];
+  }
+
+  /**
+   * Grows the columns geometrically so appends are amortized constant time.
+   *
+   * @param minCapacity the number of entries that must fit
+   */
+  private void ensureCapacity(int minCapacity) {
+    if (minCapacity > epochDays.length) {
+      allocate(Math.max(minCapacity, Math.max(INITIAL_CAPACITY, epochDays.length + (epochDays.length >> 1))));
+    }
+  }
+
+  private void checkWritable() {
+    if (readOnly) {
+      throw new UnsupportedOperationException("El historial es de solo lectura.");
+    }
+  }
+
+  private void allocate(int capacity) {
+    if (epochDays == null) {
+      epochDays = new long[capacity];
+      transactionTypes = new byte[capacity];
+      assetTypes = new byte[capacity];
+      tickerIds = new int[capacity];
+      amounts = new long[capacity];
+      purchasePrices = new long[capacity];
+      priceVersions = new long[capacity];
+    } else {
+      epochDays = Arrays.copyOf(epochDays, capacity);
+      transactionTypes = Arrays.copyOf(transactionTypes, capacity);
+      assetTypes = Arrays.copyOf(assetTypes, capacity);
+      tickerIds = Arrays.copyOf(tickerIds, capacity);
+      amounts = Arrays.copyOf(amounts, capacity);
+      purchasePrices = Arrays.copyOf(purchasePrices, capacity);
+      priceVersions = Arrays.copyOf(priceVersions, capacity);
+    }
+  }
+
+  /**
+   * Returns the ID of a ticker, assigning the next one if it was never seen.
+   *
+   * @param ticker the ticker
+   * @return the ticker's ID
+   */
+  private static synchronized int tickerId(String ticker) {
+    Integer id = TICKER_IDS.get(ticker);
+    if (id == null) {
+      String[] names = tickers;
+      if (tickerCount == names.length) {
+        names = Arrays.copyOf(names, names.length * 2);
+      }
+      names[tickerCount] = ticker;
+      id = tickerCount++;
+      TICKER_IDS.put(ticker, id);
+      tickers = names;
+    }
+    return id;
+  }
+}
@@ -0,0 +1,29 @@
+package ve.edu.ucab.domain.model;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Moves each price by a uniform random fraction of up to its volatility. Prices at
+ * the minimum can only go up.
+ */
+class UniformPriceModel implements PriceModel {
+
+  /**
+   * Prices at or below this value can only go up.
+   */
+  private static final double FLOOR_PRICE = 0.011;
+
+  @Override
+  public void step(double[] current, double[] next, double[] volatility, double[] base, int from, int to,
+      RandomGenerator[] random) {
+    for (int i = from; i < to; i++) {
+      next[i] = random[i].nextDouble();
+    }
+    for (int i = from; i < to; i++) {
+      double price = current[i];
+      double variation = (next[i] - 0.5) * 2 * volatility[i];
+      variation = price <= FLOOR_PRICE ? Math.abs(variation) : variation;
+      next[i] = price * (1 + variation);
+    }
+  }
+}
@@ -5,9 +5,14 @@ import ve.edu.ucab.domain.exceptions.InvalidAmountException;
 import ve.edu.ucab.domain.exceptions.InvalidPasswordException;
 
 // Java utility imports
+import java.lang.ref.SoftReference;
+import java.util.Collections;
 import java.util.Objects;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 import ve.edu.ucab.domain.model.Asset;
 import ve.edu.ucab.domain.model.Transaction;
 import ve.edu.ucab.domain.model.CatalogAsset;
@@ -21,6 +26,11 @@ import ve.edu.ucab.domain.model.AssetsType;
  * credentials
  * and balance operations.
  *
+ * <p>Every mutation holds the user's write lock from its checks to its last change,
+ * so concurrent trades on one account are applied one after the other while trades
+ * on different accounts never contend. The change listener is called inside the
+ * mutation, so journaled changes of a user are recorded in the order they happened.
+ *
  * @author badjavii
  * @since 2025-07-01
  */
@@ -42,13 +52,46 @@ public class User {
   private String password;
 
   /**
-   * The balance associated with the user.
+   * The balance associated with the user, in cents. Volatile so it can be read
+   * without the lock.
+   */
+  private volatile long balance;
+
+  /**
+   * Guards the balance, the portfolio and the history. Reentrant, so a change listener
+   * or a reader run under {@link #readLocked} may read the views of this user.
    */
-  private double balance;
+  private final transient ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 
   // NUEVOS CAMPOS
-  private List<Asset> portfolio;
-  private List<Transaction> transactionHistory;
+  // Si el usuario se cargó de forma diferida, ambos son null hasta que se modifican
+  private LotBook portfolio;
+  private TransactionLog transactionHistory;
+
+  /**
+   * Loads the portfolio and history on demand, or {@code null} if they were
+   * provided when the user was created.
+   */
+  private transient UserDetailsLoader detailsLoader;
+
+  /**
+   * The portfolio and history read through the {@link #detailsLoader} while they
+   * are unmodified. Held softly so the garbage collector can evict them under memory
+   * pressure; they are read again the next time they are needed.
+   */
+  private transient SoftReference<Details> cachedDetails;
+
+  /**
+   * The listener notified after every state change, used by the persistence layer.
+   * It is not part of the user's data and is never serialized.
+   */
+  private transient UserChangeListener changeListener;
+
+  /**
+   * The running valuation of the portfolio, created the first time it is requested
+   * and then kept up to date with every lot change.
+   */
+  private transient PortfolioValuation valuation;
 
   /**
    * Private constructor to initialize a user with the specified attributes.
@@ -63,14 +106,103 @@ public class User {
     setId(id);
     setUsername(username);
     setPassword(password);
-    setBalance(balance);
-    this.portfolio = (portfolio != null) ? portfolio : new ArrayList<>();
-    this.transactionHistory = (transactionHistory != null) ? transactionHistory : new ArrayList<>();
+    setBalance(Money.of(balance));
+    this.portfolio = new LotBook(portfolio != null ? portfolio : List.of());
+    this.transactionHistory = toLog(transactionHistory);
   }
 
   // Constructor anterior para compatibilidad
   private User(int id, String username, String password, double balance) {
-    this(id, username, password, balance, new ArrayList<>(), new ArrayList<>());
+    this(id, username, password, balance, new ArrayList<>(), new TransactionLog());
+  }
+
+  /**
+   * Private constructor for a user whose portfolio and history are loaded on demand.
+   *
+   * @param id            the unique identifier for the user
+   * @param username      the username of the user
+   * @param password      the password of the user
+   * @param balance       the balance of the user
+   * @param detailsLoader the loader used to read the portfolio and history
+   */
+  private User(int id, String username, String password, double balance, UserDetailsLoader detailsLoader) {
+    setId(id);
+    setUsername(username);
+    setPassword(password);
+    this.balance = Money.of(balance);
+    this.detailsLoader = detailsLoader;
+  }
+
+  /**
+   * The portfolio and transaction history of a user, loaded together.
+   */
+  private static final class Details {
+
+    /**
+     * The user's lots.
+     */
+    private LotBook portfolio;
+
+    /**
+     * The user's transactions.
+     */
+    private final TransactionLog transactionHistory = new TransactionLog();
+  }
+
+  /**
+   * Stores a transaction history in a columnar {@link TransactionLog}, copying it
+   * only if it is not a writable one already.
+   *
+   * @param transactionHistory the history, or {@code null} for an empty one
+   * @return the history as a log
+   */
+  private static TransactionLog toLog(List<Transaction> transactionHistory) {
+    if (transactionHistory instanceof TransactionLog log && !log.isReadOnly()) {
+      return log;
+    }
+    return transactionHistory != null ? TransactionLog.copyOf(transactionHistory) : new TransactionLog();
+  }
+
+  /**
+   * Returns the user's portfolio and history, reading them through the loader if
+   * they are not in memory. Details that are only read stay softly referenced.
+   *
+   * @return the current details
+   */
+  private Details details() {
+    Details details = cachedDetails != null ? cachedDetails.get() : null;
+    if (details == null) {
+      details = new Details();
+      List<Asset> lots = new ArrayList<>();
+      detailsLoader.loadDetails(id, lots, details.transactionHistory);
+      details.portfolio = new LotBook(lots);
+      cachedDetails = new SoftReference<>(details);
+    }
+    return details;
+  }
+
+  /**
+   * Keeps the portfolio and history strongly referenced so they can be modified.
+   * Once modified they differ from the stored copy and can no longer be evicted.
+   */
+  private void pinDetails() {
+    if (portfolio == null) {
+      Details details = details();
+      portfolio = details.portfolio;
+      transactionHistory = details.transactionHistory;
+      cachedDetails = null;
+    }
+  }
+
+  /**
+   * Indicates whether the portfolio and history exist only in memory, either because
+   * they were modified since they were loaded or because the user was created with
+   * them. Otherwise they are identical to the copy the loader reads.
+   *
+   * @return {@code true} if the details must be persisted from memory
+   */
+  public boolean isDetailsModified() {
+    return portfolio != null;
   }
 
   /**
@@ -106,7 +238,16 @@ public class User {
    * @param username the username to set
    */
   public void setUsername(String username) {
-    this.username = username;
+    lock.writeLock().lock();
+    try {
+      String oldUsername = this.username;
+      this.username = username;
+      if (changeListener != null && !Objects.equals(oldUsername, username)) {
+        changeListener.usernameChanged(this, oldUsername);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
   }
 
   /**
@@ -167,10 +308,18 @@ public class User {
    * @throws InvalidPasswordException if the old password is incorrect
    */
   public void changePassword(String oldPassword, String newPassword) throws InvalidPasswordException {
-    if (isSamePassword(oldPassword)) {
-      setPassword(newPassword);
-    } else {
-      throw new InvalidPasswordException("Access denied for password change.");
+    lock.writeLock().lock();
+    try {
+      if (isSamePassword(oldPassword)) {
+        setPassword(newPassword);
+        if (changeListener != null) {
+          changeListener.passwordChanged(this);
+        }
+      } else {
+        throw new InvalidPasswordException("Access denied for password change.");
+      }
+    } finally {
+      lock.writeLock().unlock();
     }
   }
 
@@ -191,9 +340,9 @@ public class User {
    * Sets the user's balance, ensuring it is not negative. If invalid, sets
    * balance to 0.
    *
-   * @param balance the balance to set
+   * @param balance the balance to set, in cents
    */
-  private void setBalance(double balance) {
+  private void setBalance(long balance) {
     try {
       validateAmount(balance, 0);
       this.balance = balance;
@@ -204,12 +353,204 @@ public class User {
     }
   }
 
+  /**
+   * Restores the user's balance to a previously persisted value without validating it
+   * or notifying the change listener. Intended for the persistence layer when it
+   * replays journaled changes.
+   *
+   * @param balance the persisted balance
+   */
+  public void restoreBalance(double balance) {
+    lock.writeLock().lock();
+    try {
+      this.balance = Money.of(balance);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Appends a previously persisted lot to the portfolio without notifying the change
+   * listener. Intended for the persistence layer when it replays journaled changes.
+   *
+   * @param lot the persisted lot
+   */
+  public void restoreLot(Asset lot) {
+    lock.writeLock().lock();
+    try {
+      pinDetails();
+      portfolio.add(lot);
+      if (valuation != null) {
+        valuation.lotAdded(lot.getTicker(), lot.getUnits(), lot.getPurchasePriceCents(),
+            PriceEngine.getInstance().getLatest().getPrice(lot.getTicker()));
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Repeats a persisted sale from a lot without notifying the change listener,
+   * removing the lot if it is emptied. Intended for the persistence layer when it
+   * replays journaled changes.
+   *
+   * @param ticker     the ticker of the lot
+   * @param lotIndex   the position of the lot among the lots of its ticker, oldest
+   *                   first
+   * @param amountSold the amount that was sold
+   */
+  public void restoreLotReduction(String ticker, int lotIndex, double amountSold) {
+    lock.writeLock().lock();
+    try {
+      pinDetails();
+      reduceLot(ticker, lotIndex, Quantity.of(amountSold));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Repeats a persisted sale from a lot recorded by its position in the portfolio in
+   * purchase order, as journals written before lots were indexed by ticker did.
+   *
+   * @param lotIndex   the position of the lot in the portfolio in purchase order
+   * @param amountSold the amount that was sold
+   */
+  public void restoreLotReduction(int lotIndex, double amountSold) {
+    lock.writeLock().lock();
+    try {
+      pinDetails();
+      Map.Entry<String, Integer> lot = portfolio.locateBySequence(lotIndex);
+      reduceLot(lot.getKey(), lot.getValue(), Quantity.of(amountSold));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // Resta de un lote y lo quita si queda vacío, manteniendo la valoración al día
+  private Asset reduceLot(String ticker, int lotIndex, long unitsSold) {
+    Asset lot = portfolio.lots(ticker).get(lotIndex);
+    if (valuation != null) {
+      valuation.lotReduced(ticker, lot.getUnits(), Math.min(unitsSold, lot.getUnits()), lot.getPurchasePriceCents());
+    }
+    return portfolio.reduce(ticker, lotIndex, unitsSold);
+  }
+
+  /**
+   * Repeats a persisted repricing of the lots of a ticker to their average purchase
+   * price without notifying the change listener. Intended for the persistence layer
+   * when it replays journaled changes.
+   *
+   * @param ticker        the ticker of the lots
+   * @param purchasePrice the purchase price every lot of the ticker got
+   */
+  public void restoreLotRepricing(String ticker, double purchasePrice) {
+    lock.writeLock().lock();
+    try {
+      pinDetails();
+      repriceLots(ticker, Money.of(purchasePrice));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void repriceLots(String ticker, long priceCents) {
+    portfolio.reprice(ticker, priceCents);
+    LotBook.LotDeque lots = portfolio.lots(ticker);
+    if (valuation != null && lots != null) {
+      valuation.repriced(ticker, lots.cost());
+    }
+  }
+
+  /**
+   * Appends a previously persisted transaction to the history without notifying the
+   * change listener. Intended for the persistence layer when it replays journaled
+   * changes.
+   *
+   * @param transaction the persisted transaction
+   */
+  public void restoreTransaction(Transaction transaction) {
+    lock.writeLock().lock();
+    try {
+      pinDetails();
+      transactionHistory.add(transaction);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Reads the user's state while no mutation is in progress, so the balance, lots and
+   * history seen belong to the same moment. The lock is reentrant, so the reader may
+   * call the getters of this user, and so may the change listener.
+   *
+   * @param reader the read to run
+   * @param <T>    the type of the result
+   * @return the result of the read
+   */
+  public <T> T readLocked(Supplier<T> reader) {
+    lock.readLock().lock();
+    try {
+      return reader.get();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Sets the listener notified after every state change of this user.
+   *
+   * @param changeListener the listener, or {@code null} to stop notifying changes
+   */
+  public void setChangeListener(UserChangeListener changeListener) {
+    this.changeListener = changeListener;
+  }
+
+  /**
+   * Notifies the change listener, if any, that the balance changed.
+   */
+  private void notifyBalanceChanged() {
+    if (changeListener != null) {
+      changeListener.balanceChanged(this);
+    }
+  }
+
+  /**
+   * Appends a transaction to the history, straight into its columns, and notifies the
+   * change listener, if any, with a view of the new entry.
+   *
+   * @param type         the type of the transaction
+   * @param units        the amount traded or deposited, in {@link Quantity} units
+   * @param ticker       the ticker of the asset
+   * @param assetType    the type of the asset, or {@code null}
+   * @param priceCents   the unit price, in cents
+   * @param priceVersion the version of the prices the price belongs to, or 0
+   */
+  private void recordTransaction(TransactionType type, long units, String ticker, AssetsType assetType,
+      long priceCents, long priceVersion) {
+    pinDetails();
+    int index = transactionHistory.append(type, units, ticker, assetType, priceCents, java.time.LocalDate.now(),
+        priceVersion);
+    if (changeListener != null) {
+      changeListener.transactionAdded(this, transactionHistory.get(index));
+    }
+  }
+
   /**
    * Gets the user's current balance.
    *
    * @return the user's balance
    */
   public double getBalance() {
+    return Money.toDouble(balance);
+  }
+
+  /**
+   * Gets the user's current balance in cents.
+   *
+   * @return the user's balance
+   */
+  public long getBalanceCents() {
     return balance;
   }
 
@@ -219,12 +560,23 @@ public class User {
    * @param amount the amount to add to the balance
    */
   public void increaseBalance(double amount) {
+    lock.writeLock().lock();
     try {
-      validateAmount(amount, 0);
-      setBalance(this.balance + amount);
+      deposit(Money.of(amount));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // Abona al saldo y registra el depósito
+  private void deposit(long cents) {
+    try {
+      validateAmount(cents, 0);
+      setBalance(this.balance + cents);
+      notifyBalanceChanged();
       // Registrar transacción de depósito
-      transactionHistory.add(Transaction.createNewTransaction(TransactionType.DEPOSIT, amount, "USD",
-          AssetsType.CURRENCY, 1.0, java.time.LocalDate.now()));
+      recordTransaction(TransactionType.DEPOSIT, cents * (Quantity.ONE / Money.ONE), "USD", AssetsType.CURRENCY,
+          Money.ONE, 0);
     } catch (InvalidAmountException e) {
       System.err.println("Invalid amount for increasing balance. Operation ignored.");
       e.printStackTrace();
@@ -238,56 +590,304 @@ public class User {
    * @param amount the amount to subtract from the balance
    */
   public void decreaseBalance(double amount) {
+    lock.writeLock().lock();
     try {
-      validateAmount(amount, 0);
-      double newBalance = this.balance - amount;
+      withdraw(Money.of(amount));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void withdraw(long cents) {
+    try {
+      validateAmount(cents, 0);
+      long newBalance = this.balance - cents;
       validateAmount(newBalance, 0);
       setBalance(newBalance);
+      notifyBalanceChanged();
     } catch (InvalidAmountException e) {
       System.err.println("Unable to decrease balance. Invalid operation.");
       e.printStackTrace();
     }
   }
 
+  /**
+   * Gets a copy of the user's lots, reading them on demand if the user was loaded
+   * lazily. The copy is taken under the read lock, so it is consistent even while
+   * trades or filled orders change the portfolio on other threads. Each copy carries
+   * the {@link Asset#getLotId() number} of its lot, by which {@link #sellAssetByLot}
+   * finds it.
+   *
+   * @return a read-only copy of the portfolio, grouped by ticker with the oldest lot
+   *         of each ticker first
+   */
   public List<Asset> getPortfolio() {
-    return portfolio;
+    return readLocked(() -> Collections.unmodifiableList(lots().copy()));
   }
 
+  /**
+   * Gets a read-only view of the user's transactions, reading them on demand if the
+   * user was loaded lazily. The view is bounded by the size of the history when it is
+   * taken under the read lock, so later transactions do not appear in it.
+   *
+   * @return a view of the transaction history
+   */
   public List<Transaction> getTransactionHistory() {
-    return transactionHistory;
+    return readLocked(() -> (transactionHistory != null ? transactionHistory : details().transactionHistory).view());
+  }
+
+  private LotBook lots() {
+    return portfolio != null ? portfolio : details().portfolio;
+  }
+
+  /**
+   * Gets the running valuation of the portfolio, building it from the lots and the
+   * latest published prices the first time. Afterwards buys and sales update it in
+   * constant time; prices are applied by whoever receives the engine's ticks.
+   *
+   * @return the valuation of this user's portfolio
+   */
+  public PortfolioValuation getValuation() {
+    lock.writeLock().lock();
+    try {
+      if (valuation == null) {
+        valuation = new PortfolioValuation(lots().asList(), PriceEngine.getInstance().getLatest());
+      }
+      return valuation;
+    } finally {
+      lock.writeLock().unlock();
+    }
   }
 
   // Cambiar buyAsset para que cada compra cree un nuevo Asset (lote)
   public void buyAsset(CatalogAsset asset, double amount) {
-    double totalCost = asset.getCurrentPrice() * amount;
-    if (amount <= 0)
+    buyAsset(asset, amount, PriceEngine.getInstance().getLatest());
+  }
+
+  // Compra con los precios de una única versión, que queda registrada en la transacción
+  public void buyAsset(CatalogAsset asset, double amount, PriceSnapshot prices) {
+    // La cantidad se redondea a los decimales del tipo de activo
+    long units = Quantity.of(amount, asset.getAssetType());
+    if (amount <= 0 || units <= 0)
       throw new IllegalArgumentException("La cantidad debe ser mayor a 0");
+    lock.writeLock().lock();
+    try {
+      buy(asset, units, prices.getPrice(asset.getTicker()), prices.getVersion());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Buys a quantity of an asset at the price of the tick that triggered an order.
+   *
+   * @param asset        the asset
+   * @param units        the quantity, in {@link Quantity} units
+   * @param priceCents   the price of one unit, in cents
+   * @param priceVersion the version of the prices the price belongs to
+   * @throws IllegalArgumentException if the quantity is not positive or the balance
+   *                                  does not cover it
+   */
+  void fillBuy(CatalogAsset asset, long units, long priceCents, long priceVersion) {
+    if (units <= 0)
+      throw new IllegalArgumentException("La cantidad debe ser mayor a 0");
+    lock.writeLock().lock();
+    try {
+      buy(asset, units, Money.toDouble(priceCents), priceVersion);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void buy(CatalogAsset asset, long units, double quoted, long priceVersion) {
+    // Activo fuera del catálogo publicado: se usa su último precio
+    long price = Double.isNaN(quoted) ? asset.getCurrentPriceCents() : Money.of(quoted);
+    long totalCost = Money.times(price, units);
     if (this.balance < totalCost)
       throw new IllegalArgumentException("Saldo insuficiente");
     // Siempre crear un nuevo lote
-    portfolio.add(Asset.createNewAsset(asset.getTicker(), amount, asset.getCurrentPrice()));
-    this.decreaseBalance(totalCost);
-    transactionHistory.add(Transaction.createNewTransaction(TransactionType.BUY, amount, asset.getTicker(),
-        asset.getAssetType(), asset.getCurrentPrice(), java.time.LocalDate.now()));
+    Asset lot = Asset.ofUnits(asset.getTicker(), units, price);
+    pinDetails();
+    portfolio.add(lot);
+    if (valuation != null) {
+      valuation.lotAdded(asset.getTicker(), lot.getUnits(), lot.getPurchasePriceCents(), quoted);
+    }
+    if (changeListener != null) {
+      changeListener.lotAdded(this, lot);
+    }
+    this.withdraw(totalCost);
+    recordTransaction(TransactionType.BUY, units, asset.getTicker(), asset.getAssetType(), price, priceVersion);
   }
 
   // Nuevo método: vender por lote específico
   public void sellAssetByLot(Asset lote, double amount) {
+    sellAssetByLot(lote, amount, PriceEngine.getInstance().getLatest());
+  }
+
+  // Vende con los precios de una única versión, que queda registrada en la transacción;
+  // el lote es una copia de getPortfolio() y se busca por su número
+  public void sellAssetByLot(Asset lote, double amount, PriceSnapshot prices) {
+    lock.writeLock().lock();
+    try {
+      if (amount <= 0)
+        throw new IllegalArgumentException("La cantidad debe ser mayor a 0");
+      pinDetails();
+      int lotIndex = lote != null ? portfolio.indexOf(lote) : -1;
+      if (lotIndex < 0)
+        throw new IllegalArgumentException("No tienes suficiente cantidad en este lote");
+      Asset lot = portfolio.lots(lote.getTicker()).get(lotIndex);
+      CatalogAsset cat = AssetManager.getInstance().findByTicker(lot.getTicker());
+      AssetsType assetType = cat != null ? cat.getAssetType() : null;
+      long units = unitsToSell(amount, assetType, lot.getUnits());
+      if (units <= 0)
+        throw new IllegalArgumentException("La cantidad debe ser mayor a 0");
+      if (lot.getUnits() < units)
+        throw new IllegalArgumentException("No tienes suficiente cantidad en este lote");
+      // Obtener precio actual del activo
+      double quoted = prices.getPrice(lot.getTicker());
+      long precioActual = Money.of(quoted);
+      long priceVersion = prices.getVersion();
+      if (Double.isNaN(quoted)) {
+        precioActual = lot.getPurchasePriceCents();
+        priceVersion = 0;
+      }
+      long totalValue = Money.times(precioActual, units);
+      reduceLot(lot.getTicker(), lotIndex, units);
+      if (changeListener != null) {
+        changeListener.lotReduced(this, lot.getTicker(), lotIndex, Quantity.toDouble(units));
+      }
+      this.deposit(totalValue);
+      recordTransaction(TransactionType.SELL, units, lot.getTicker(), assetType, precioActual, priceVersion);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // Unidades a vender: la cantidad se redondea a los decimales del tipo, salvo que
+  // sea exactamente lo que se tiene, por si se guardó con más decimales
+  private static long unitsToSell(double amount, AssetsType assetType, long held) {
+    long exact = Quantity.of(amount);
+    return exact == held ? held : Quantity.of(amount, assetType);
+  }
+
+  /**
+   * Sells an amount of a ticker at the latest published price, choosing the lots by
+   * the given cost method.
+   *
+   * @param ticker the ticker to sell
+   * @param amount the amount to sell
+   * @param method how the lots are chosen
+   * @return the gain realized on each lot sold from
+   */
+  public List<RealizedGain> sellAsset(String ticker, double amount, CostMethod method) {
+    return sellAsset(ticker, amount, method, PriceEngine.getInstance().getLatest());
+  }
+
+  /**
+   * Sells an amount of a ticker with the prices of a single version, consuming the
+   * lots of the ticker in one pass: from the oldest with {@link CostMethod#FIFO} and
+   * {@link CostMethod#AVERAGE}, from the newest with {@link CostMethod#LIFO}. With
+   * {@code AVERAGE} the gain is computed at the average purchase price of the ticker,
+   * and the lots left are repriced to that average. Emptied lots are removed. The
+   * amount is rounded to the decimals of the ticker's {@link AssetsType}.
+   *
+   * @param ticker the ticker to sell
+   * @param amount the amount to sell
+   * @param method how the lots are chosen
+   * @param prices the prices of the sale, whose version is recorded in the
+   *               transaction
+   * @return the gain realized on each lot sold from, in the order they were sold
+   * @throws IllegalArgumentException if the amount is not positive or exceeds the
+   *                                  amount held
+   */
+  public List<RealizedGain> sellAsset(String ticker, double amount, CostMethod method, PriceSnapshot prices) {
     if (amount <= 0)
       throw new IllegalArgumentException("La cantidad debe ser mayor a 0");
-    if (lote == null || !portfolio.contains(lote) || lote.getAmount() < amount)
-      throw new IllegalArgumentException("No tienes suficiente cantidad en este lote");
-    // Obtener precio actual del activo
-    CatalogAsset cat = ve.edu.ucab.domain.model.AssetManager.getInstance().getCatalogAssets().stream()
-        .filter(a -> a.getTicker().equals(lote.getTicker())).findFirst().orElse(null);
-    double precioActual = (cat != null) ? cat.getCurrentPrice() : lote.getPurchasePrice();
-    double totalValue = precioActual * amount;
-    lote.subtractAmount(amount);
-    if (lote.getAmount() == 0)
-      portfolio.remove(lote);
-    this.increaseBalance(totalValue);
-    transactionHistory.add(Transaction.createNewTransaction(TransactionType.SELL, amount, lote.getTicker(),
-        (cat != null ? cat.getAssetType() : null), precioActual, java.time.LocalDate.now()));
+    lock.writeLock().lock();
+    try {
+      pinDetails();
+      LotBook.LotDeque lots = portfolio.lots(ticker);
+      CatalogAsset cat = AssetManager.getInstance().findByTicker(ticker);
+      long units = unitsToSell(amount, cat != null ? cat.getAssetType() : null, lots != null ? lots.amount() : 0);
+      return sell(ticker, units, method, prices.getPrice(ticker), prices.getVersion());
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Sells a quantity of a ticker at the price of the tick that triggered an order,
+   * choosing the lots by the given cost method.
+   *
+   * @param ticker       the ticker
+   * @param units        the quantity, in {@link Quantity} units
+   * @param method       how the lots are chosen
+   * @param priceCents   the price of one unit, in cents
+   * @param priceVersion the version of the prices the price belongs to
+   * @return the gain realized on each lot sold from, in the order they were sold
+   * @throws IllegalArgumentException if the quantity is not positive or exceeds the
+   *                                  amount held
+   */
+  List<RealizedGain> fillSell(String ticker, long units, CostMethod method, long priceCents, long priceVersion) {
+    lock.writeLock().lock();
+    try {
+      return sell(ticker, units, method, Money.toDouble(priceCents), priceVersion);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private List<RealizedGain> sell(String ticker, long units, CostMethod method, double quoted, long priceVersion) {
+    if (units <= 0)
+      throw new IllegalArgumentException("La cantidad debe ser mayor a 0");
+    pinDetails();
+    LotBook.LotDeque lots = portfolio.lots(ticker);
+    // Los totales del ticker se mantienen al día: no se recorren los lotes para validar
+    long held = lots != null ? lots.amount() : 0;
+    long cost = lots != null ? lots.cost() : 0;
+    if (lots == null || held < units)
+      throw new IllegalArgumentException("No tienes suficiente cantidad de este activo");
+    CatalogAsset cat = AssetManager.getInstance().findByTicker(ticker);
+    AssetsType assetType = cat != null ? cat.getAssetType() : null;
+    long precioActual = Money.of(quoted);
+    if (Double.isNaN(quoted)) {
+      // Fuera del catálogo se vende al precio promedio de compra, sin ganancia
+      precioActual = Money.perUnit(cost, held);
+      priceVersion = 0;
+    }
+    List<RealizedGain> gains = new ArrayList<>();
+    long average = Money.perUnit(cost, held);
+    if (method == CostMethod.AVERAGE) {
+      // Costo promedio con los totales del ticker; los lotes no se funden
+      gains.add(new RealizedGain(ticker, Quantity.toDouble(units), Money.toDouble(average),
+          Money.toDouble(precioActual), method));
+    }
+    long remaining = units;
+    while (remaining > 0) {
+      // Con AVERAGE las unidades salen de los lotes más antiguos
+      int index = method == CostMethod.LIFO ? lots.size() - 1 : 0;
+      Asset lot = lots.get(index);
+      long sold = Math.min(remaining, lot.getUnits());
+      if (method != CostMethod.AVERAGE) {
+        gains.add(new RealizedGain(ticker, Quantity.toDouble(sold), lot.getPurchasePrice(),
+            Money.toDouble(precioActual), method));
+      }
+      reduceLot(ticker, index, sold);
+      if (changeListener != null) {
+        changeListener.lotReduced(this, ticker, index, Quantity.toDouble(sold));
+      }
+      remaining -= sold;
+    }
+    if (method == CostMethod.AVERAGE && held > units) {
+      // Lo que queda vale el promedio: si no, el costo restante sería el de FIFO
+      repriceLots(ticker, average);
+      if (changeListener != null) {
+        changeListener.lotsRepriced(this, ticker, Money.toDouble(average));
+      }
+    }
+    this.deposit(Money.times(precioActual, units));
+    recordTransaction(TransactionType.SELL, units, ticker, assetType, precioActual, priceVersion);
+    return gains;
   }
 
   /**
@@ -300,7 +900,7 @@ public class User {
    * @return a new {@link User} instance
    */
   public static User createNewUser(int id, String username, String password, double balance) {
-    return new User(id, username, password, balance, new ArrayList<>(), new ArrayList<>());
+    return new User(id, username, password, balance, new ArrayList<>(), new TransactionLog());
   }
 
   // Nuevo método para crear usuario con portafolio e historial (para
@@ -309,4 +909,20 @@ public class User {
       List<Transaction> transactionHistory) {
     return new User(id, username, password, balance, portfolio, transactionHistory);
   }
+
+  /**
+   * Creates a user whose portfolio and transaction history are read on demand
+   * through the given loader the first time they are needed.
+   *
+   * @param id            the unique identifier for the user
+   * @param username      the username of the user
+   * @param password      the password of the user
+   * @param balance       the balance of the user
+   * @param detailsLoader the loader used to read the portfolio and history
+   * @return a new {@link User} instance
+   */
+  public static User createLazyUser(int id, String username, String password, double balance,
+      UserDetailsLoader detailsLoader) {
+    return new User(id, username, password, balance, detailsLoader);
+  }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package ve.edu.ucab.domain.model;
+
+/**
+ * Receives a notification after every state change of a {@link User}.
+ * Each callback is invoked once the change has already been applied, so a listener
+ * that reads the user from inside a callback always observes a consistent state.
+ * The persistence layer uses it to journal mutations instead of rewriting the whole
+ * user file.
+ */
+public interface UserChangeListener {
+
+  /**
+   * Called after the balance of the user changed.
+   *
+   * @param user the user whose balance changed
+   */
+  void balanceChanged(User user);
+
+  /**
+   * Called after the username of the user changed.
+   *
+   * @param user        the user whose username changed
+   * @param oldUsername the username the user had before the change
+   */
+  void usernameChanged(User user, String oldUsername);
+
+  /**
+   * Called after the password of the user changed.
+   *
+   * @param user the user whose password changed
+   */
+  void passwordChanged(User user);
+
+  /**
+   * Called after a new lot was appended to the user's portfolio.
+   *
+   * @param user the owner of the portfolio
+   * @param lot  the lot that was appended
+   */
+  void lotAdded(User user, Asset lot);
+
+  /**
+   * Called after an amount was sold from a lot of the user's portfolio. If the lot
+   * was emptied it has already been removed from the portfolio.
+   *
+   * @param user       the owner of the portfolio
+   * @param ticker     the ticker of the lot
+   * @param lotIndex   the position the lot had among the lots of its ticker, oldest
+   *                   first, before the sale
+   * @param amountSold the amount subtracted from the lot
+   */
+  void lotReduced(User user, String ticker, int lotIndex, double amountSold);
+
+  /**
+   * Called after every lot of a ticker was repriced to the average purchase price by
+   * a sale at average cost.
+   *
+   * @param user          the owner of the portfolio
+   * @param ticker        the ticker of the lots
+   * @param purchasePrice the purchase price every lot of the ticker now has
+   */
+  void lotsRepriced(User user, String ticker, double purchasePrice);
+
+  /**
+   * Called after a transaction was appended to the user's history.
+   *
+   * @param user        the owner of the history
+   * @param transaction the transaction that was appended
+   */
+  void transactionAdded(User user, Transaction transaction);
+}
@@ -0,0 +1,21 @@
+package ve.edu.ucab.domain.model;
+
+import java.util.List;
+
+/**
+ * Loads the portfolio and transaction history of a {@link User} on demand.
+ * Users created with a loader only keep their ID, credentials and balance in memory;
+ * the rest of their data is read the first time it is needed.
+ */
+public interface UserDetailsLoader {
+
+  /**
+   * Reads the stored portfolio and transaction history of a user.
+   *
+   * @param userId             the ID of the user
+   * @param portfolio          the list receiving the user's lots
+   * @param transactionHistory the list receiving the user's transactions
+   * @throws java.io.UncheckedIOException if the data cannot be read
+   */
+  void loadDetails(int userId, List<Asset> portfolio, List<Transaction> transactionHistory);
+}
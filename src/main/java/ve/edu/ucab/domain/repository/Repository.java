@@ -15,16 +15,49 @@ import java.util.ArrayList;
  */
 public abstract class Repository<T, K> {
 
+  /**
+   * The system property that selects the storage format of every repository.
+   * Start the application with {@code -Drepository.format=binary} to use binary
+   * snapshots; JSON is used by default.
+   */
+  public static final String STORAGE_FORMAT_PROPERTY = "repository.format";
+
   /**
    * The list storing all data objects managed by the repository.
    */
   protected ArrayList<T> data;
 
   /**
-   * Constructs a new Repository, initializing the data list.
+   * The format the repository persists its data in.
+   */
+  protected final StorageFormat storageFormat;
+
+  /**
+   * Constructs a new Repository, initializing the data list and reading the
+   * configured storage format.
    */
   public Repository() {
     this.data = new ArrayList<>();
+    this.storageFormat = configuredStorageFormat();
+  }
+
+  /**
+   * Gets the format the repository persists its data in.
+   *
+   * @return the storage format
+   */
+  public StorageFormat getStorageFormat() {
+    return storageFormat;
+  }
+
+  /**
+   * Reads the storage format configured through {@link #STORAGE_FORMAT_PROPERTY}.
+   *
+   * @return the configured format, or {@link StorageFormat#JSON} if none is set
+   * @throws IllegalArgumentException if the configured value is not a known format
+   */
+  public static StorageFormat configuredStorageFormat() {
+    return StorageFormat.fromName(System.getProperty(STORAGE_FORMAT_PROPERTY));
   }
 
   /**
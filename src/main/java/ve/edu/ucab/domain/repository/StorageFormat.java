@@ -0,0 +1,39 @@
+package ve.edu.ucab.domain.repository;
+
+/**
+ * The formats a repository can persist its data in.
+ *
+ * @author badjavii
+ * @since 2025-07-01
+ */
+public enum StorageFormat {
+
+  /**
+   * Pretty-printed JSON, readable and editable by hand.
+   */
+  JSON,
+
+  /**
+   * A compact, versioned binary snapshot made of checksummed blocks.
+   */
+  BINARY;
+
+  /**
+   * Parses a format name, ignoring case.
+   *
+   * @param name the name of the format, such as {@code json} or {@code binary}
+   * @return the matching format, or {@link #JSON} if the name is {@code null}
+   * @throws IllegalArgumentException if the name does not match any format
+   */
+  public static StorageFormat fromName(String name) {
+    if (name == null || name.isBlank()) {
+      return JSON;
+    }
+    for (StorageFormat format : values()) {
+      if (format.name().equalsIgnoreCase(name.trim())) {
+        return format;
+      }
+    }
+    throw new IllegalArgumentException("Unknown storage format: " + name);
+  }
+}
@@ -47,15 +47,13 @@ public class LoginUseCase implements UseCase<LoginInput, User> {
    * @throws InvalidPasswordException if the password is incorrect
    */
   public User login(String username, String password) throws UserNotFoundException, InvalidPasswordException {
-    for (User user : userRepository.getAllData()) {
-      if (user.isSameUsername(username)) {
-        if (user.isSamePassword(password)) {
-          return user;
-        } else {
-          throw new InvalidPasswordException("Incorrect password.");
-        }
-      }
+    User user = userRepository.findByUsername(username);
+    if (user == null) {
+      throw new UserNotFoundException("User not found.");
     }
-    throw new UserNotFoundException("User not found.");
+    if (!user.isSamePassword(password)) {
+      throw new InvalidPasswordException("Incorrect password.");
+    }
+    return user;
   }
 }
\ No newline at end of file
@@ -48,15 +48,14 @@ public class RegisterUserUseCase implements UseCase<RegisterInput, User> {
    */
   @Override
   public User execute(RegisterInput input) throws ExistingUserException {
-    if (userRepository.existsData(input.getPassword())) {
-      throw new ExistingUserException("Ya existe un usuario con esa contraseña.");
+    if (userRepository.existsData(input.getUsername())) {
+      throw new ExistingUserException("Ya existe un usuario con ese nombre.");
     }
 
-    int newId = userRepository.getAllData().size() + 1;
+    int newId = userRepository.count() + 1;
     userRepository.addData(newId, input.getUsername(), input.getPassword(), 100.0, new ArrayList<Asset>(),
         new ArrayList<Transaction>());
-    return User.createNewUser(newId, input.getUsername(), input.getPassword(), 100.0, new ArrayList<Asset>(),
-        new ArrayList<Transaction>());
+    return userRepository.findById(newId);
   }
 
 }
\ No newline at end of file
@@ -0,0 +1,296 @@
+package ve.edu.ucab.infrastructure.datasource;
+
+// Java I/O and utility imports
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * An append-only, memory-mapped file of OHLC price bars of one resolution. The
+ * header lists the tickers the bars refer to by index; it is followed by fixed-size
+ * records in the order they were appended, which is the order of their start times:
+ *
+ * <pre>
+ * header: int magic, short version, short reserved, long resolution (ms),
+ *         long record count, int ticker count, (short length, UTF-8 bytes) per ticker
+ * record: long start (ms), int ticker index, int reserved, double open, double high,
+ *         double low, double close
+ * </pre>
+ *
+ * <p>The record count is updated after each record is written, so a record torn by a
+ * crash is simply not counted. Because records are sorted by start time, a range of
+ * bars is found with a binary search.
+ */
+public final class BarFile implements Closeable {
+
+  /**
+   * The magic number at the start of every bar file ("KBR1").
+   */
+  public static final int MAGIC = 0x4B425231;
+
+  /**
+   * The current version of the bar file layout.
+   */
+  public static final short VERSION = 1;
+
+  /**
+   * The size of a record, in bytes.
+   */
+  static final int RECORD_SIZE = 48;
+
+  /**
+   * The offset of the record count in the header.
+   */
+  private static final int COUNT_OFFSET = 16;
+
+  /**
+   * The offset of the ticker count in the header.
+   */
+  private static final int TICKERS_OFFSET = 24;
+
+  /**
+   * The number of records the mapping grows by.
+   */
+  private static final int GROWTH_RECORDS = 16 * 1024;
+
+  private final FileChannel channel;
+  private final int dataStart;
+  private final String[] tickers;
+  private MappedByteBuffer buffer;
+  private long count;
+
+  private BarFile(FileChannel channel, int dataStart, String[] tickers, long count) throws IOException {
+    this.channel = channel;
+    this.dataStart = dataStart;
+    this.tickers = tickers;
+    this.count = count;
+    map(count + GROWTH_RECORDS);
+  }
+
+  /**
+   * Opens a bar file for appending. An existing file is kept if it has the same
+   * resolution and tickers; otherwise it is moved to
+   * {@link SnapshotFiles#previous(Path)} and a new file is started.
+   *
+   * @param path         the bar file
+   * @param resolutionMs the length of a bar, in milliseconds
+   * @param tickers      the ticker of each ticker index
+   * @return the open file
+   * @throws IOException if the file cannot be opened or created
+   */
+  public static BarFile open(Path path, long resolutionMs, String[] tickers) throws IOException {
+    if (Files.isRegularFile(path)) {
+      FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      try {
+        BarFile existing = readExisting(channel, resolutionMs, tickers);
+        if (existing != null) {
+          return existing;
+        }
+      } catch (IOException | RuntimeException e) {
+        channel.close();
+        throw e;
+      }
+      channel.close();
+      Files.move(path, SnapshotFiles.previous(path), StandardCopyOption.REPLACE_EXISTING);
+    }
+    return create(path, resolutionMs, tickers);
+  }
+
+  private static BarFile readExisting(FileChannel channel, long resolutionMs, String[] tickers)
+      throws IOException {
+    if (channel.size() < TICKERS_OFFSET + Integer.BYTES) {
+      return null;
+    }
+    ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+        Math.min(channel.size(), Integer.MAX_VALUE));
+    if (header.getInt(0) != MAGIC || header.getShort(4) != VERSION || header.getLong(8) != resolutionMs) {
+      return null;
+    }
+    int tickerCount = header.getInt(TICKERS_OFFSET);
+    if (tickerCount != tickers.length) {
+      return null;
+    }
+    header.position(TICKERS_OFFSET + Integer.BYTES);
+    String[] stored = new String[tickerCount];
+    try {
+      for (int i = 0; i < tickerCount; i++) {
+        byte[] bytes = new byte[Short.toUnsignedInt(header.getShort())];
+        header.get(bytes);
+        stored[i] = new String(bytes, StandardCharsets.UTF_8);
+      }
+    } catch (BufferUnderflowException e) {
+      return null;
+    }
+    if (!Arrays.equals(stored, tickers)) {
+      return null;
+    }
+    int dataStart = align(header.position());
+    long count = header.getLong(COUNT_OFFSET);
+    // Un archivo recortado solo conserva los registros completos
+    count = Math.min(count, Math.max(0, (channel.size() - dataStart) / RECORD_SIZE));
+    return new BarFile(channel, dataStart, tickers.clone(), count);
+  }
+
+  private static BarFile create(Path path, long resolutionMs, String[] tickers) throws IOException {
+    int headerSize = TICKERS_OFFSET + Integer.BYTES;
+    byte[][] encoded = new byte[tickers.length][];
+    for (int i = 0; i < tickers.length; i++) {
+      encoded[i] = tickers[i].getBytes(StandardCharsets.UTF_8);
+      headerSize += Short.BYTES + encoded[i].length;
+    }
+    ByteBuffer header = ByteBuffer.allocate(align(headerSize));
+    header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putLong(resolutionMs).putLong(0)
+        .putInt(tickers.length);
+    for (byte[] bytes : encoded) {
+      header.putShort((short) bytes.length).put(bytes);
+    }
+    header.position(0);
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      while (header.hasRemaining()) {
+        channel.write(header);
+      }
+      return new BarFile(channel, header.capacity(), tickers.clone(), 0);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private static int align(int position) {
+    return (position + Long.BYTES - 1) & -Long.BYTES;
+  }
+
+  private void map(long records) throws IOException {
+    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, dataStart + records * RECORD_SIZE);
+  }
+
+  /**
+   * Gets the tickers the bars refer to.
+   *
+   * @return the ticker of each ticker index
+   */
+  public String[] getTickers() {
+    return tickers.clone();
+  }
+
+  /**
+   * Appends a bar. Its start must not be earlier than that of the last bar.
+   *
+   * @param ticker the ticker index
+   * @param start  the start of the bar, in milliseconds since the epoch
+   * @param open   the first price of the bar
+   * @param high   the highest price of the bar
+   * @param low    the lowest price of the bar
+   * @param close  the last price of the bar
+   * @throws IOException if the mapping cannot be extended
+   */
+  public void append(int ticker, long start, double open, double high, double low, double close)
+      throws IOException {
+    long offset = dataStart + count * RECORD_SIZE;
+    if (offset + RECORD_SIZE > buffer.capacity()) {
+      map(count + GROWTH_RECORDS);
+    }
+    int position = (int) offset;
+    buffer.putLong(position, start);
+    buffer.putInt(position + 8, ticker);
+    buffer.putInt(position + 12, 0);
+    buffer.putDouble(position + 16, open);
+    buffer.putDouble(position + 24, high);
+    buffer.putDouble(position + 32, low);
+    buffer.putDouble(position + 40, close);
+    count++;
+    buffer.putLong(COUNT_OFFSET, count);
+  }
+
+  /**
+   * Gets the number of bars in the file.
+   *
+   * @return the record count
+   */
+  public long size() {
+    return count;
+  }
+
+  /**
+   * Finds the first bar starting at or after a time.
+   *
+   * @param start the time, in milliseconds since the epoch
+   * @return the index of the bar, or {@link #size()} if every bar starts earlier
+   */
+  public long search(long start) {
+    long low = 0;
+    long high = count;
+    while (low < high) {
+      long middle = (low + high) >>> 1;
+      if (getStart(middle) < start) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private int offset(long index) {
+    return (int) (dataStart + index * RECORD_SIZE);
+  }
+
+  public long getStart(long index) {
+    return buffer.getLong(offset(index));
+  }
+
+  public int getTicker(long index) {
+    return buffer.getInt(offset(index) + 8);
+  }
+
+  public double getOpen(long index) {
+    return buffer.getDouble(offset(index) + 16);
+  }
+
+  public double getHigh(long index) {
+    return buffer.getDouble(offset(index) + 24);
+  }
+
+  public double getLow(long index) {
+    return buffer.getDouble(offset(index) + 32);
+  }
+
+  public double getClose(long index) {
+    return buffer.getDouble(offset(index) + 40);
+  }
+
+  /**
+   * Writes the appended bars to disk.
+   */
+  public void force() {
+    buffer.force();
+  }
+
+  /**
+   * Writes the appended bars to disk and trims the file to them.
+   *
+   * @throws IOException if the file cannot be written
+   */
+  @Override
+  public void close() throws IOException {
+    buffer.force();
+    buffer = null;
+    try {
+      channel.truncate(dataStart + count * RECORD_SIZE);
+    } catch (IOException e) {
+      // Windows no permite recortar un archivo mapeado; el conteo del encabezado manda
+    }
+    channel.close();
+  }
+}
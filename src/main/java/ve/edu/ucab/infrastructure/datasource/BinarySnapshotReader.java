@@ -0,0 +1,193 @@
+package ve.edu.ucab.infrastructure.datasource;
+
+// Java I/O and utility imports
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads a snapshot written by {@link BinarySnapshotWriter}. {@link #scan} verifies
+ * the checksum of every block and hands each record to a visitor; afterwards single
+ * records can be read again by position with {@link #read}.
+ */
+public class BinarySnapshotReader implements Closeable {
+
+  /**
+   * The channel of the snapshot file.
+   */
+  private final FileChannel channel;
+
+  /**
+   * The tickers found in dictionary blocks, indexed by ID.
+   */
+  private final List<String> tickers = new ArrayList<>();
+
+  /**
+   * Receives each record found while scanning.
+   */
+  public interface RecordVisitor {
+
+    /**
+     * Called for every record in the snapshot, in file order.
+     *
+     * @param position the position of the record's bytes in the file
+     * @param record   the record's bytes, from its position to its limit
+     * @throws IOException if the record cannot be processed
+     */
+    void visit(long position, ByteBuffer record) throws IOException;
+  }
+
+  /**
+   * Opens a snapshot and validates its header.
+   *
+   * @param path the file to read
+   * @param kind the kind byte the snapshot must have
+   * @throws IOException if the file cannot be read or is not a snapshot of that kind
+   */
+  public BinarySnapshotReader(Path path, byte kind) throws IOException {
+    channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      ByteBuffer header = readAt(0, BinarySnapshotWriter.HEADER_SIZE);
+      if (header.getInt() != BinarySnapshotWriter.MAGIC) {
+        throw new IOException("Not a binary snapshot: " + path);
+      }
+      short version = header.getShort();
+      if (version != BinarySnapshotWriter.VERSION) {
+        throw new IOException("Unsupported snapshot version " + version + ": " + path);
+      }
+      byte storedKind = header.get();
+      if (storedKind != kind) {
+        throw new IOException("Unexpected snapshot kind " + storedKind + ": " + path);
+      }
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Reads every block, verifying its checksum, and visits each record.
+   *
+   * @param visitor receives each record
+   * @throws IOException if the file cannot be read, a checksum does not match or the
+   *                     snapshot is incomplete
+   */
+  public void scan(RecordVisitor visitor) throws IOException {
+    CRC32C crc = new CRC32C();
+    tickers.clear();
+    long position = BinarySnapshotWriter.HEADER_SIZE;
+    while (true) {
+      if (position + BinarySnapshotWriter.BLOCK_HEADER_SIZE > channel.size()) {
+        throw new IOException("Snapshot is incomplete: no end block.");
+      }
+      ByteBuffer header = readAt(position, BinarySnapshotWriter.BLOCK_HEADER_SIZE);
+      byte type = header.get();
+      int length = header.getInt();
+      int checksum = header.getInt();
+      long payloadPosition = position + BinarySnapshotWriter.BLOCK_HEADER_SIZE;
+      if (length < 0 || payloadPosition + length > channel.size()) {
+        throw new IOException("Snapshot is incomplete: block at " + position + " is truncated.");
+      }
+      ByteBuffer payload = readAt(payloadPosition, length);
+      crc.reset();
+      crc.update(payload.duplicate());
+      if ((int) crc.getValue() != checksum) {
+        throw new IOException("Checksum mismatch in block at " + position + ".");
+      }
+      switch (type) {
+        case BinarySnapshotWriter.BLOCK_END -> {
+          return;
+        }
+        case BinarySnapshotWriter.BLOCK_INDEX -> {
+          // Solo lo usa MappedSnapshot
+        }
+        case BinarySnapshotWriter.BLOCK_DICTIONARY -> {
+          int count = payload.getInt();
+          for (int i = 0; i < count; i++) {
+            tickers.add(getString(payload));
+          }
+        }
+        case BinarySnapshotWriter.BLOCK_RECORDS -> {
+          while (payload.hasRemaining()) {
+            int recordLength = payload.getInt();
+            int start = payload.position();
+            ByteBuffer record = payload.duplicate();
+            record.limit(start + recordLength);
+            visitor.visit(payloadPosition + start, record);
+            payload.position(start + recordLength);
+          }
+        }
+        default -> throw new IOException("Unknown block type " + type + " at " + position + ".");
+      }
+      position = payloadPosition + length;
+    }
+  }
+
+  /**
+   * Reads a single record by the position reported while scanning.
+   *
+   * @param position the position of the record's bytes
+   * @param length   the length of the record
+   * @return the record's bytes
+   * @throws IOException if the record cannot be read
+   */
+  public ByteBuffer read(long position, int length) throws IOException {
+    return readAt(position, length);
+  }
+
+  /**
+   * Resolves a ticker ID read from a record. Valid once {@link #scan} has run.
+   *
+   * @param record the record positioned at a ticker ID
+   * @return the ticker, or {@code null} if none was written
+   */
+  public String getTicker(ByteBuffer record) {
+    int id = record.getInt();
+    return id >= 0 ? tickers.get(id) : null;
+  }
+
+  /**
+   * Reads a string written with {@link BinarySnapshotWriter#putString}.
+   *
+   * @param record the record positioned at the string
+   * @return the string, or {@code null} if none was written
+   */
+  public static String getString(ByteBuffer record) {
+    int length = record.getInt();
+    if (length < 0) {
+      return null;
+    }
+    String value;
+    if (record.hasArray()) {
+      value = new String(record.array(), record.arrayOffset() + record.position(), length, StandardCharsets.UTF_8);
+      record.position(record.position() + length);
+    } else {
+      byte[] bytes = new byte[length];
+      record.get(bytes);
+      value = new String(bytes, StandardCharsets.UTF_8);
+    }
+    return value;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private ByteBuffer readAt(long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of the snapshot.");
+      }
+    }
+    return buffer.flip();
+  }
+}
@@ -0,0 +1,371 @@
+package ve.edu.ucab.infrastructure.datasource;
+
+// Java I/O and utility imports
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Writes a versioned binary snapshot through a {@link FileChannel}. A snapshot is a
+ * header followed by checksummed blocks:
+ *
+ * <pre>
+ * header: int magic, short version, byte kind
+ * block:  byte type, int payload length, int CRC-32C of the payload, payload
+ * </pre>
+ *
+ * <p>Record blocks hold length-prefixed records. Dictionary blocks hold tickers that
+ * records refer to by ID; IDs are assigned in order of appearance, and each
+ * dictionary block precedes the first record using its tickers. Records are written
+ * through {@link #beginRecord()}, the {@code put} methods and {@link #endRecord()}.
+ *
+ * <p>The snapshot ends with an index block and an end block. The index block holds
+ * the position, length and checksum of every record block, the whole ticker
+ * dictionary and an application-defined index, so {@link MappedSnapshot} can open the
+ * file without reading it. The end block, always the last {@link #END_BLOCK_SIZE}
+ * bytes, holds the position of the index block.
+ */
+public class BinarySnapshotWriter implements Closeable {
+
+  /**
+   * The magic number at the start of every snapshot ("KBS1").
+   */
+  public static final int MAGIC = 0x4B425331;
+
+  /**
+   * The current version of the snapshot layout.
+   */
+  public static final short VERSION = 1;
+
+  /**
+   * The size of the header, in bytes.
+   */
+  static final int HEADER_SIZE = Integer.BYTES + Short.BYTES + Byte.BYTES;
+
+  /**
+   * The size of a block header, in bytes.
+   */
+  static final int BLOCK_HEADER_SIZE = Byte.BYTES + Integer.BYTES + Integer.BYTES;
+
+  /**
+   * Block types.
+   */
+  static final byte BLOCK_DICTIONARY = 1;
+  static final byte BLOCK_RECORDS = 2;
+  static final byte BLOCK_END = 3;
+  static final byte BLOCK_INDEX = 4;
+
+  /**
+   * The size of the end block, including its header.
+   */
+  static final int END_BLOCK_SIZE = BLOCK_HEADER_SIZE + Long.BYTES;
+
+  /**
+   * The payload size after which a record block is written.
+   */
+  private static final int BLOCK_SIZE = 64 * 1024;
+
+  /**
+   * The channel the snapshot is written to.
+   */
+  private final FileChannel channel;
+
+  /**
+   * The checksum reused for every block.
+   */
+  private final CRC32C crc = new CRC32C();
+
+  /**
+   * The ID of every ticker written so far.
+   */
+  private final Map<String, Integer> tickerIds = new HashMap<>();
+
+  /**
+   * Tickers used by the current record that are not yet in a dictionary block.
+   */
+  private final List<String> pendingTickers = new ArrayList<>();
+
+  /**
+   * The payload of the current record block.
+   */
+  private ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+
+  /**
+   * The record being written.
+   */
+  private ByteBuffer record = ByteBuffer.allocate(1024);
+
+  /**
+   * The position, length and checksum of every record block written so far.
+   */
+  private long[] blockPositions = new long[64];
+  private int[] blockLengths = new int[64];
+  private int[] blockChecksums = new int[64];
+  private int blockCount;
+
+  /**
+   * The number of bytes written to the channel so far.
+   */
+  private long position;
+
+  /**
+   * The length of the last completed record.
+   */
+  private int recordLength;
+
+  /**
+   * Creates the file, replacing any existing one, and writes the snapshot header.
+   *
+   * @param path the file to write
+   * @param kind an application-defined byte identifying what the snapshot holds
+   * @throws IOException if the file cannot be created
+   */
+  public BinarySnapshotWriter(Path path, byte kind) throws IOException {
+    channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING);
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(MAGIC).putShort(VERSION).put(kind).flip();
+    writeFully(header);
+  }
+
+  /**
+   * Starts a new record.
+   */
+  public void beginRecord() {
+    record.clear();
+  }
+
+  /**
+   * Appends a byte to the current record.
+   *
+   * @param value the value to write
+   */
+  public void putByte(byte value) {
+    ensureRecordCapacity(Byte.BYTES);
+    record.put(value);
+  }
+
+  /**
+   * Appends an int to the current record.
+   *
+   * @param value the value to write
+   */
+  public void putInt(int value) {
+    ensureRecordCapacity(Integer.BYTES);
+    record.putInt(value);
+  }
+
+  /**
+   * Appends a long to the current record.
+   *
+   * @param value the value to write
+   */
+  public void putLong(long value) {
+    ensureRecordCapacity(Long.BYTES);
+    record.putLong(value);
+  }
+
+  /**
+   * Appends a double to the current record.
+   *
+   * @param value the value to write
+   */
+  public void putDouble(double value) {
+    ensureRecordCapacity(Double.BYTES);
+    record.putDouble(value);
+  }
+
+  /**
+   * Appends a string to the current record as its UTF-8 length and bytes.
+   *
+   * @param value the value to write, or {@code null}
+   */
+  public void putString(String value) {
+    if (value == null) {
+      putInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    putInt(bytes.length);
+    ensureRecordCapacity(bytes.length);
+    record.put(bytes);
+  }
+
+  /**
+   * Appends a ticker to the current record as its dictionary ID.
+   *
+   * @param ticker the ticker to write, or {@code null}
+   */
+  public void putTicker(String ticker) {
+    if (ticker == null) {
+      putInt(-1);
+      return;
+    }
+    Integer id = tickerIds.get(ticker);
+    if (id == null) {
+      id = tickerIds.size();
+      tickerIds.put(ticker, id);
+      pendingTickers.add(ticker);
+    }
+    putInt(id);
+  }
+
+  /**
+   * Completes the current record and adds it to the current block.
+   *
+   * @return the position of the record's bytes in the file, after its length prefix
+   * @throws IOException if a full block cannot be written
+   */
+  public long endRecord() throws IOException {
+    record.flip();
+    recordLength = record.remaining();
+    if (!pendingTickers.isEmpty()) {
+      // The dictionary must precede the block holding the first record that uses it
+      flushBlock();
+      writeDictionary();
+    } else if (block.position() + Integer.BYTES + recordLength > BLOCK_SIZE) {
+      flushBlock();
+    }
+    if (block.remaining() < Integer.BYTES + recordLength) {
+      block = ByteBuffer.allocate(Integer.BYTES + recordLength);
+    }
+    long recordPosition = position + BLOCK_HEADER_SIZE + block.position() + Integer.BYTES;
+    block.putInt(recordLength);
+    block.put(record);
+    return recordPosition;
+  }
+
+  /**
+   * Gets the length of the last completed record.
+   *
+   * @return the length in bytes, without the length prefix
+   */
+  public int recordLength() {
+    return recordLength;
+  }
+
+  /**
+   * Writes the last block, the index and the end marker, and forces the file to disk.
+   *
+   * @throws IOException if the snapshot cannot be completed
+   */
+  public void finish() throws IOException {
+    finish(ByteBuffer.allocate(0));
+  }
+
+  /**
+   * Writes the last block, the index with the given application index and the end
+   * marker, and forces the file to disk.
+   *
+   * @param applicationIndex the bytes returned by {@link MappedSnapshot#index()}
+   * @throws IOException if the snapshot cannot be completed
+   */
+  public void finish(ByteBuffer applicationIndex) throws IOException {
+    flushBlock();
+    String[] dictionary = new String[tickerIds.size()];
+    int size = Integer.BYTES + blockCount * (Long.BYTES + 2 * Integer.BYTES) + Integer.BYTES;
+    List<byte[]> encoded = new ArrayList<>(dictionary.length);
+    tickerIds.forEach((ticker, id) -> dictionary[id] = ticker);
+    for (String ticker : dictionary) {
+      byte[] bytes = ticker.getBytes(StandardCharsets.UTF_8);
+      encoded.add(bytes);
+      size += Integer.BYTES + bytes.length;
+    }
+    ByteBuffer index = ByteBuffer.allocate(size + applicationIndex.remaining());
+    index.putInt(blockCount);
+    for (int i = 0; i < blockCount; i++) {
+      index.putLong(blockPositions[i]).putInt(blockLengths[i]).putInt(blockChecksums[i]);
+    }
+    index.putInt(encoded.size());
+    for (byte[] bytes : encoded) {
+      index.putInt(bytes.length).put(bytes);
+    }
+    index.put(applicationIndex).flip();
+    long indexPosition = position;
+    writeBlock(BLOCK_INDEX, index);
+    ByteBuffer end = ByteBuffer.allocate(Long.BYTES);
+    end.putLong(indexPosition).flip();
+    writeBlock(BLOCK_END, end);
+    channel.force(true);
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private void ensureRecordCapacity(int bytes) {
+    if (record.remaining() < bytes) {
+      ByteBuffer larger = ByteBuffer.allocate(Math.max(record.capacity() * 2, record.position() + bytes));
+      record.flip();
+      larger.put(record);
+      record = larger;
+    }
+  }
+
+  private void writeDictionary() throws IOException {
+    int size = Integer.BYTES;
+    List<byte[]> encoded = new ArrayList<>(pendingTickers.size());
+    for (String ticker : pendingTickers) {
+      byte[] bytes = ticker.getBytes(StandardCharsets.UTF_8);
+      encoded.add(bytes);
+      size += Integer.BYTES + bytes.length;
+    }
+    ByteBuffer payload = ByteBuffer.allocate(size);
+    payload.putInt(encoded.size());
+    for (byte[] bytes : encoded) {
+      payload.putInt(bytes.length).put(bytes);
+    }
+    pendingTickers.clear();
+    payload.flip();
+    writeBlock(BLOCK_DICTIONARY, payload);
+  }
+
+  private void flushBlock() throws IOException {
+    if (block.position() == 0) {
+      return;
+    }
+    block.flip();
+    if (blockCount == blockPositions.length) {
+      blockPositions = Arrays.copyOf(blockPositions, blockCount * 2);
+      blockLengths = Arrays.copyOf(blockLengths, blockCount * 2);
+      blockChecksums = Arrays.copyOf(blockChecksums, blockCount * 2);
+    }
+    blockPositions[blockCount] = position;
+    blockLengths[blockCount] = block.remaining();
+    blockChecksums[blockCount] = writeBlock(BLOCK_RECORDS, block);
+    blockCount++;
+    if (block.capacity() > BLOCK_SIZE) {
+      block = ByteBuffer.allocate(BLOCK_SIZE);
+    } else {
+      block.clear();
+    }
+  }
+
+  private int writeBlock(byte type, ByteBuffer payload) throws IOException {
+    crc.reset();
+    crc.update(payload.duplicate());
+    int checksum = (int) crc.getValue();
+    ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+    header.put(type).putInt(payload.remaining()).putInt(checksum).flip();
+    writeFully(header);
+    writeFully(payload);
+    return checksum;
+  }
+
+  private void writeFully(ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer);
+    }
+  }
+}
@@ -0,0 +1,214 @@
+package ve.edu.ucab.infrastructure.datasource;
+
+// Java I/O and utility imports
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.zip.CRC32C;
+
+/**
+ * A snapshot written by {@link BinarySnapshotWriter}, opened through a read-only
+ * {@link MappedByteBuffer}. Opening only reads the header and the index block, so it
+ * takes the same time whatever the size of the file, and the pages of the mapping are
+ * shared through the OS page cache by every process that maps the same file.
+ *
+ * <p>The checksum of a record block is verified the first time one of its records is
+ * read, instead of when the file is opened, unless {@link #verifyAll()} checked every
+ * block up front.
+ */
+public class MappedSnapshot {
+
+  /**
+   * The mapping of the whole file.
+   */
+  private final ByteBuffer mapping;
+
+  /**
+   * The position of the header of every record block, in ascending order.
+   */
+  private final long[] blockPositions;
+
+  /**
+   * The payload length of every record block.
+   */
+  private final int[] blockLengths;
+
+  /**
+   * The checksum of every record block.
+   */
+  private final int[] blockChecksums;
+
+  /**
+   * The record blocks whose checksum was already verified.
+   */
+  private final BitSet verifiedBlocks;
+
+  /**
+   * The ticker of every dictionary ID.
+   */
+  private final String[] tickers;
+
+  /**
+   * The application-defined part of the index block.
+   */
+  private final ByteBuffer index;
+
+  private MappedSnapshot(ByteBuffer mapping, ByteBuffer directory) {
+    this.mapping = mapping;
+    int blocks = directory.getInt();
+    blockPositions = new long[blocks];
+    blockLengths = new int[blocks];
+    blockChecksums = new int[blocks];
+    for (int i = 0; i < blocks; i++) {
+      blockPositions[i] = directory.getLong();
+      blockLengths[i] = directory.getInt();
+      blockChecksums[i] = directory.getInt();
+    }
+    verifiedBlocks = new BitSet(blocks);
+    tickers = new String[directory.getInt()];
+    for (int i = 0; i < tickers.length; i++) {
+      tickers[i] = BinarySnapshotReader.getString(directory);
+    }
+    index = directory.slice().asReadOnlyBuffer();
+  }
+
+  /**
+   * Maps a snapshot and reads its index block.
+   *
+   * @param path the file to map
+   * @param kind the kind byte the snapshot must have
+   * @return the mapped snapshot
+   * @throws IOException if the file cannot be mapped, is larger than a single mapping
+   *                     or has no valid index block
+   */
+  public static MappedSnapshot open(Path path, byte kind) throws IOException {
+    ByteBuffer mapping;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("Snapshot is too large to be mapped: " + path);
+      }
+      if (size < BinarySnapshotWriter.HEADER_SIZE + BinarySnapshotWriter.END_BLOCK_SIZE) {
+        throw new IOException("Snapshot is incomplete: " + path);
+      }
+      // La proyección sigue siendo válida después de cerrar el canal
+      mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).asReadOnlyBuffer();
+    }
+    if (mapping.getInt(0) != BinarySnapshotWriter.MAGIC
+        || mapping.getShort(Integer.BYTES) != BinarySnapshotWriter.VERSION
+        || mapping.get(Integer.BYTES + Short.BYTES) != kind) {
+      throw new IOException("Not a binary snapshot of kind " + kind + ": " + path);
+    }
+    ByteBuffer end = payload(mapping, mapping.limit() - BinarySnapshotWriter.END_BLOCK_SIZE,
+        BinarySnapshotWriter.BLOCK_END);
+    if (end.remaining() != Long.BYTES) {
+      throw new IOException("Snapshot has no index: " + path);
+    }
+    long indexPosition = end.getLong();
+    if (indexPosition < BinarySnapshotWriter.HEADER_SIZE || indexPosition >= mapping.limit()) {
+      throw new IOException("Snapshot has no index: " + path);
+    }
+    return new MappedSnapshot(mapping, payload(mapping, (int) indexPosition, BinarySnapshotWriter.BLOCK_INDEX));
+  }
+
+  /**
+   * Reads and verifies the payload of a block.
+   *
+   * @param mapping  the mapping of the file
+   * @param position the position of the block header
+   * @param type     the expected block type
+   * @return the payload
+   * @throws IOException if the block is not of that type or its checksum does not match
+   */
+  private static ByteBuffer payload(ByteBuffer mapping, int position, byte type) throws IOException {
+    if (mapping.get(position) != type) {
+      throw new IOException("Unexpected block type at " + position + ".");
+    }
+    int length = mapping.getInt(position + Byte.BYTES);
+    int checksum = mapping.getInt(position + Byte.BYTES + Integer.BYTES);
+    int start = position + BinarySnapshotWriter.BLOCK_HEADER_SIZE;
+    if (length < 0 || start + length > mapping.limit()) {
+      throw new IOException("Block at " + position + " is truncated.");
+    }
+    ByteBuffer payload = mapping.slice(start, length);
+    CRC32C crc = new CRC32C();
+    crc.update(payload.duplicate());
+    if ((int) crc.getValue() != checksum) {
+      throw new IOException("Checksum mismatch in block at " + position + ".");
+    }
+    return payload;
+  }
+
+  /**
+   * Gets the application-defined index stored with the snapshot.
+   *
+   * @return a read-only view of the index, positioned at its start
+   */
+  public ByteBuffer index() {
+    return index.duplicate();
+  }
+
+  /**
+   * Gets the bytes of a record, verifying the checksum of its block on first use.
+   *
+   * @param position the position of the record's bytes
+   * @param length   the length of the record
+   * @return a read-only view of the record
+   * @throws IOException if the record is outside every block or its block is damaged
+   */
+  public ByteBuffer record(long position, int length) throws IOException {
+    int block = Arrays.binarySearch(blockPositions, position);
+    block = block >= 0 ? block : -block - 2;
+    if (block < 0 || position + length > blockPositions[block] + BinarySnapshotWriter.BLOCK_HEADER_SIZE
+        + blockLengths[block]) {
+      throw new IOException("Record at " + position + " is outside the snapshot blocks.");
+    }
+    verify(block);
+    return mapping.slice((int) position, length);
+  }
+
+  /**
+   * Verifies the checksum of every record block, so a damaged file is found before
+   * any of its records is used rather than when a damaged record is first read.
+   *
+   * @throws IOException if a block is damaged
+   */
+  public void verifyAll() throws IOException {
+    for (int block = 0; block < blockPositions.length; block++) {
+      verify(block);
+    }
+  }
+
+  private void verify(int block) throws IOException {
+    synchronized (verifiedBlocks) {
+      if (verifiedBlocks.get(block)) {
+        return;
+      }
+    }
+    CRC32C crc = new CRC32C();
+    crc.update(mapping.slice((int) blockPositions[block] + BinarySnapshotWriter.BLOCK_HEADER_SIZE,
+        blockLengths[block]));
+    if ((int) crc.getValue() != blockChecksums[block]) {
+      throw new IOException("Checksum mismatch in block at " + blockPositions[block] + ".");
+    }
+    synchronized (verifiedBlocks) {
+      verifiedBlocks.set(block);
+    }
+  }
+
+  /**
+   * Resolves a ticker ID read from a record.
+   *
+   * @param record the record positioned at a ticker ID
+   * @return the ticker, or {@code null} if none was written
+   */
+  public String getTicker(ByteBuffer record) {
+    int id = record.getInt();
+    return id >= 0 ? tickers[id] : null;
+  }
+}
@@ -0,0 +1,234 @@
+package ve.edu.ucab.infrastructure.datasource;
+
+// Java I/O and utility imports
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Crash-safe replacement of snapshot files. A new generation is written to
+ * {@link #temp(Path)}, forced to disk and then renamed over the target, while the
+ * generation it replaces is kept as {@link #previous(Path)} for rollback. A crash at
+ * any point leaves either the new or the previous generation intact.
+ *
+ * <p>Formats without checksums of their own, such as JSON, can also store the
+ * length and CRC-32C of each generation in a sidecar file ({@link #checksumFile}),
+ * so a torn or damaged file is detected when it is loaded.
+ */
+public final class SnapshotFiles {
+
+  /**
+   * The length and CRC-32C of a snapshot file.
+   *
+   * @param length the length of the file, in bytes
+   * @param value  the CRC-32C of its contents
+   */
+  public record Checksum(long length, int value) {
+  }
+
+  private SnapshotFiles() {
+  }
+
+  /**
+   * Gets the temporary file a new generation of the target is written to. It lives
+   * in the same directory, so it can be renamed over the target atomically.
+   *
+   * @param target the snapshot file
+   * @return the temporary file
+   */
+  public static Path temp(Path target) {
+    return target.resolveSibling(target.getFileName() + ".tmp");
+  }
+
+  /**
+   * Gets the file holding the generation replaced by the last commit.
+   *
+   * @param target the snapshot file
+   * @return the previous generation
+   */
+  public static Path previous(Path target) {
+    return target.resolveSibling(target.getFileName() + ".prev");
+  }
+
+  /**
+   * Gets the sidecar file holding the checksum of a generation.
+   *
+   * @param file the snapshot file or its previous generation
+   * @return the checksum file
+   */
+  public static Path checksumFile(Path file) {
+    return file.resolveSibling(file.getFileName() + ".crc");
+  }
+
+  /**
+   * Forces a fully written temporary file to disk and makes it the current generation
+   * of the target, keeping the current one as the previous generation.
+   *
+   * @param temp     the new generation, normally {@link #temp(Path)}
+   * @param target   the snapshot file
+   * @param checksum the checksum of the new generation, or {@code null} if the format
+   *                 verifies itself
+   * @throws IOException if the new generation cannot be committed; the target is
+   *                     then left untouched
+   */
+  public static void commit(Path temp, Path target, Checksum checksum) throws IOException {
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+      channel.force(true);
+    }
+    Path checksumTemp = temp(checksumFile(target));
+    if (checksum != null) {
+      Files.writeString(checksumTemp, checksum.length() + " " + Integer.toHexString(checksum.value()) + "\n",
+          StandardCharsets.US_ASCII);
+      try (FileChannel channel = FileChannel.open(checksumTemp, StandardOpenOption.WRITE)) {
+        channel.force(true);
+      }
+    }
+    Path previous = previous(target);
+    if (Files.exists(target)) {
+      Files.deleteIfExists(checksumFile(previous));
+      Files.move(target, previous, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      if (Files.exists(checksumFile(target))) {
+        Files.move(checksumFile(target), checksumFile(previous), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      }
+    }
+    if (checksum != null) {
+      Files.move(checksumTemp, checksumFile(target), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    }
+    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    forceDirectory(target);
+  }
+
+  /**
+   * Makes the renames in the target's directory durable. Not every platform can open
+   * a directory, so failures are ignored.
+   *
+   * @param target a file in the directory
+   */
+  private static void forceDirectory(Path target) {
+    Path directory = target.toAbsolutePath().getParent();
+    try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (IOException e) {
+      // Windows no permite abrir directorios; el renombrado ya es atómico
+    }
+  }
+
+  /**
+   * Computes the checksum of a file.
+   *
+   * @param file the file to read
+   * @return its length and CRC-32C
+   * @throws IOException if the file cannot be read
+   */
+  public static Checksum checksum(Path file) throws IOException {
+    CRC32C crc = new CRC32C();
+    long length = 0;
+    byte[] chunk = new byte[1 << 16];
+    try (InputStream in = Files.newInputStream(file)) {
+      int read;
+      while ((read = in.read(chunk)) > 0) {
+        crc.update(chunk, 0, read);
+        length += read;
+      }
+    }
+    return new Checksum(length, (int) crc.getValue());
+  }
+
+  /**
+   * Computes the checksum of the contents of a file already read into memory.
+   *
+   * @param contents the contents
+   * @return their length and CRC-32C
+   */
+  public static Checksum checksum(byte[] contents) {
+    CRC32C crc = new CRC32C();
+    crc.update(contents, 0, contents.length);
+    return new Checksum(contents.length, (int) crc.getValue());
+  }
+
+  /**
+   * Stores the checksum of a file that was replaced outside of {@link #commit}, such
+   * as a catalog edited by hand, so it is not taken for a damaged file.
+   *
+   * @param file     the snapshot file
+   * @param checksum its checksum
+   * @throws IOException if the checksum file cannot be written
+   */
+  public static void writeChecksum(Path file, Checksum checksum) throws IOException {
+    Path checksumTemp = temp(checksumFile(file));
+    Files.writeString(checksumTemp, checksum.length() + " " + Integer.toHexString(checksum.value()) + "\n",
+        StandardCharsets.US_ASCII);
+    Files.move(checksumTemp, checksumFile(file), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Reads the checksum stored for a generation.
+   *
+   * @param file the snapshot file or its previous generation
+   * @return the stored checksum, or {@code null} if none was stored
+   * @throws IOException if the checksum file exists but cannot be read
+   */
+  public static Checksum readChecksum(Path file) throws IOException {
+    Path checksumFile = checksumFile(file);
+    if (!Files.isRegularFile(checksumFile)) {
+      return null;
+    }
+    String[] fields = Files.readString(checksumFile, StandardCharsets.US_ASCII).trim().split(" ");
+    try {
+      return new Checksum(Long.parseLong(fields[0]), Integer.parseUnsignedInt(fields[1], 16));
+    } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+      throw new IOException("Invalid checksum file: " + checksumFile, e);
+    }
+  }
+
+  /**
+   * Checks a file against its stored checksum.
+   *
+   * @param file the snapshot file or its previous generation
+   * @throws IOException if the file is missing, cannot be read or does not match its
+   *                     stored checksum
+   */
+  public static void verify(Path file) throws IOException {
+    Checksum expected = readChecksum(file);
+    if (expected != null && !expected.equals(checksum(file))) {
+      throw new IOException("Checksum mismatch: " + file + " is damaged or incomplete.");
+    }
+  }
+
+  /**
+   * Replaces a missing or damaged snapshot file with its previous generation.
+   *
+   * @param target the snapshot file
+   * @return {@code true} if a previous generation was restored, {@code false} if
+   *         there is none
+   * @throws IOException if the previous generation cannot be copied
+   */
+  public static boolean restorePrevious(Path target) throws IOException {
+    Path previous = previous(target);
+    if (!Files.isRegularFile(previous)) {
+      return false;
+    }
+    Path temp = temp(target);
+    Files.copy(previous, temp, StandardCopyOption.REPLACE_EXISTING);
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+      channel.force(true);
+    }
+    if (Files.isRegularFile(checksumFile(previous))) {
+      Files.copy(checksumFile(previous), checksumFile(target), StandardCopyOption.REPLACE_EXISTING);
+    } else {
+      Files.deleteIfExists(checksumFile(target));
+    }
+    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    forceDirectory(target);
+    return true;
+  }
+}
@@ -0,0 +1,218 @@
+package ve.edu.ucab.infrastructure.datasource;
+
+// Java I/O and utility imports
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A compact, append-only recording of price ticks, used to replay exactly the same
+ * market path in several runs. The file is a header followed by one record per tick:
+ *
+ * <pre>
+ * header: int magic, short version, int ticker count, UTF ticker per ticker ID
+ * tick:   varint time delta (ms), then per ticker a varint price delta (cents)
+ * </pre>
+ *
+ * <p>Deltas are taken from the previous tick (zero before the first one) and
+ * zigzag-encoded, so a catalog whose prices move a few cents per tick costs about
+ * one or two bytes per price. Prices are stored in whole cents, the precision the
+ * simulation rounds to. A tick cut short by a crash ends the recording.
+ */
+public final class TickFile {
+
+  /**
+   * The magic number at the start of every tick file ("KTF1").
+   */
+  public static final int MAGIC = 0x4B544631;
+
+  /**
+   * The current version of the tick file layout.
+   */
+  public static final short VERSION = 1;
+
+  private TickFile() {
+  }
+
+  /**
+   * Appends ticks to a new tick file.
+   */
+  public static final class Writer implements Closeable {
+
+    private final DataOutputStream out;
+    private final long[] lastCents;
+    private long lastTimestamp;
+
+    /**
+     * Creates a tick file, replacing any file at the path.
+     *
+     * @param path    the tick file
+     * @param tickers the ticker of each ticker ID
+     * @throws IOException if the file cannot be created
+     */
+    public Writer(Path path, String[] tickers) throws IOException {
+      out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 64 * 1024));
+      out.writeInt(MAGIC);
+      out.writeShort(VERSION);
+      out.writeInt(tickers.length);
+      for (String ticker : tickers) {
+        out.writeUTF(ticker);
+      }
+      lastCents = new long[tickers.length];
+    }
+
+    /**
+     * Appends a tick.
+     *
+     * @param timestamp the time of the tick, in milliseconds since the epoch
+     * @param prices    the price of each ticker ID
+     * @throws IOException if the tick cannot be written
+     */
+    public void write(long timestamp, double[] prices) throws IOException {
+      if (prices.length != lastCents.length) {
+        throw new IllegalArgumentException(
+            "Expected " + lastCents.length + " prices but got " + prices.length + ".");
+      }
+      writeVarLong(out, timestamp - lastTimestamp);
+      lastTimestamp = timestamp;
+      for (int i = 0; i < prices.length; i++) {
+        long cents = Math.round(prices[i] * 100.0);
+        writeVarLong(out, cents - lastCents[i]);
+        lastCents[i] = cents;
+      }
+    }
+
+    /**
+     * Pushes the buffered ticks to the file.
+     *
+     * @throws IOException if the ticks cannot be written
+     */
+    public void flush() throws IOException {
+      out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.close();
+    }
+  }
+
+  /**
+   * Reads the ticks of a tick file in order. The price array is reused between
+   * ticks, so reading allocates nothing per tick.
+   */
+  public static final class Reader implements Closeable {
+
+    private final DataInputStream in;
+    private final String[] tickers;
+    private final long[] cents;
+    private final double[] prices;
+    private long timestamp;
+
+    /**
+     * Opens a tick file.
+     *
+     * @param path the tick file
+     * @throws IOException if the file cannot be read or is not a tick file
+     */
+    public Reader(Path path) throws IOException {
+      in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024));
+      try {
+        if (in.readInt() != MAGIC) {
+          throw new IOException("Not a tick file: " + path);
+        }
+        short version = in.readShort();
+        if (version != VERSION) {
+          throw new IOException("Unsupported tick file version " + version + ": " + path);
+        }
+        tickers = new String[in.readInt()];
+        for (int i = 0; i < tickers.length; i++) {
+          tickers[i] = in.readUTF();
+        }
+      } catch (IOException e) {
+        in.close();
+        throw e;
+      }
+      cents = new long[tickers.length];
+      prices = new double[tickers.length];
+    }
+
+    /**
+     * Gets the recorded tickers.
+     *
+     * @return the ticker of each ticker ID of the recording
+     */
+    public String[] getTickers() {
+      return tickers.clone();
+    }
+
+    /**
+     * Reads the next tick into {@link #getTimestamp()} and {@link #getPrices()}.
+     *
+     * @return {@code false} at the end of the recording
+     * @throws IOException if the file cannot be read
+     */
+    public boolean next() throws IOException {
+      try {
+        timestamp += readVarLong(in);
+        for (int i = 0; i < cents.length; i++) {
+          cents[i] += readVarLong(in);
+          prices[i] = cents[i] / 100.0;
+        }
+        return true;
+      } catch (EOFException e) {
+        return false;
+      }
+    }
+
+    /**
+     * Gets the time of the current tick.
+     *
+     * @return the time in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+      return timestamp;
+    }
+
+    /**
+     * Gets the prices of the current tick. The array is overwritten by {@link #next()}.
+     *
+     * @return the price of each ticker ID of the recording
+     */
+    public double[] getPrices() {
+      return prices;
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+
+  private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+    long zigzag = (value << 1) ^ (value >> 63);
+    while ((zigzag & ~0x7FL) != 0) {
+      out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+      zigzag >>>= 7;
+    }
+    out.writeByte((int) zigzag);
+  }
+
+  private static long readVarLong(DataInputStream in) throws IOException {
+    long zigzag = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.readUnsignedByte();
+      zigzag |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+      }
+    }
+    throw new IOException("Malformed tick file: varint too long");
+  }
+}
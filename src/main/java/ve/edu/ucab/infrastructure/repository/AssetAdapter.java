@@ -0,0 +1,61 @@
+package ve.edu.ucab.infrastructure.repository;
+
+// Gson-related imports for JSON processing
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+// Domain model imports
+import ve.edu.ucab.domain.model.Asset;
+
+// Java I/O imports
+import java.io.IOException;
+
+/**
+ * A streaming Gson adapter for {@link Asset} lots. Reads and writes the same layout
+ * as Gson's reflective adapter ({@code ticker}, {@code amount}, {@code purchasePrice})
+ * without reflection, so a single instance can be reused for every lot in the file.
+ */
+class AssetAdapter extends TypeAdapter<Asset> {
+
+  @Override
+  public void write(JsonWriter out, Asset value) throws IOException {
+    if (value == null) {
+      out.nullValue();
+      return;
+    }
+    out.beginObject();
+    out.name("ticker").value(value.getTicker());
+    out.name("amount").value(value.getAmount());
+    out.name("purchasePrice").value(value.getPurchasePrice());
+    out.endObject();
+  }
+
+  @Override
+  public Asset read(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    String ticker = null;
+    double amount = 0;
+    double purchasePrice = 0;
+    in.beginObject();
+    while (in.hasNext()) {
+      String name = in.nextName();
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        continue;
+      }
+      switch (name) {
+        case "ticker" -> ticker = in.nextString();
+        case "amount" -> amount = in.nextDouble();
+        case "purchasePrice" -> purchasePrice = in.nextDouble();
+        default -> in.skipValue();
+      }
+    }
+    in.endObject();
+    return Asset.createNewAsset(ticker, amount, purchasePrice);
+  }
+}
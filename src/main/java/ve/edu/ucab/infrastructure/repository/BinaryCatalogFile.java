@@ -0,0 +1,83 @@
+package ve.edu.ucab.infrastructure.repository;
+
+// Domain model imports
+import ve.edu.ucab.domain.model.AssetsType;
+import ve.edu.ucab.domain.model.CatalogAsset;
+import ve.edu.ucab.infrastructure.datasource.BinarySnapshotReader;
+import ve.edu.ucab.infrastructure.datasource.BinarySnapshotWriter;
+import ve.edu.ucab.infrastructure.datasource.SnapshotFiles;
+
+// Java I/O and utility imports
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The asset catalog in the binary format of {@link BinarySnapshotWriter}, with one
+ * record per asset: string name, string ticker, byte asset type, double basePrice,
+ * double volatility and double currentPrice.
+ */
+public final class BinaryCatalogFile {
+
+  /**
+   * The kind byte of a catalog snapshot.
+   */
+  static final byte KIND = 'C';
+
+  private BinaryCatalogFile() {
+  }
+
+  /**
+   * Reads a catalog, verifying the checksum of every block.
+   *
+   * @param path the catalog file
+   * @return the assets in file order
+   * @throws IOException if the file cannot be read or is damaged
+   */
+  public static List<CatalogAsset> read(Path path) throws IOException {
+    List<CatalogAsset> assets = new ArrayList<>();
+    AssetsType[] assetTypes = AssetsType.values();
+    try (BinarySnapshotReader reader = new BinarySnapshotReader(path, KIND)) {
+      reader.scan((position, record) -> {
+        String assetName = BinarySnapshotReader.getString(record);
+        String ticker = BinarySnapshotReader.getString(record);
+        byte assetType = record.get();
+        double basePrice = record.getDouble();
+        double volatility = record.getDouble();
+        CatalogAsset asset = new CatalogAsset(assetName, ticker, assetType >= 0 ? assetTypes[assetType] : null,
+            basePrice, volatility);
+        asset.setCurrentPrice(record.getDouble());
+        assets.add(asset);
+      });
+    }
+    return assets;
+  }
+
+  /**
+   * Writes a catalog to a temporary file that then replaces the given one, keeping
+   * the replaced generation for rollback.
+   *
+   * @param path   the catalog file
+   * @param assets the assets to write
+   * @throws IOException if the catalog cannot be written
+   */
+  public static void write(Path path, List<CatalogAsset> assets) throws IOException {
+    Path temp = SnapshotFiles.temp(path);
+    try (BinarySnapshotWriter writer = new BinarySnapshotWriter(temp, KIND)) {
+      for (CatalogAsset asset : assets) {
+        writer.beginRecord();
+        writer.putString(asset.getAssetName());
+        // Los tickers del catálogo son únicos, así que no pasan por el diccionario
+        writer.putString(asset.getTicker());
+        writer.putByte(asset.getAssetType() != null ? (byte) asset.getAssetType().ordinal() : -1);
+        writer.putDouble(asset.getBasePrice());
+        writer.putDouble(asset.getVolatility());
+        writer.putDouble(asset.getCurrentPrice());
+        writer.endRecord();
+      }
+      writer.finish();
+    }
+    SnapshotFiles.commit(temp, path, null);
+  }
+}
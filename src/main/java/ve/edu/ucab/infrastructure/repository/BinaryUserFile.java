@@ -0,0 +1,545 @@
+package ve.edu.ucab.infrastructure.repository;
+
+// Domain model imports
+import ve.edu.ucab.domain.model.Asset;
+import ve.edu.ucab.domain.model.AssetsType;
+import ve.edu.ucab.domain.model.Money;
+import ve.edu.ucab.domain.model.Quantity;
+import ve.edu.ucab.domain.model.Transaction;
+import ve.edu.ucab.domain.model.TransactionLog;
+import ve.edu.ucab.domain.model.TransactionType;
+import ve.edu.ucab.domain.model.User;
+import ve.edu.ucab.domain.model.UserDetailsLoader;
+import ve.edu.ucab.infrastructure.datasource.BinarySnapshotReader;
+import ve.edu.ucab.infrastructure.datasource.BinarySnapshotWriter;
+import ve.edu.ucab.infrastructure.datasource.MappedSnapshot;
+import ve.edu.ucab.infrastructure.datasource.SnapshotFiles;
+
+// Java I/O and utility imports
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The users snapshot in the binary format of {@link BinarySnapshotWriter}, with one
+ * record per user:
+ *
+ * <pre>
+ * int id, string username, string password, double balance, long journalSeq,
+ * int lot count, then per lot: ticker, double amount, double purchasePrice,
+ * int transaction count, then per transaction: long epoch day, byte type,
+ * byte asset type, ticker, double amount, double purchasePrice,
+ * then per transaction: long price version
+ * </pre>
+ *
+ * <p>The price versions trail the fixed-size transaction entries, so records written
+ * before they existed are read with every version set to 0.
+ *
+ * <p>Tickers are stored as IDs of the snapshot's ticker dictionary, and missing dates
+ * and enums as {@link Long#MIN_VALUE} and -1. Like {@link UserFile}, loading only
+ * keeps each user's header and the location of the record.
+ *
+ * <p>The snapshot's index region holds every record's location sorted by user ID,
+ * followed by an open-addressing hash table of usernames:
+ *
+ * <pre>
+ * long highest journal sequence number of the snapshot
+ * int count, then per user: int id, int length, long position
+ * int table size, then per slot: int entry + 1, or 0 if the slot is empty
+ * </pre>
+ *
+ * <p>{@link #openMapped()} uses that region to look users up in a memory-mapped file
+ * without loading them, as an alternative to {@link #load}.
+ */
+class BinaryUserFile implements UserStore {
+
+  /**
+   * The kind byte of a users snapshot.
+   */
+  static final byte KIND = 'U';
+
+  /**
+   * Marks a missing date.
+   */
+  private static final long NO_DATE = Long.MIN_VALUE;
+
+  /**
+   * Marks a missing enum value.
+   */
+  private static final byte NO_ENUM = -1;
+
+  /**
+   * The size of each transaction entry, without its price version.
+   */
+  private static final int TRANSACTION_SIZE = Long.BYTES + 2 * Byte.BYTES + Integer.BYTES + 2 * Double.BYTES;
+
+  /**
+   * The size of the fields before the ID index region.
+   */
+  private static final int REGION_HEADER_SIZE = Long.BYTES + Integer.BYTES;
+
+  /**
+   * The size of each entry of the ID index region.
+   */
+  private static final int ENTRY_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+  /**
+   * The path of the snapshot file.
+   */
+  private final Path path;
+
+  /**
+   * The reader of the current generation, or {@code null} until loaded.
+   */
+  private BinarySnapshotReader reader;
+
+  /**
+   * The location of each user's record in the current generation.
+   */
+  private RecordIndex index = RecordIndex.EMPTY;
+
+  /**
+   * The mapping of the current generation when opened with {@link #openMapped()},
+   * or {@code null}.
+   */
+  private MappedSnapshot mapped;
+
+  /**
+   * The index region of {@link #mapped}.
+   */
+  private ByteBuffer mappedIndex;
+
+  /**
+   * The number of users in {@link #mapped}.
+   */
+  private int mappedCount;
+
+  /**
+   * The highest journal sequence number included in {@link #mapped}.
+   */
+  private long mappedJournalSeq;
+
+  /**
+   * The position and size of the username table in {@link #mappedIndex}.
+   */
+  private int tableStart;
+  private int tableSize;
+
+  /**
+   * Creates a binary users snapshot.
+   *
+   * @param path the path of the snapshot file
+   */
+  BinaryUserFile(Path path) {
+    this.path = path;
+  }
+
+  @Override
+  public boolean exists() {
+    return Files.isRegularFile(path);
+  }
+
+  /**
+   * Verifies the checksum of every block and reads the header of every record.
+   */
+  @Override
+  public synchronized List<User> load(Map<Integer, Long> snapshotSeq) throws IOException {
+    List<User> users = new ArrayList<>();
+    RecordIndex.Builder builder = new RecordIndex.Builder();
+    BinarySnapshotReader opened = new BinarySnapshotReader(path, KIND);
+    try {
+      opened.scan((position, record) -> {
+        int length = record.remaining();
+        int id = record.getInt();
+        String username = BinarySnapshotReader.getString(record);
+        String password = BinarySnapshotReader.getString(record);
+        double balance = record.getDouble();
+        long journalSeq = record.getLong();
+        if (journalSeq > 0) {
+          snapshotSeq.put(id, journalSeq);
+        }
+        users.add(User.createLazyUser(id, username, password, balance, this));
+        builder.add(id, position, length);
+      });
+    } catch (IOException e) {
+      opened.close();
+      throw e;
+    }
+    reader = opened;
+    index = builder.build();
+    return users;
+  }
+
+  @Override
+  public synchronized void loadDetails(int userId, List<Asset> portfolio, List<Transaction> transactionHistory) {
+    if (mapped != null) {
+      loadMappedDetails(userId, portfolio, transactionHistory);
+      return;
+    }
+    int entry = index.find(userId);
+    if (entry < 0) {
+      return;
+    }
+    try {
+      ByteBuffer record = reader.read(index.offset(entry), index.length(entry));
+      skipHeader(record);
+      readDetails(reader::getTicker, record, portfolio, transactionHistory);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error reading the data of user " + userId + ": " + e.getMessage(), e);
+    }
+  }
+
+  // Saltar la cabecera ya cargada
+  private static void skipHeader(ByteBuffer record) {
+    record.getInt();
+    BinarySnapshotReader.getString(record);
+    BinarySnapshotReader.getString(record);
+    record.getDouble();
+    record.getLong();
+  }
+
+  private static void readDetails(Function<ByteBuffer, String> tickers, ByteBuffer record, List<Asset> portfolio,
+      List<Transaction> transactionHistory) {
+    int lots = record.getInt();
+    for (int i = 0; i < lots; i++) {
+      String ticker = tickers.apply(record);
+      double amount = record.getDouble();
+      double purchasePrice = record.getDouble();
+      portfolio.add(Asset.createNewAsset(ticker, amount, purchasePrice));
+    }
+    TransactionType[] transactionTypes = TransactionType.values();
+    AssetsType[] assetTypes = AssetsType.values();
+    int transactions = record.getInt();
+    int versionsStart = record.position() + transactions * TRANSACTION_SIZE;
+    boolean hasVersions = record.limit() - versionsStart >= transactions * Long.BYTES;
+    // Un historial columnar recibe las columnas directamente, sin una transacción por entrada
+    TransactionLog log = transactionHistory instanceof TransactionLog ? (TransactionLog) transactionHistory : null;
+    for (int i = 0; i < transactions; i++) {
+      long epochDay = record.getLong();
+      byte type = record.get();
+      byte assetType = record.get();
+      String ticker = tickers.apply(record);
+      double amount = record.getDouble();
+      double purchasePrice = record.getDouble();
+      TransactionType transactionType = type != NO_ENUM ? transactionTypes[type] : null;
+      AssetsType asset = assetType != NO_ENUM ? assetTypes[assetType] : null;
+      // Sin fecha se toma la de hoy, como Transaction.createNewTransaction
+      LocalDate date = epochDay != NO_DATE ? LocalDate.ofEpochDay(epochDay) : LocalDate.now();
+      long priceVersion = hasVersions ? record.getLong(versionsStart + i * Long.BYTES) : 0;
+      if (log != null) {
+        log.append(transactionType, Quantity.of(amount), ticker, asset, Money.of(purchasePrice), date, priceVersion);
+      } else {
+        transactionHistory.add(Transaction.createNewTransaction(transactionType, amount, ticker, asset, purchasePrice,
+            date, priceVersion));
+      }
+    }
+  }
+
+  /**
+   * Writes the snapshot to a temporary file, which then replaces the current
+   * generation. The record locations reported by the writer become the new index.
+   */
+  @Override
+  public void write(List<UserSnapshot> snapshot, UserDetailsLoader previous) throws IOException {
+    Path temp = SnapshotFiles.temp(path);
+    RecordIndex.Builder builder = new RecordIndex.Builder();
+    Map<Integer, String> usernames = new HashMap<>();
+    long journalSeq = 0;
+    try (BinarySnapshotWriter writer = new BinarySnapshotWriter(temp, KIND)) {
+      for (UserSnapshot user : snapshot) {
+        usernames.putIfAbsent(user.getId(), user.getUsername());
+        journalSeq = Math.max(journalSeq, user.getJournalSeq());
+        List<Asset> portfolio = user.getPortfolio();
+        List<Transaction> transactionHistory = user.getTransactionHistory();
+        if (portfolio == null) {
+          portfolio = new ArrayList<>();
+          transactionHistory = new TransactionLog();
+          previous.loadDetails(user.getId(), portfolio, transactionHistory);
+        }
+        writer.beginRecord();
+        writer.putInt(user.getId());
+        writer.putString(user.getUsername());
+        writer.putString(user.getPassword());
+        writer.putDouble(user.getBalance());
+        writer.putLong(user.getJournalSeq());
+        writer.putInt(portfolio.size());
+        for (Asset lot : portfolio) {
+          writer.putTicker(lot.getTicker());
+          writer.putDouble(lot.getAmount());
+          writer.putDouble(lot.getPurchasePrice());
+        }
+        writer.putInt(transactionHistory.size());
+        for (Transaction transaction : transactionHistory) {
+          LocalDate date = transaction.getDateRelease();
+          TransactionType type = transaction.getType();
+          String assetType = transaction.getAssetType();
+          writer.putLong(date != null ? date.toEpochDay() : NO_DATE);
+          writer.putByte(type != null ? (byte) type.ordinal() : NO_ENUM);
+          writer.putByte(assetType != null ? (byte) AssetsType.valueOf(assetType).ordinal() : NO_ENUM);
+          writer.putTicker(transaction.getAssetTicker());
+          writer.putDouble(transaction.getAmount());
+          writer.putDouble(transaction.getPurchasePrice());
+        }
+        for (Transaction transaction : transactionHistory) {
+          writer.putLong(transaction.getPriceVersion());
+        }
+        long position = writer.endRecord();
+        builder.add(user.getId(), position, writer.recordLength());
+      }
+      writer.finish(encodeIndex(builder.build(), usernames, journalSeq));
+    }
+    // Verify the new generation and load its dictionary before it replaces the
+    // current one; the open channel keeps following the file after the move
+    BinarySnapshotReader written = new BinarySnapshotReader(temp, KIND);
+    try {
+      written.scan((position, record) -> {
+      });
+    } catch (IOException e) {
+      written.close();
+      throw e;
+    }
+    RecordIndex writtenIndex = builder.build();
+    synchronized (this) {
+      try {
+        SnapshotFiles.commit(temp, path, null);
+      } catch (IOException e) {
+        written.close();
+        throw e;
+      }
+      if (reader != null) {
+        reader.close();
+      }
+      reader = written;
+      index = writtenIndex;
+      if (mapped != null) {
+        reader.close();
+        reader = null;
+        map();
+      }
+    }
+  }
+
+  /**
+   * Encodes the index region: the record locations sorted by ID and a hash table of
+   * usernames with a load factor of at most one half.
+   *
+   * @param index      the location of every record
+   * @param usernames  the username of every user
+   * @param journalSeq the highest journal sequence number of the snapshot
+   * @return the encoded region
+   */
+  private static ByteBuffer encodeIndex(RecordIndex index, Map<Integer, String> usernames, long journalSeq) {
+    int count = index.size();
+    int size = Integer.highestOneBit(Math.max(2, count) * 2 - 1) << 1;
+    int[] table = new int[size];
+    ByteBuffer region = ByteBuffer.allocate(REGION_HEADER_SIZE + count * ENTRY_SIZE + Integer.BYTES
+        + size * Integer.BYTES);
+    region.putLong(journalSeq).putInt(count);
+    for (int entry = 0; entry < count; entry++) {
+      region.putInt(index.id(entry)).putInt(index.length(entry)).putLong(index.offset(entry));
+      String username = usernames.get(index.id(entry));
+      if (username != null) {
+        int slot = hash(username) & (size - 1);
+        while (table[slot] != 0) {
+          slot = (slot + 1) & (size - 1);
+        }
+        table[slot] = entry + 1;
+      }
+    }
+    region.putInt(size);
+    for (int slot : table) {
+      region.putInt(slot);
+    }
+    return region.flip();
+  }
+
+  private static int hash(String username) {
+    int h = username.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Opens the current generation through a memory mapping instead of loading it.
+   * Users are then decoded one at a time by {@link #findMapped} and
+   * {@link #findMappedByUsername}. Every block is verified first, so a damaged file
+   * is rejected here, like {@link #load} does, instead of failing a later lookup.
+   *
+   * @throws IOException if the file cannot be mapped, has no index region or is
+   *                     damaged
+   */
+  synchronized void openMapped() throws IOException {
+    map();
+    try {
+      mapped.verifyAll();
+    } catch (IOException e) {
+      close();
+      throw e;
+    }
+  }
+
+  private void map() throws IOException {
+    MappedSnapshot opened = MappedSnapshot.open(path, KIND);
+    ByteBuffer region = opened.index();
+    int count = region.getInt(Long.BYTES);
+    mapped = opened;
+    mappedIndex = region;
+    mappedCount = count;
+    mappedJournalSeq = region.getLong(0);
+    tableStart = REGION_HEADER_SIZE + count * ENTRY_SIZE + Integer.BYTES;
+    tableSize = region.getInt(tableStart - Integer.BYTES);
+  }
+
+  /**
+   * Gets the number of users in the mapped generation.
+   *
+   * @return the number of users, or 0 if the file is not mapped
+   */
+  synchronized int mappedCount() {
+    return mappedCount;
+  }
+
+  /**
+   * Gets the highest journal sequence number included in the mapped generation.
+   *
+   * @return the sequence number, or 0
+   */
+  synchronized long mappedJournalSeq() {
+    return mappedJournalSeq;
+  }
+
+  /**
+   * Gets the ID of a user in the mapped generation, in ascending ID order.
+   *
+   * @param entry the position of the user, from 0 to {@link #mappedCount()}
+   * @return the user's ID
+   */
+  synchronized int mappedId(int entry) {
+    return mappedIndex.getInt(REGION_HEADER_SIZE + entry * ENTRY_SIZE);
+  }
+
+  /**
+   * Tells whether a user is in the mapped generation, without decoding it.
+   *
+   * @param id the ID of the user
+   * @return {@code true} if the user is in the mapped generation
+   */
+  synchronized boolean mappedContains(int id) {
+    return mappedEntry(id) >= 0;
+  }
+
+  /**
+   * Decodes a user of the mapped generation by ID.
+   *
+   * @param id          the ID of the user
+   * @param snapshotSeq receives the journal sequence number included for the user
+   * @return the lazily loaded user, or {@code null} if there is none
+   */
+  synchronized User findMapped(int id, Map<Integer, Long> snapshotSeq) {
+    int entry = mappedEntry(id);
+    return entry >= 0 ? decodeHeader(entry, snapshotSeq) : null;
+  }
+
+  /**
+   * Decodes a user of the mapped generation by the username stored in the snapshot.
+   *
+   * @param username    the username to look up
+   * @param snapshotSeq receives the journal sequence number included for the user
+   * @return the lazily loaded user, or {@code null} if there is none
+   */
+  synchronized User findMappedByUsername(String username, Map<Integer, Long> snapshotSeq) {
+    if (mapped == null) {
+      return null;
+    }
+    int slot = hash(username) & (tableSize - 1);
+    int entry;
+    while ((entry = mappedIndex.getInt(tableStart + slot * Integer.BYTES)) != 0) {
+      ByteBuffer record = mappedRecord(entry - 1);
+      record.getInt();
+      if (username.equals(BinarySnapshotReader.getString(record))) {
+        return decodeHeader(entry - 1, snapshotSeq);
+      }
+      slot = (slot + 1) & (tableSize - 1);
+    }
+    return null;
+  }
+
+  private int mappedEntry(int id) {
+    if (mapped == null) {
+      return -1;
+    }
+    int low = 0;
+    int high = mappedCount - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int midId = mappedIndex.getInt(REGION_HEADER_SIZE + mid * ENTRY_SIZE);
+      if (midId < id) {
+        low = mid + 1;
+      } else if (midId > id) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  private ByteBuffer mappedRecord(int entry) {
+    int at = REGION_HEADER_SIZE + entry * ENTRY_SIZE;
+    try {
+      return mapped.record(mappedIndex.getLong(at + 2 * Integer.BYTES), mappedIndex.getInt(at + Integer.BYTES));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error reading the users snapshot: " + e.getMessage(), e);
+    }
+  }
+
+  private User decodeHeader(int entry, Map<Integer, Long> snapshotSeq) {
+    ByteBuffer record = mappedRecord(entry);
+    int id = record.getInt();
+    String username = BinarySnapshotReader.getString(record);
+    String password = BinarySnapshotReader.getString(record);
+    double balance = record.getDouble();
+    long journalSeq = record.getLong();
+    if (journalSeq > 0) {
+      snapshotSeq.put(id, journalSeq);
+    }
+    return User.createLazyUser(id, username, password, balance, this);
+  }
+
+  private void loadMappedDetails(int userId, List<Asset> portfolio, List<Transaction> transactionHistory) {
+    int entry = mappedEntry(userId);
+    if (entry >= 0) {
+      ByteBuffer record = mappedRecord(entry);
+      skipHeader(record);
+      readDetails(mapped::getTicker, record, portfolio, transactionHistory);
+    }
+  }
+
+  @Override
+  public boolean restorePrevious() throws IOException {
+    return SnapshotFiles.restorePrevious(path);
+  }
+
+  @Override
+  public synchronized void close() {
+    mapped = null;
+    mappedIndex = null;
+    mappedCount = 0;
+    mappedJournalSeq = 0;
+    try {
+      if (reader != null) {
+        reader.close();
+      }
+    } catch (IOException e) {
+      System.err.println("Error cerrando el archivo de usuarios: " + e.getMessage());
+    }
+    reader = null;
+  }
+}
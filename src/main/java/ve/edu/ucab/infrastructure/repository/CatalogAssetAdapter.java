@@ -0,0 +1,95 @@
+package ve.edu.ucab.infrastructure.repository;
+
+// Gson-related imports for JSON processing
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+// Domain model imports
+import ve.edu.ucab.domain.model.AssetsType;
+import ve.edu.ucab.domain.model.CatalogAsset;
+
+// Java I/O imports
+import java.io.IOException;
+
+/**
+ * A streaming Gson adapter for the entries of {@code data/assets.json}. It writes
+ * the same layout as Gson's reflective adapter and reads every layout the catalog
+ * has had in one pass:
+ * <ul>
+ * <li>{@code price} is the base price of hand-written catalogs, used when there is
+ * no {@code basePrice};</li>
+ * <li>{@code currentPrice} is kept when present and positive, and otherwise starts
+ * at the base price.</li>
+ * </ul>
+ * Unknown fields are skipped and unknown asset types read as {@code null}.
+ */
+public class CatalogAssetAdapter extends TypeAdapter<CatalogAsset> {
+
+  @Override
+  public void write(JsonWriter out, CatalogAsset value) throws IOException {
+    if (value == null) {
+      out.nullValue();
+      return;
+    }
+    out.beginObject();
+    out.name("assetName").value(value.getAssetName());
+    out.name("ticker").value(value.getTicker());
+    out.name("assetType").value(value.getAssetType() != null ? value.getAssetType().name() : null);
+    out.name("basePrice").value(value.getBasePrice());
+    out.name("volatility").value(value.getVolatility());
+    out.name("currentPrice").value(value.getCurrentPrice());
+    out.endObject();
+  }
+
+  @Override
+  public CatalogAsset read(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    String assetName = null;
+    String ticker = null;
+    AssetsType assetType = null;
+    double price = 0;
+    double basePrice = 0;
+    double currentPrice = 0;
+    double volatility = 0;
+    in.beginObject();
+    while (in.hasNext()) {
+      String name = in.nextName();
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        continue;
+      }
+      switch (name) {
+        case "assetName" -> assetName = in.nextString();
+        case "ticker" -> ticker = in.nextString();
+        case "assetType" -> assetType = assetType(in.nextString());
+        case "price" -> price = in.nextDouble();
+        case "basePrice" -> basePrice = in.nextDouble();
+        case "currentPrice" -> currentPrice = in.nextDouble();
+        case "volatility" -> volatility = in.nextDouble();
+        default -> in.skipValue();
+      }
+    }
+    in.endObject();
+    if (basePrice <= 0) {
+      basePrice = price;
+    }
+    CatalogAsset asset = new CatalogAsset(assetName, ticker, assetType, basePrice, volatility);
+    if (currentPrice > 0) {
+      asset.setCurrentPrice(currentPrice);
+    }
+    return asset;
+  }
+
+  private static AssetsType assetType(String name) {
+    try {
+      return AssetsType.valueOf(name);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package ve.edu.ucab.infrastructure.repository;
+
+/**
+ * A point-in-time view of the group-commit writer of the user repository.
+ *
+ * @param queueDepth        the number of dirty users waiting for the next flush
+ * @param batches           the number of batches flushed so far
+ * @param failedBatches     the number of batches whose flush failed
+ * @param lastBatchSize     the number of users in the last flushed batch
+ * @param averageBatchSize  the average number of users per flushed batch
+ * @param lastFlushMicros   the duration of the last flush, in microseconds
+ * @param maxFlushMicros    the longest flush so far, in microseconds
+ * @param averageFlushMicros the average flush duration, in microseconds
+ */
+public record PersistenceMetrics(int queueDepth, long batches, long failedBatches, int lastBatchSize,
+    double averageBatchSize, long lastFlushMicros, long maxFlushMicros, double averageFlushMicros) {
+
+  @Override
+  public String toString() {
+    return String.format("cola=%d lotes=%d fallidos=%d tamaño=%d (prom. %.1f) latencia=%d us (máx. %d, prom. %.0f)",
+        queueDepth, batches, failedBatches, lastBatchSize, averageBatchSize, lastFlushMicros, maxFlushMicros,
+        averageFlushMicros);
+  }
+}
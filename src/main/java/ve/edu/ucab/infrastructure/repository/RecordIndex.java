@@ -0,0 +1,161 @@
+package ve.edu.ucab.infrastructure.repository;
+
+// Java utility imports
+import java.util.Arrays;
+
+/**
+ * An immutable index from user ID to the location of the user's record in a file,
+ * kept in sorted primitive arrays and searched by binary search.
+ */
+final class RecordIndex {
+
+  /**
+   * An index with no entries.
+   */
+  static final RecordIndex EMPTY = new RecordIndex(new int[0], new long[0], new int[0]);
+
+  /**
+   * The IDs of the indexed users, sorted in ascending order.
+   */
+  private final int[] ids;
+
+  /**
+   * The byte offset of each indexed record, parallel to {@link #ids}.
+   */
+  private final long[] offsets;
+
+  /**
+   * The byte length of each indexed record, parallel to {@link #ids}.
+   */
+  private final int[] lengths;
+
+  private RecordIndex(int[] ids, long[] offsets, int[] lengths) {
+    this.ids = ids;
+    this.offsets = offsets;
+    this.lengths = lengths;
+  }
+
+  /**
+   * Finds the entry of a user.
+   *
+   * @param id the ID of the user
+   * @return the position of the entry, or a negative value if the user is not indexed
+   */
+  int find(int id) {
+    return Arrays.binarySearch(ids, id);
+  }
+
+  /**
+   * Gets the number of entries.
+   *
+   * @return the number of indexed users
+   */
+  int size() {
+    return ids.length;
+  }
+
+  /**
+   * Gets the user ID of an entry.
+   *
+   * @param entry the position of the entry, from 0 to {@link #size()}
+   * @return the ID of the user
+   */
+  int id(int entry) {
+    return ids[entry];
+  }
+
+  /**
+   * Gets the byte offset of an entry's record.
+   *
+   * @param entry the position returned by {@link #find}
+   * @return the offset of the record
+   */
+  long offset(int entry) {
+    return offsets[entry];
+  }
+
+  /**
+   * Gets the byte length of an entry's record.
+   *
+   * @param entry the position returned by {@link #find}
+   * @return the length of the record
+   */
+  int length(int entry) {
+    return lengths[entry];
+  }
+
+  /**
+   * Accumulates the location of each record in file order.
+   */
+  static final class Builder {
+
+    /**
+     * The IDs added so far, in file order.
+     */
+    private int[] builtIds = new int[1024];
+
+    /**
+     * The offsets added so far, in file order.
+     */
+    private long[] builtOffsets = new long[1024];
+
+    /**
+     * The lengths added so far, in file order.
+     */
+    private int[] builtLengths = new int[1024];
+
+    /**
+     * The number of entries added so far.
+     */
+    private int size;
+
+    /**
+     * Adds the location of a record.
+     *
+     * @param id     the ID of the user
+     * @param offset the byte offset of the record
+     * @param length the byte length of the record
+     */
+    void add(int id, long offset, int length) {
+      if (size == builtIds.length) {
+        builtIds = Arrays.copyOf(builtIds, size * 2);
+        builtOffsets = Arrays.copyOf(builtOffsets, size * 2);
+        builtLengths = Arrays.copyOf(builtLengths, size * 2);
+      }
+      builtIds[size] = id;
+      builtOffsets[size] = offset;
+      builtLengths[size] = length;
+      size++;
+    }
+
+    /**
+     * Sorts the entries by user ID. When an ID appears twice the first record wins,
+     * as it does for a linear search.
+     *
+     * @return the index of every added record
+     */
+    RecordIndex build() {
+      Integer[] order = new Integer[size];
+      for (int i = 0; i < size; i++) {
+        order[i] = i;
+      }
+      Arrays.sort(order, (a, b) -> builtIds[a] != builtIds[b] ? Integer.compare(builtIds[a], builtIds[b])
+          : Integer.compare(a, b));
+      int[] sortedIds = new int[size];
+      long[] sortedOffsets = new long[size];
+      int[] sortedLengths = new int[size];
+      int count = 0;
+      for (Integer i : order) {
+        if (count > 0 && sortedIds[count - 1] == builtIds[i]) {
+          continue;
+        }
+        sortedIds[count] = builtIds[i];
+        sortedOffsets[count] = builtOffsets[i];
+        sortedLengths[count] = builtLengths[i];
+        count++;
+      }
+      return new RecordIndex(Arrays.copyOf(sortedIds, count), Arrays.copyOf(sortedOffsets, count),
+          Arrays.copyOf(sortedLengths, count));
+    }
+  }
+}
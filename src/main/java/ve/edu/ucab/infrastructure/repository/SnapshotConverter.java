@@ -0,0 +1,43 @@
+package ve.edu.ucab.infrastructure.repository;
+
+// Domain model imports
+import ve.edu.ucab.domain.model.AssetManager;
+import ve.edu.ucab.domain.repository.Repository;
+
+// Java I/O imports
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Converts the users and catalog snapshots between the JSON and binary formats.
+ * Run with {@code export} (the default) to write {@code data/users.json} and
+ * {@code data/assets.json} from the binary snapshots, for example to inspect them,
+ * or with {@code import} to rebuild the binary snapshots from the JSON files.
+ */
+public class SnapshotConverter {
+
+  private static final Path USERS_JSON = Paths.get("data/users.json");
+  private static final Path USERS_BINARY = Paths.get("data/users.bin");
+  private static final Path CATALOG_JSON = Paths.get("data/assets.json");
+  private static final Path CATALOG_BINARY = Paths.get("data/assets.bin");
+
+  public static void main(String[] args) {
+    boolean export = args.length == 0 || !args[0].equalsIgnoreCase("import");
+    try {
+      if (export) {
+        UserRepository.convert(new BinaryUserFile(USERS_BINARY), new UserFile(USERS_JSON));
+        AssetManager.writeJsonCatalog(CATALOG_JSON, BinaryCatalogFile.read(CATALOG_BINARY));
+        System.out.println("Instantáneas exportadas a " + USERS_JSON + " y " + CATALOG_JSON);
+      } else {
+        UserRepository.convert(new UserFile(USERS_JSON), new BinaryUserFile(USERS_BINARY));
+        // El catálogo JSON se carga con las mismas reglas que usa la aplicación
+        System.setProperty(Repository.STORAGE_FORMAT_PROPERTY, "json");
+        BinaryCatalogFile.write(CATALOG_BINARY, AssetManager.getInstance().getCatalogAssets());
+        System.out.println("Instantáneas importadas a " + USERS_BINARY + " y " + CATALOG_BINARY);
+      }
+    } catch (Exception e) {
+      System.err.println("Error convirtiendo las instantáneas: " + e.getMessage());
+      e.printStackTrace();
+    }
+  }
+}
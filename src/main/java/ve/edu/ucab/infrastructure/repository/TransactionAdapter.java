@@ -0,0 +1,82 @@
+package ve.edu.ucab.infrastructure.repository;
+
+// Gson-related imports for JSON processing
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+// Domain model imports
+import ve.edu.ucab.domain.model.AssetsType;
+import ve.edu.ucab.domain.model.Transaction;
+import ve.edu.ucab.domain.model.TransactionType;
+
+// Java I/O and utility imports
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * A streaming Gson adapter for {@link Transaction} records. Reads and writes the same
+ * layout as Gson's reflective adapter without reflection, so a single instance can be
+ * reused for every transaction in the file.
+ */
+class TransactionAdapter extends TypeAdapter<Transaction> {
+
+  @Override
+  public void write(JsonWriter out, Transaction value) throws IOException {
+    if (value == null) {
+      out.nullValue();
+      return;
+    }
+    out.beginObject();
+    out.name("transactionType").value(value.getTransactionType());
+    out.name("amount").value(value.getAmount());
+    out.name("assetTicker").value(value.getAssetTicker());
+    out.name("assetType").value(value.getAssetType());
+    out.name("dateRelease").value(value.getDateRelease() != null ? value.getDateRelease().toString() : null);
+    out.name("purchasePrice").value(value.getPurchasePrice());
+    if (value.getPriceVersion() > 0) {
+      out.name("priceVersion").value(value.getPriceVersion());
+    }
+    out.endObject();
+  }
+
+  @Override
+  public Transaction read(JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    TransactionType transactionType = null;
+    double amount = 0;
+    String assetTicker = null;
+    AssetsType assetType = null;
+    LocalDate dateRelease = null;
+    double purchasePrice = 0;
+    long priceVersion = 0;
+    in.beginObject();
+    while (in.hasNext()) {
+      String name = in.nextName();
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        continue;
+      }
+      switch (name) {
+        case "transactionType" -> transactionType = TransactionType.valueOf(in.nextString());
+        case "amount" -> amount = in.nextDouble();
+        case "assetTicker" -> assetTicker = in.nextString();
+        case "assetType" -> assetType = AssetsType.valueOf(in.nextString());
+        case "dateRelease" -> {
+          String date = in.nextString();
+          dateRelease = date.isEmpty() ? null : LocalDate.parse(date);
+        }
+        case "purchasePrice" -> purchasePrice = in.nextDouble();
+        case "priceVersion" -> priceVersion = in.nextLong();
+        default -> in.skipValue();
+      }
+    }
+    in.endObject();
+    return Transaction.createNewTransaction(transactionType, amount, assetTicker, assetType, purchasePrice,
+        dateRelease, priceVersion);
+  }
+}
@@ -0,0 +1,362 @@
+package ve.edu.ucab.infrastructure.repository;
+
+// Gson-related imports for JSON processing
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+// Domain model imports
+import ve.edu.ucab.domain.model.Asset;
+import ve.edu.ucab.domain.model.Transaction;
+import ve.edu.ucab.domain.model.TransactionLog;
+import ve.edu.ucab.domain.model.User;
+import ve.edu.ucab.domain.model.UserDetailsLoader;
+import ve.edu.ucab.infrastructure.datasource.SnapshotFiles;
+
+// Java I/O and utility imports
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * The JSON user file, read lazily. This is the default {@link UserStore}. Loading only keeps a compact header of each user
+ * (ID, username, password and balance) plus the byte range of the user's object in
+ * the file; portfolios and histories are read from that range on demand.
+ *
+ * <p>Snapshots are written to a temporary file that then replaces the user file
+ * through {@link SnapshotFiles#commit}, so the previous generation stays readable
+ * until the new one is fully indexed and is kept afterwards for rollback.
+ */
+class UserFile implements UserStore {
+
+  /**
+   * The size of the chunks read while scanning the file.
+   */
+  private static final int SCAN_CHUNK = 1 << 16;
+
+  /**
+   * The path of the user file.
+   */
+  private final Path path;
+
+  /**
+   * The adapter used for every portfolio lot.
+   */
+  private final TypeAdapter<Asset> assetAdapter = new AssetAdapter();
+
+  /**
+   * The adapter used for every history entry.
+   */
+  private final TypeAdapter<Transaction> transactionAdapter = new TransactionAdapter();
+
+  /**
+   * The channel of the current generation of the file, or {@code null} until loaded.
+   */
+  private FileChannel channel;
+
+  /**
+   * The location of each user's object in the current generation.
+   */
+  private RecordIndex index = RecordIndex.EMPTY;
+
+  /**
+   * Creates a lazily read user file.
+   *
+   * @param path the path of the user file
+   */
+  UserFile(Path path) {
+    this.path = path;
+  }
+
+  /**
+   * Receives each top-level object found while scanning the file.
+   */
+  private interface ObjectVisitor {
+
+    /**
+     * Called for every user object in the file.
+     *
+     * @param offset the byte offset of the object
+     * @param bytes  the buffer holding the object, or {@code null} if not collected
+     * @param length the byte length of the object
+     * @throws IOException if the object cannot be processed
+     */
+    void visit(long offset, byte[] bytes, int length) throws IOException;
+  }
+
+  @Override
+  public boolean exists() {
+    return Files.isRegularFile(path);
+  }
+
+  /**
+   * Scans the file byte by byte to find each user's object, parsing only its header
+   * fields, and indexes where each object is stored.
+   */
+  @Override
+  public synchronized List<User> load(Map<Integer, Long> snapshotSeq) throws IOException {
+    List<User> users = new ArrayList<>();
+    RecordIndex.Builder builder = new RecordIndex.Builder();
+    SnapshotFiles.Checksum checksum = scan(path, true, (offset, bytes, length) -> {
+      User user = readHeader(new ByteArrayInputStream(bytes, 0, length), snapshotSeq);
+      if (user != null) {
+        users.add(user);
+        builder.add(user.getId(), offset, length);
+      }
+    });
+    SnapshotFiles.Checksum expected = SnapshotFiles.readChecksum(path);
+    if (expected != null && !expected.equals(checksum)) {
+      throw new IOException("Checksum mismatch: " + path + " is damaged or incomplete.");
+    }
+    index = builder.build();
+    channel = FileChannel.open(path, StandardOpenOption.READ);
+    return users;
+  }
+
+  /**
+   * Reads the header fields of a user object, skipping its portfolio and history.
+   *
+   * @param in          the bytes of the object
+   * @param snapshotSeq receives the journal sequence number included for the user
+   * @return the lazily loaded user, or {@code null} if a required field is missing
+   * @throws IOException if the object cannot be parsed
+   */
+  private User readHeader(InputStream in, Map<Integer, Long> snapshotSeq) throws IOException {
+    Integer id = null;
+    String username = null;
+    String password = null;
+    Double balance = null;
+    long journalSeq = 0;
+    JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    reader.beginObject();
+    while (reader.hasNext()) {
+      String name = reader.nextName();
+      if (reader.peek() == JsonToken.NULL) {
+        reader.nextNull();
+        continue;
+      }
+      switch (name) {
+        case "id" -> id = reader.nextInt();
+        case "username" -> username = reader.nextString();
+        case "password" -> password = reader.nextString();
+        case "balance" -> balance = reader.nextDouble();
+        case "journalSeq" -> journalSeq = reader.nextLong();
+        default -> reader.skipValue();
+      }
+    }
+    if (id == null || username == null || password == null || balance == null) {
+      System.err.println("Error al cargar un usuario: faltan campos obligatorios (id " + id + ").");
+      return null;
+    }
+    if (journalSeq > 0) {
+      snapshotSeq.put(id, journalSeq);
+    }
+    return User.createLazyUser(id, username, password, balance, this);
+  }
+
+  @Override
+  public synchronized void loadDetails(int userId, List<Asset> portfolio, List<Transaction> transactionHistory) {
+    int entry = index.find(userId);
+    if (entry < 0) {
+      return;
+    }
+    try {
+      ByteBuffer buffer = ByteBuffer.allocate(index.length(entry));
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, index.offset(entry) + buffer.position()) < 0) {
+          throw new IOException("Unexpected end of the user file.");
+        }
+      }
+      JsonReader reader = new JsonReader(new InputStreamReader(
+          new ByteArrayInputStream(buffer.array()), StandardCharsets.UTF_8));
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.nextName()) {
+          case "portfolio" -> readArray(reader, assetAdapter, portfolio);
+          case "transactionHistory" -> readArray(reader, transactionAdapter, transactionHistory);
+          default -> reader.skipValue();
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Error reading the data of user " + userId + ": " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Reads a JSON array element by element into a list. A value that is not an array
+   * is skipped, leaving the list empty.
+   *
+   * @param reader  the reader positioned at the array
+   * @param adapter the adapter used for every element
+   * @param target  the list receiving the elements
+   * @param <E>     the element type
+   * @throws IOException if the stream cannot be read
+   */
+  private static <E> void readArray(JsonReader reader, TypeAdapter<E> adapter, List<E> target) throws IOException {
+    if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+      reader.skipValue();
+      return;
+    }
+    reader.beginArray();
+    while (reader.hasNext()) {
+      E element = adapter.read(reader);
+      if (element != null) {
+        target.add(element);
+      }
+    }
+    reader.endArray();
+  }
+
+  /**
+   * Writes the snapshot as pretty-printed JSON to a temporary file, which then
+   * replaces the current generation once it is indexed. The checksum computed while
+   * indexing is stored next to the file and checked by {@link #load}.
+   */
+  @Override
+  public void write(List<UserSnapshot> snapshot, UserDetailsLoader previous) throws IOException {
+    Path temp = SnapshotFiles.temp(path);
+    try (JsonWriter writer = new JsonWriter(Files.newBufferedWriter(temp, StandardCharsets.UTF_8))) {
+      writer.setIndent("  ");
+      writer.beginArray();
+      for (UserSnapshot user : snapshot) {
+        List<Asset> portfolio = user.getPortfolio();
+        List<Transaction> transactionHistory = user.getTransactionHistory();
+        if (portfolio == null) {
+          portfolio = new ArrayList<>();
+          transactionHistory = new TransactionLog();
+          previous.loadDetails(user.getId(), portfolio, transactionHistory);
+        }
+        writer.beginObject();
+        writer.name("id").value(user.getId());
+        writer.name("username").value(user.getUsername());
+        writer.name("password").value(user.getPassword());
+        writer.name("balance").value(user.getBalance());
+        writer.name("portfolio").beginArray();
+        for (Asset lot : portfolio) {
+          assetAdapter.write(writer, lot);
+        }
+        writer.endArray();
+        writer.name("transactionHistory").beginArray();
+        for (Transaction transaction : transactionHistory) {
+          transactionAdapter.write(writer, transaction);
+        }
+        writer.endArray();
+        if (user.getJournalSeq() > 0) {
+          writer.name("journalSeq").value(user.getJournalSeq());
+        }
+        writer.endObject();
+      }
+      writer.endArray();
+    }
+    // Index the new generation before it replaces the current one
+    RecordIndex.Builder builder = new RecordIndex.Builder();
+    int[] position = {0};
+    SnapshotFiles.Checksum checksum = scan(temp, false,
+        (offset, bytes, length) -> builder.add(snapshot.get(position[0]++).getId(), offset, length));
+    RecordIndex written = builder.build();
+    synchronized (this) {
+      SnapshotFiles.commit(temp, path, checksum);
+      if (channel != null) {
+        channel.close();
+      }
+      channel = FileChannel.open(path, StandardOpenOption.READ);
+      index = written;
+    }
+  }
+
+  @Override
+  public boolean restorePrevious() throws IOException {
+    return SnapshotFiles.restorePrevious(path);
+  }
+
+  @Override
+  public synchronized void close() {
+    try {
+      if (channel != null) {
+        channel.close();
+      }
+    } catch (IOException e) {
+      System.err.println("Error cerrando el archivo de usuarios: " + e.getMessage());
+    }
+    channel = null;
+  }
+
+  /**
+   * Scans a JSON array of objects byte by byte, reporting where each object starts
+   * and ends without parsing it, and computes the checksum of the file on the way.
+   *
+   * @param file    the file to scan
+   * @param collect whether the bytes of each object are passed to the visitor
+   * @param visitor receives each object
+   * @return the length and CRC-32C of the file
+   * @throws IOException if the file cannot be read or its array is not closed
+   */
+  private static SnapshotFiles.Checksum scan(Path file, boolean collect, ObjectVisitor visitor) throws IOException {
+    CRC32C crc = new CRC32C();
+    boolean opened = false;
+    byte[] chunk = new byte[SCAN_CHUNK];
+    byte[] object = new byte[collect ? 4096 : 0];
+    int objectLength = 0;
+    long position = 0;
+    long start = -1;
+    int depth = 0;
+    boolean inString = false;
+    boolean escaped = false;
+    try (InputStream in = Files.newInputStream(file)) {
+      int read;
+      while ((read = in.read(chunk)) > 0) {
+        crc.update(chunk, 0, read);
+        for (int i = 0; i < read; i++, position++) {
+          byte c = chunk[i];
+          if (inString) {
+            if (escaped) {
+              escaped = false;
+            } else if (c == '\\') {
+              escaped = true;
+            } else if (c == '"') {
+              inString = false;
+            }
+          } else if (c == '"') {
+            inString = true;
+          } else if (c == '{' || c == '[') {
+            opened = true;
+            if (++depth == 2 && c == '{') {
+              start = position;
+              objectLength = 0;
+            }
+          } else if (c == '}' || c == ']') {
+            depth--;
+          }
+          if (start >= 0 && collect) {
+            if (objectLength == object.length) {
+              object = Arrays.copyOf(object, object.length * 2);
+            }
+            object[objectLength++] = c;
+          }
+          if (start >= 0 && depth == 1) {
+            visitor.visit(start, collect ? object : null, (int) (position + 1 - start));
+            start = -1;
+          }
+        }
+      }
+    }
+    if (!opened || depth != 0) {
+      throw new IOException("The user file is incomplete: " + file);
+    }
+    return new SnapshotFiles.Checksum(position, (int) crc.getValue());
+  }
+}
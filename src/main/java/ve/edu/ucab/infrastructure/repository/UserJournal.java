@@ -0,0 +1,588 @@
+package ve.edu.ucab.infrastructure.repository;
+
+// Gson-related imports for JSON processing
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+
+// Domain model imports
+import ve.edu.ucab.domain.model.Asset;
+import ve.edu.ucab.domain.model.Transaction;
+import ve.edu.ucab.domain.model.User;
+import ve.edu.ucab.domain.model.UserChangeListener;
+
+// Java I/O and utility imports
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.IntToLongFunction;
+
+/**
+ * An append-only write-ahead journal for user mutations. Every change reported by a
+ * {@link User} is appended as one compact JSON line, so a deposit or a trade costs a
+ * single small write instead of a full rewrite of the users file.
+ *
+ * <p>Each record carries a sequence number. Snapshots store the sequence number they
+ * include, so replaying the journal on top of a snapshot skips the records that are
+ * already folded into it. Appended records are forced to disk by {@link #sync()},
+ * which {@link UserWriteBehind} calls once per group commit, and once the journal
+ * grows past a threshold it is folded into a new snapshot by a background compactor.
+ *
+ * <p>A compaction only drops the records already folded into the generation the new
+ * snapshot replaces, which the users file keeps as its previous generation. If the
+ * new snapshot turns out to be damaged, the previous one can be loaded and the
+ * journal replayed on top of it without losing a change. The first line of a
+ * compacted journal records that sequence number, as read by {@link #readBase}.
+ */
+class UserJournal implements UserChangeListener {
+
+  /**
+   * Captures and writes snapshots of the repository on behalf of the journal.
+   */
+  interface Snapshotter {
+
+    /**
+     * Captures the current state of every user. Called without the journal lock, as
+     * capturing a user waits for its mutation in progress, which appends to the
+     * journal. Records are appended meanwhile, so each user is captured with the
+     * last sequence number journaled for it, read while its state is locked.
+     *
+     * @param seq          the sequence number of the last record every user's state
+     *                     is known to include
+     * @param journaledSeq gives the sequence number of the last record journaled for
+     *                     a user ID, or 0
+     * @return the captured users
+     */
+    List<UserSnapshot> capture(long seq, IntToLongFunction journaledSeq);
+
+    /**
+     * Writes a previously captured snapshot to the users file.
+     *
+     * @param snapshot the captured users
+     * @throws IOException if the snapshot cannot be written
+     */
+    void write(List<UserSnapshot> snapshot) throws IOException;
+  }
+
+  /**
+   * The journal size in bytes that triggers a background compaction.
+   */
+  private static final long COMPACT_THRESHOLD = 1L << 20;
+
+  /**
+   * The path of the journal file.
+   */
+  private final Path path;
+
+  /**
+   * The callback used to capture and write snapshots during compaction.
+   */
+  private final Snapshotter snapshotter;
+
+  /**
+   * The compact Gson instance used to encode and decode records.
+   */
+  private final Gson gson = UserRepository.gsonBuilder().create();
+
+  /**
+   * The channel records are appended to, or {@code null} until {@link #open()}.
+   */
+  private FileChannel channel;
+
+  /**
+   * The sequence number of the last appended record.
+   */
+  private long seq;
+
+  /**
+   * The sequence number of the last record of each user, for users with records not
+   * folded into a snapshot yet.
+   */
+  private final Map<Integer, Long> lastSeqByUser = new HashMap<>();
+
+  /**
+   * The sequence number folded into the previous generation of the users file; the
+   * records after it are kept, and the next compaction drops the ones before.
+   */
+  private long previousSeq;
+
+  /**
+   * The size of the journal after the last compaction, so records kept for the
+   * previous generation do not count towards the next one.
+   */
+  private long compactedSize;
+
+  /**
+   * The number of records written since the last sync.
+   */
+  private int pendingSync;
+
+  /**
+   * Whether a background compaction is currently in progress.
+   */
+  private boolean compacting;
+
+  /**
+   * The executor that writes snapshots in the background.
+   */
+  private ExecutorService compactor;
+
+  /**
+   * Creates a journal backed by the given file.
+   *
+   * @param path        the path of the journal file
+   * @param snapshotter the callback used to capture and write snapshots
+   */
+  UserJournal(Path path, Snapshotter snapshotter) {
+    this.path = path;
+    this.snapshotter = snapshotter;
+  }
+
+  /**
+   * Replays the journal on top of the users loaded from the last snapshot. Records
+   * already included in a user's snapshot are skipped. Only records ended by a newline
+   * are applied: a torn trailing record left by a crash, even one that parses, is
+   * dropped and the file is cut back to the last newline.
+   *
+   * @param lookup      finds a user of the snapshot by ID, or returns {@code null};
+   *                    it must record the user's sequence number in {@code snapshotSeq}
+   * @param snapshotSeq the sequence number included in each user's snapshot
+   * @param baseSeq     the highest sequence number included in the snapshot
+   * @param newUser     receives the users created by journaled registrations
+   * @return the number of records applied
+   * @throws IOException if the journal cannot be read
+   */
+  int replay(IntFunction<User> lookup, Map<Integer, Long> snapshotSeq, long baseSeq, Consumer<User> newUser)
+      throws IOException {
+    seq = baseSeq;
+    if (!Files.exists(path)) {
+      return 0;
+    }
+    int applied = 0;
+    long validBytes = 0;
+    previousSeq = readBase(path);
+    if (previousSeq < 0) {
+      // Sin registro base no se sabe qué generación cubre el diario: se conserva entero
+      previousSeq = 0;
+    }
+    boolean torn = false;
+    boolean terminated = endsWithNewline(path);
+    try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      String line = reader.readLine();
+      for (String next; line != null; line = next) {
+        next = reader.readLine();
+        if (next == null && !terminated) {
+          // Sin el salto de línea la escritura quedó a medias, aunque el JSON esté completo
+          System.err.println("Último registro del diario sin terminar, se descarta.");
+          torn = true;
+          break;
+        }
+        JsonObject record;
+        try {
+          record = JsonParser.parseString(line).getAsJsonObject();
+        } catch (JsonParseException | IllegalStateException e) {
+          System.err.println("Registro del diario incompleto, se descarta el resto del archivo.");
+          torn = true;
+          break;
+        }
+        validBytes += line.getBytes(StandardCharsets.UTF_8).length + 1;
+        long recordSeq = record.get("s").getAsLong();
+        seq = Math.max(seq, recordSeq);
+        String op = record.get("op").getAsString();
+        if ("base".equals(op)) {
+          continue;
+        }
+        int id = record.get("id").getAsInt();
+        User user = lookup.apply(id);
+        if ("user".equals(op)) {
+          if (user == null) {
+            newUser.accept(decodeUser(record));
+            applied++;
+          }
+        } else if (user != null && recordSeq > snapshotSeq.getOrDefault(id, 0L)) {
+          apply(user, record);
+          applied++;
+        }
+      }
+    }
+    if (torn) {
+      // Drop the torn record so that new records are not appended after it
+      try (FileChannel out = FileChannel.open(path, StandardOpenOption.WRITE)) {
+        out.truncate(validBytes);
+      }
+    }
+    return applied;
+  }
+
+  /**
+   * Applies a single journaled change to a user without notifying listeners.
+   *
+   * @param user   the user to modify
+   * @param record the journal record
+   */
+  private void apply(User user, JsonObject record) {
+    switch (record.get("op").getAsString()) {
+      case "bal" -> user.restoreBalance(record.get("v").getAsDouble());
+      case "name" -> user.setUsername(record.get("v").getAsString());
+      case "pwd" -> user.changePassword(user.getPassword(), record.get("v").getAsString());
+      case "lot+" -> user.restoreLot(gson.fromJson(record.get("v"), Asset.class));
+      case "lot-" -> {
+        // Los registros sin ticker son de diarios anteriores: "i" es la posición en el portafolio
+        if (record.has("t")) {
+          user.restoreLotReduction(record.get("t").getAsString(), record.get("i").getAsInt(),
+              record.get("v").getAsDouble());
+        } else {
+          user.restoreLotReduction(record.get("i").getAsInt(), record.get("v").getAsDouble());
+        }
+      }
+      case "avg" -> user.restoreLotRepricing(record.get("t").getAsString(), record.get("v").getAsDouble());
+      case "tx" -> user.restoreTransaction(gson.fromJson(record.get("v"), Transaction.class));
+      default -> System.err.println("Operación desconocida en el diario: " + record.get("op"));
+    }
+  }
+
+  /**
+   * Rebuilds a user from a journaled registration record.
+   *
+   * @param record the journal record
+   * @return the registered user
+   */
+  private User decodeUser(JsonObject record) {
+    List<Asset> portfolio = gson.fromJson(record.get("portfolio"), new TypeToken<List<Asset>>() {
+    }.getType());
+    List<Transaction> history = gson.fromJson(record.get("transactionHistory"), new TypeToken<List<Transaction>>() {
+    }.getType());
+    return User.createNewUser(record.get("id").getAsInt(), record.get("username").getAsString(),
+        record.get("password").getAsString(), record.get("balance").getAsDouble(), portfolio, history);
+  }
+
+  /**
+   * Opens the journal for appending and starts the background compactor.
+   *
+   * @throws IOException if the journal file cannot be opened
+   */
+  synchronized void open() throws IOException {
+    channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    compactor = Executors.newSingleThreadExecutor(daemon("users-journal-compactor"));
+  }
+
+  /**
+   * Journals the registration of a new user.
+   *
+   * @param user the registered user
+   */
+  void userAdded(User user) {
+    JsonObject record = new JsonObject();
+    record.addProperty("username", user.getUsername());
+    record.addProperty("password", user.getPassword());
+    record.addProperty("balance", user.getBalance());
+    record.add("portfolio", gson.toJsonTree(user.getPortfolio()));
+    record.add("transactionHistory", gson.toJsonTree(user.getTransactionHistory()));
+    append("user", user, record);
+  }
+
+  @Override
+  public void balanceChanged(User user) {
+    JsonObject record = new JsonObject();
+    record.addProperty("v", user.getBalance());
+    append("bal", user, record);
+  }
+
+  @Override
+  public void usernameChanged(User user, String oldUsername) {
+    JsonObject record = new JsonObject();
+    record.addProperty("v", user.getUsername());
+    append("name", user, record);
+  }
+
+  @Override
+  public void passwordChanged(User user) {
+    JsonObject record = new JsonObject();
+    record.addProperty("v", user.getPassword());
+    append("pwd", user, record);
+  }
+
+  @Override
+  public void lotAdded(User user, Asset lot) {
+    JsonObject record = new JsonObject();
+    record.add("v", gson.toJsonTree(lot));
+    append("lot+", user, record);
+  }
+
+  @Override
+  public void lotReduced(User user, String ticker, int lotIndex, double amountSold) {
+    JsonObject record = new JsonObject();
+    record.addProperty("t", ticker);
+    record.addProperty("i", lotIndex);
+    record.addProperty("v", amountSold);
+    append("lot-", user, record);
+  }
+
+  @Override
+  public void lotsRepriced(User user, String ticker, double purchasePrice) {
+    JsonObject record = new JsonObject();
+    record.addProperty("t", ticker);
+    record.addProperty("v", purchasePrice);
+    append("avg", user, record);
+  }
+
+  @Override
+  public void transactionAdded(User user, Transaction transaction) {
+    JsonObject record = new JsonObject();
+    record.add("v", gson.toJsonTree(transaction));
+    append("tx", user, record);
+  }
+
+  /**
+   * Appends a record to the journal without forcing it to disk, scheduling a
+   * compaction when the journal has grown past its threshold.
+   *
+   * @param op     the operation code
+   * @param user   the user the record belongs to
+   * @param record the operation-specific fields of the record
+   */
+  private synchronized void append(String op, User user, JsonObject record) {
+    if (channel == null) {
+      return;
+    }
+    record.addProperty("s", ++seq);
+    record.addProperty("op", op);
+    record.addProperty("id", user.getId());
+    lastSeqByUser.put(user.getId(), seq);
+    ByteBuffer buffer = ByteBuffer.wrap((gson.toJson(record) + "\n").getBytes(StandardCharsets.UTF_8));
+    try {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      pendingSync++;
+      if (!compacting && channel.size() - compactedSize >= COMPACT_THRESHOLD) {
+        scheduleCompaction();
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Error writing to the users journal: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Forces the records appended since the last sync to disk.
+   *
+   * @throws IOException if the channel cannot be forced
+   */
+  synchronized void sync() throws IOException {
+    if (channel != null && pendingSync > 0) {
+      channel.force(false);
+      pendingSync = 0;
+    }
+  }
+
+  /**
+   * Hands a compaction to the background compactor, which captures and writes a
+   * snapshot and drops the records it already includes.
+   */
+  private void scheduleCompaction() {
+    compacting = true;
+    compactor.submit(() -> {
+      try {
+        truncate(writeSnapshot());
+      } catch (IOException e) {
+        System.err.println("Error compactando el diario de usuarios: " + e.getMessage());
+      } finally {
+        synchronized (this) {
+          compacting = false;
+        }
+      }
+    });
+  }
+
+  /**
+   * Captures and writes a snapshot of every user. Compactions run one at a time on the
+   * compactor, so snapshots are written in capture order and an older snapshot never
+   * overwrites a newer one.
+   *
+   * @return the sequence number of the last record every user's snapshot includes
+   * @throws IOException if the snapshot cannot be written
+   */
+  private long writeSnapshot() throws IOException {
+    long foldedSeq;
+    synchronized (this) {
+      foldedSeq = seq;
+    }
+    snapshotter.write(snapshotter.capture(foldedSeq, this::lastSeq));
+    return foldedSeq;
+  }
+
+  /**
+   * Gets the sequence number of the last record of a user.
+   *
+   * @param userId the user ID
+   * @return the sequence number, or 0 if the user has no record left in the journal
+   */
+  private synchronized long lastSeq(int userId) {
+    return lastSeqByUser.getOrDefault(userId, 0L);
+  }
+
+  /**
+   * Folds the journal into a new snapshot and waits until it is written.
+   */
+  void compact() {
+    try {
+      if (compactor == null) {
+        writeSnapshot();
+      } else {
+        compactor.submit(() -> {
+          truncate(writeSnapshot());
+          return null;
+        }).get();
+      }
+    } catch (IOException | ExecutionException e) {
+      throw new RuntimeException("Error compacting the users journal: " + e.getMessage(), e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Rewrites the journal once a snapshot is written, dropping the records already
+   * folded into the generation the snapshot replaced. The records after them are kept
+   * until the next snapshot, so that generation, now the previous one, can still be
+   * replayed.
+   *
+   * @param foldedSeq the sequence number of the last record included in the snapshot
+   * @throws IOException if the journal cannot be rewritten
+   */
+  private synchronized void truncate(long foldedSeq) throws IOException {
+    sync();
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+        BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+      JsonObject base = new JsonObject();
+      base.addProperty("s", previousSeq);
+      base.addProperty("op", "base");
+      writer.write(gson.toJson(base));
+      writer.write('\n');
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (!line.isBlank() && JsonParser.parseString(line).getAsJsonObject().get("s").getAsLong() > previousSeq) {
+          // Siempre "\n", como append: replay cuenta un byte por separador
+          writer.write(line);
+          writer.write('\n');
+        }
+      }
+    }
+    try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+      out.force(true);
+    }
+    channel.close();
+    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    compactedSize = channel.size();
+    previousSeq = foldedSeq;
+    lastSeqByUser.values().removeIf(last -> last <= foldedSeq);
+  }
+
+  /**
+   * Reads the sequence number a journal keeps every record after, which the
+   * previous generation of the users file must include to be replayed with it.
+   *
+   * @param path the path of the journal file
+   * @return the sequence number, or -1 if there is no journal or it has not been
+   *         compacted, so it is not known to cover the previous generation
+   * @throws IOException if the journal cannot be read
+   */
+  static long readBase(Path path) throws IOException {
+    if (!Files.exists(path)) {
+      return -1;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      String line = reader.readLine();
+      if (line == null) {
+        return -1;
+      }
+      JsonObject record = JsonParser.parseString(line).getAsJsonObject();
+      return "base".equals(record.get("op").getAsString()) ? record.get("s").getAsLong() : -1;
+    } catch (JsonParseException | IllegalStateException e) {
+      return -1;
+    }
+  }
+
+  // Indica si el archivo termina en un salto de línea; uno vacío cuenta como terminado
+  private static boolean endsWithNewline(Path path) throws IOException {
+    try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = in.size();
+      if (size == 0) {
+        return true;
+      }
+      ByteBuffer last = ByteBuffer.allocate(1);
+      in.read(last, size - 1);
+      return last.get(0) == '\n';
+    }
+  }
+
+  /**
+   * Folds the journal into a final snapshot and releases its resources.
+   */
+  void close() {
+    if (compactor == null) {
+      return;
+    }
+    compact();
+    compactor.shutdown();
+    try {
+      compactor.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    synchronized (this) {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        System.err.println("Error cerrando el diario de usuarios: " + e.getMessage());
+      }
+      channel = null;
+    }
+  }
+
+  /**
+   * Deletes the journal file. Used once its records have been folded into a snapshot
+   * and journaling is disabled.
+   *
+   * @throws IOException if the file cannot be deleted
+   */
+  void delete() throws IOException {
+    Files.deleteIfExists(path);
+  }
+
+  /**
+   * Creates a thread factory producing daemon threads with the given name, so the
+   * persistence threads never keep the application alive.
+   *
+   * @param name the thread name
+   * @return the thread factory
+   */
+  static ThreadFactory daemon(String name) {
+    return runnable -> {
+      Thread thread = new Thread(runnable, name);
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
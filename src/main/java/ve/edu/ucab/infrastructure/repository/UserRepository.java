@@ -1,30 +1,37 @@
 package ve.edu.ucab.infrastructure.repository;
 
 // Gson-related imports for JSON processing
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
 
 // Domain model and exception imports
 import ve.edu.ucab.domain.exceptions.ExistingUserException;
 import ve.edu.ucab.domain.model.User;
 import ve.edu.ucab.domain.repository.Repository;
+import ve.edu.ucab.domain.repository.StorageFormat;
 import ve.edu.ucab.domain.security.Encrypter;
+import ve.edu.ucab.infrastructure.datasource.SnapshotFiles;
 import ve.edu.ucab.infrastructure.exceptions.UserFileNotFoundException;
 import ve.edu.ucab.domain.model.Asset;
 import ve.edu.ucab.domain.model.Transaction;
+import ve.edu.ucab.domain.model.UserChangeListener;
 
 // Java I/O and utility imports
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.IntToLongFunction;
 import java.time.LocalDate;
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
@@ -42,9 +49,10 @@ import com.google.gson.stream.JsonWriter;
 public class UserRepository extends Repository<User, String> {
 
   /**
-   * The list storing all user objects.
+   * Every user object, in the order they were registered. A lock-free queue, so
+   * lookups on other threads may register users while it is iterated.
    */
-  protected ArrayList<User> users;
+  protected final Queue<User> users = new ConcurrentLinkedQueue<>();
 
   /**
    * The encrypter used for password encryption and decryption.
@@ -61,6 +69,95 @@ public class UserRepository extends Repository<User, String> {
    */
   private static final String FILE = "data/users.json";
 
+  /**
+   * The file path for the append-only journal of user mutations.
+   */
+  private static final String JOURNAL_FILE = "data/users.journal";
+
+  /**
+   * The file path for the binary snapshot, used when the storage format is
+   * {@link StorageFormat#BINARY}.
+   */
+  private static final String BINARY_FILE = "data/users.bin";
+
+  /**
+   * The user file in the configured format, from which portfolios and histories are
+   * read on demand.
+   */
+  private final UserStore userStore = storageFormat == StorageFormat.BINARY
+      ? new BinaryUserFile(Paths.get(BINARY_FILE))
+      : new UserFile(Paths.get(FILE));
+
+  /**
+   * Whether mutations are journaled instead of rewriting the whole user file.
+   * Enabled by default; start the application with {@code -Dusers.journal=false}
+   * to rewrite {@link #FILE} on every change instead.
+   */
+  private static final boolean JOURNAL_ENABLED = Boolean.parseBoolean(System.getProperty("users.journal", "true"));
+
+  /**
+   * Whether the binary user file is opened through a memory mapping instead of being
+   * loaded. Only used with the binary format; start the application with
+   * {@code -Dusers.mapped=true} to enable it.
+   */
+  private static final boolean MAPPED_ENABLED = Boolean.parseBoolean(System.getProperty("users.mapped", "false"));
+
+  /**
+   * The binary user file when it is opened through a memory mapping, or {@code null}
+   * when every user is loaded at startup. While mapped, users are decoded the first
+   * time they are looked up.
+   */
+  private BinaryUserFile mappedStore;
+
+  /**
+   * The journal of user mutations, or {@code null} when journaling is disabled.
+   */
+  private UserJournal journal;
+
+  /**
+   * The maximum time in milliseconds a change waits before it is flushed to disk.
+   * Start the application with {@code -Dusers.flush.interval=N} to change it.
+   */
+  private static final long FLUSH_INTERVAL_MS = Long.getLong("users.flush.interval", 200);
+
+  /**
+   * The number of queued mutations that triggers a flush before the interval ends.
+   * Start the application with {@code -Dusers.flush.batch=N} to change it.
+   */
+  private static final int FLUSH_BATCH = Integer.getInteger("users.flush.batch", 64);
+
+  /**
+   * The group-commit writer that flushes changed users in the background, or
+   * {@code null} while the repository is being loaded.
+   */
+  private UserWriteBehind writer;
+
+  /**
+   * Serializes full rewrites of the user file when journaling is disabled.
+   */
+  private final Object writeLock = new Object();
+
+  /**
+   * The journal sequence number included in each user's snapshot, indexed by user ID.
+   */
+  private final Map<Integer, Long> snapshotSeq = new HashMap<>();
+
+  /**
+   * Index of users by username, kept in sync on registration and username changes.
+   */
+  private final ConcurrentHashMap<String, User> usersByUsername = new ConcurrentHashMap<>();
+
+  /**
+   * Index of users by ID.
+   */
+  private final ConcurrentHashMap<Integer, User> usersById = new ConcurrentHashMap<>();
+
+  /**
+   * The listener attached to every user, which keeps the indexes up to date and
+   * forwards each change to the journal.
+   */
+  private final UserChangeListener changeDispatcher = new ChangeDispatcher();
+
   /**
    * Private constructor to enforce Singleton pattern and initialize the user
    * list.
@@ -70,8 +167,100 @@ public class UserRepository extends Repository<User, String> {
    */
   private UserRepository() throws Exception {
     super();
-    this.users = this.data;
     loadData();
+    openJournal();
+    writer = new UserWriteBehind(this::flush, FLUSH_INTERVAL_MS, FLUSH_BATCH);
+  }
+
+  /**
+   * Makes a batch of changes durable: forces the journal to disk when journaling is
+   * enabled, otherwise rewrites the user file once for the whole batch.
+   *
+   * @param userIds the IDs of the users changed since the last flush
+   * @throws IOException if the changes cannot be written
+   */
+  private void flush(Set<Integer> userIds) throws IOException {
+    UserJournal current = journal;
+    if (current != null) {
+      current.sync();
+    } else {
+      writeSnapshot();
+    }
+  }
+
+  /**
+   * Rewrites the user file with the current state of every user. Explicit saves and
+   * background flushes never write the file at the same time.
+   *
+   * @throws IOException if the file cannot be written
+   */
+  private void writeSnapshot() throws IOException {
+    synchronized (writeLock) {
+      userStore.write(captureUsers(0, id -> 0), userStore);
+    }
+  }
+
+  /**
+   * Replays the journal on top of the loaded snapshot and, when journaling is
+   * enabled, starts recording every user mutation to it. When journaling is disabled
+   * any leftover journal is folded into the user file and removed.
+   *
+   * @throws IOException if the journal cannot be read or opened
+   */
+  private void openJournal() throws IOException {
+    UserJournal replayed = new UserJournal(Paths.get(JOURNAL_FILE), new UserJournal.Snapshotter() {
+      @Override
+      public List<UserSnapshot> capture(long seq, IntToLongFunction journaledSeq) {
+        return captureUsers(seq, journaledSeq);
+      }
+
+      @Override
+      public void write(List<UserSnapshot> snapshot) throws IOException {
+        userStore.write(snapshot, userStore);
+      }
+    });
+    long baseSeq = 0;
+    List<User> loaded = new ArrayList<>(users);
+    users.clear();
+    for (User user : loaded) {
+      register(user);
+    }
+    for (long seq : snapshotSeq.values()) {
+      baseSeq = Math.max(baseSeq, seq);
+    }
+    if (mappedStore != null) {
+      baseSeq = Math.max(baseSeq, mappedStore.mappedJournalSeq());
+    }
+    // Replayed renames keep the username index in sync through the change listener
+    int applied = replayed.replay(this::findById, snapshotSeq, baseSeq, this::register);
+    if (applied > 0) {
+      System.out.println("Cambios recuperados del diario: " + applied);
+    }
+    if (!JOURNAL_ENABLED) {
+      if (applied > 0) {
+        replayed.compact();
+      }
+      replayed.delete();
+      return;
+    }
+    replayed.open();
+    journal = replayed;
+  }
+
+  /**
+   * Folds any pending journaled change into the user file and releases the journal.
+   * Should be called when the application shuts down.
+   */
+  public void close() {
+    if (writer != null) {
+      writer.close();
+      System.out.println("Escritura de usuarios: " + writer.metrics());
+    }
+    if (journal != null) {
+      journal.close();
+      journal = null;
+    }
+    userStore.close();
   }
 
   /**
@@ -80,7 +269,7 @@ public class UserRepository extends Repository<User, String> {
    * @return the single instance of {@link UserRepository}
    * @throws Exception if an error occurs during instance creation
    */
-  public static UserRepository getInstance() throws Exception {
+  public static synchronized UserRepository getInstance() throws Exception {
     if (instance == null) {
       instance = new UserRepository();
     }
@@ -88,14 +277,31 @@ public class UserRepository extends Repository<User, String> {
   }
 
   /**
-   * Validates that the user data file exists.
+   * Creates a Gson builder with the streaming adapters for every user-related type,
+   * so portfolios and histories are written without reflection.
+   *
+   * @return a builder with the user adapters registered
+   */
+  static GsonBuilder gsonBuilder() {
+    return new GsonBuilder()
+        .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+        .registerTypeAdapter(Asset.class, new AssetAdapter())
+        .registerTypeAdapter(Transaction.class, new TransactionAdapter());
+  }
+
+  /**
+   * Validates that the user data file exists, either as JSON or as a binary
+   * snapshot, or that a previous generation of it can be restored.
    *
    * @throws UserFileNotFoundException if the file does not exist or is not a
    *                                   valid file
    */
   public static void validateUserFileExists() throws UserFileNotFoundException {
     File file = new File(FILE);
-    if (!file.exists() || !file.isFile()) {
+    File binaryFile = new File(BINARY_FILE);
+    boolean previous = SnapshotFiles.previous(file.toPath()).toFile().isFile()
+        || SnapshotFiles.previous(binaryFile.toPath()).toFile().isFile();
+    if ((!file.exists() || !file.isFile()) && !binaryFile.isFile() && !previous) {
       throw new UserFileNotFoundException("The user file was not found.");
     }
   }
@@ -108,12 +314,17 @@ public class UserRepository extends Repository<User, String> {
    */
   @Override
   public void addData(User newUser) throws ExistingUserException {
-    if (!existsData(newUser.getUsername())) {
-      users.add(newUser);
-      saveToFile(); // Save changes to file
-    } else {
-      throw new ExistingUserException("The user already exists in the database.");
+    // La verificación y el registro son atómicos: dos registros simultáneos no
+    // pueden tomar el mismo nombre de usuario
+    synchronized (this) {
+      if (existsData(newUser.getUsername()) || register(newUser) != newUser) {
+        throw new ExistingUserException("The user already exists in the database.");
+      }
     }
+    if (journal != null) {
+      journal.userAdded(newUser);
+    }
+    persist(newUser);
   }
 
   /**
@@ -138,52 +349,46 @@ public class UserRepository extends Repository<User, String> {
   }
 
   /**
-   * Loads user data from the JSON file specified in {@link #FILE} and populates
-   * the user list.
-   * Decrypts passwords using the {@link Encrypter} before adding users to the
-   * repository.
+   * Loads user data from the file of the configured storage format and populates
+   * the user list. When the binary format is selected and there is no binary
+   * snapshot yet, {@link #FILE} is imported into one first.
+   * Only the ID, username, password and balance of each user are kept in memory;
+   * portfolios and transaction histories are read from the file the first time
+   * they are needed and may be dropped again under memory pressure. The load time
+   * and allocated memory are logged.
+   * A missing, torn or damaged file is replaced by its previous generation. If there
+   * is a journal that no longer holds every change made since that generation,
+   * loading fails instead and both files are left for a manual repair.
+   * With {@code -Dusers.mapped=true} the binary snapshot is memory-mapped instead,
+   * and each user is decoded the first time it is looked up; a damaged snapshot is
+   * then loaded in full, so it falls back the same way.
    *
    * @throws RuntimeException if an error occurs while loading the file
    */
   @Override
   protected void loadFromSource() {
-    try (FileReader reader = new FileReader(FILE)) {
-      Gson gson = new GsonBuilder()
-          .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
-          .create();
-      JsonArray jsonArray = JsonParser.parseReader(reader).getAsJsonArray();
-
-      for (JsonElement element : jsonArray) {
-        try {
-          JsonObject obj = element.getAsJsonObject();
-
-          int id = obj.get("id").getAsInt();
-          String username = obj.get("username").getAsString();
-          String password = obj.get("password").getAsString();
-          double balance = obj.get("balance").getAsDouble();
-
-          // Leer portafolio
-          List<Asset> portfolio = new ArrayList<>();
-          if (obj.has("portfolio") && obj.get("portfolio").isJsonArray()) {
-            portfolio = gson.fromJson(obj.get("portfolio"), new TypeToken<List<Asset>>() {
-            }.getType());
-          }
-          // Leer historial de transacciones
-          List<Transaction> transactionHistory = new ArrayList<>();
-          if (obj.has("transactionHistory") && obj.get("transactionHistory").isJsonArray()) {
-            transactionHistory = gson.fromJson(obj.get("transactionHistory"), new TypeToken<List<Transaction>>() {
-            }.getType());
-          }
-
-          // Usar el nuevo método de User
-          users.add(ve.edu.ucab.domain.model.User.createNewUser(id, username, password, balance, portfolio,
-              transactionHistory));
-        } catch (Exception userEx) {
-          System.err.println("Error al cargar un usuario: " + userEx.getMessage());
-          userEx.printStackTrace();
-        }
+    long start = System.nanoTime();
+    long allocatedBefore = allocatedBytes();
+    try {
+      // Sin archivo actual, un commit se cortó entre sus dos renombrados: el diario no
+      // se recortó todavía, así que la generación anterior no pierde cambios
+      if (!userStore.exists() && userStore.restorePrevious()) {
+        System.err.println("No se encontró el archivo de usuarios; se restauró la generación anterior.");
+      }
+      if (storageFormat == StorageFormat.BINARY && !userStore.exists()) {
+        convert(new UserFile(Paths.get(FILE)), userStore);
+        System.out.println("Usuarios importados de " + FILE + " a " + BINARY_FILE);
       }
-      System.out.println("Total de usuarios cargados: " + users.size());
+      if (storageFormat == StorageFormat.BINARY && MAPPED_ENABLED && openMapped()) {
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("Usuarios mapeados: " + mappedStore.mappedCount() + " en " + elapsedMs + " ms");
+        return;
+      }
+      users.addAll(loadGeneration());
+      long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+      long allocatedMb = (allocatedBytes() - allocatedBefore) / (1024 * 1024);
+      System.out.println("Total de usuarios cargados: " + users.size() + " en " + elapsedMs + " ms"
+          + (allocatedBefore >= 0 ? " (" + allocatedMb + " MB asignados)" : ""));
     } catch (Exception e) {
       System.err.println("Error general al leer el archivo de usuarios:");
       e.printStackTrace();
@@ -192,80 +397,373 @@ public class UserRepository extends Repository<User, String> {
   }
 
   /**
-   * Checks if a user with the specified password exists in the repository.
+   * Loads the current generation of the user file. If it is torn or damaged, it is
+   * replaced by the generation kept by the last write, which is loaded instead.
+   * When there is a journal, its records are replayed on top of that generation, so
+   * it is only used if the journal still holds every change made since it. Without a
+   * journal, as when journaling is disabled, the changes of the last write are lost
+   * and a warning says so.
+   *
+   * @return the loaded users
+   * @throws IOException if the current generation cannot be loaded and the previous
+   *                     one cannot replace it
+   */
+  private List<User> loadGeneration() throws IOException {
+    try {
+      return userStore.load(snapshotSeq);
+    } catch (IOException | RuntimeException e) {
+      userStore.close();
+      snapshotSeq.clear();
+      Path previous = SnapshotFiles.previous(Paths.get(storageFormat == StorageFormat.BINARY ? BINARY_FILE : FILE));
+      if (!Files.isRegularFile(previous)) {
+        throw e;
+      }
+      boolean journaled = Files.exists(Paths.get(JOURNAL_FILE));
+      if (journaled && !journalCovers(previous)) {
+        throw new IOException("El archivo de usuarios está dañado (" + e.getMessage()
+            + ") y el diario ya no tiene los cambios posteriores a la generación anterior;"
+            + " hay que reparar el archivo a mano.", e);
+      }
+      userStore.restorePrevious();
+      System.err.println("El archivo de usuarios está dañado (" + e.getMessage()
+          + "); se restauró la generación anterior"
+          + (journaled ? " y se recuperarán sus cambios del diario."
+              : ". Sin diario, se pueden haber perdido los cambios guardados después de ella."));
+      return userStore.load(snapshotSeq);
+    }
+  }
+
+  /**
+   * Checks whether the previous generation of the user file can be replayed with the
+   * journal without losing changes: the journal must keep every record after a
+   * sequence number that each user of the previous generation already includes.
    *
-   * @param targetPassword the password to check
-   * @return {@code true} if a user with the password exists, {@code false}
+   * @param previous the previous generation
+   * @return {@code true} if the journal covers it
+   * @throws IOException if the journal or the previous generation cannot be read
+   */
+  private boolean journalCovers(Path previous) throws IOException {
+    long base = UserJournal.readBase(Paths.get(JOURNAL_FILE));
+    if (base < 0) {
+      return false;
+    }
+    UserStore previousStore = storageFormat == StorageFormat.BINARY
+        ? new BinaryUserFile(previous)
+        : new UserFile(previous);
+    Map<Integer, Long> previousSeq = new HashMap<>();
+    try {
+      for (User user : previousStore.load(previousSeq)) {
+        if (previousSeq.getOrDefault(user.getId(), 0L) < base) {
+          return false;
+        }
+      }
+      return true;
+    } finally {
+      previousStore.close();
+    }
+  }
+
+  /**
+   * Opens the binary user file through a memory mapping.
+   *
+   * @return {@code true} if the file was mapped, {@code false} if it has to be loaded
+   */
+  private boolean openMapped() {
+    BinaryUserFile binaryFile = (BinaryUserFile) userStore;
+    try {
+      binaryFile.openMapped();
+      mappedStore = binaryFile;
+      return true;
+    } catch (IOException e) {
+      System.err.println("No se pudo mapear el archivo de usuarios, se cargará completo: " + e.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * Adds a loaded or decoded user to the indexes and attaches the change listener.
+   *
+   * @param user the user to add
+   * @return the user, or the one already registered with the same ID
+   */
+  private synchronized User register(User user) {
+    User existing = usersById.putIfAbsent(user.getId(), user);
+    if (existing != null) {
+      return existing;
+    }
+    users.add(user);
+    usersByUsername.putIfAbsent(user.getUsername(), user);
+    user.setChangeListener(changeDispatcher);
+    return user;
+  }
+
+  /**
+   * Returns the number of bytes allocated so far by the current thread, or -1 when
+   * the JVM does not report it.
+   *
+   * @return the allocated bytes, or -1
+   */
+  private static long allocatedBytes() {
+    if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean) {
+      return bean.getCurrentThreadAllocatedBytes();
+    }
+    return -1;
+  }
+
+  /**
+   * Checks if a user with the specified username exists in the repository.
+   *
+   * @param username the username to check
+   * @return {@code true} if a user with the username exists, {@code false}
    *         otherwise
    */
   @Override
-  public boolean existsData(String targetPassword) {
-    for (User u : users) {
-      if (u.isSamePassword(targetPassword)) { // Removed encrypter usage
-        return true;
+  public boolean existsData(String username) {
+    return findByUsername(username) != null;
+  }
+
+  /**
+   * Finds the user with the specified username.
+   *
+   * @param username the username to look up
+   * @return the matching {@link User}, or {@code null} if there is none
+   */
+  public User findByUsername(String username) {
+    if (username == null) {
+      return null;
+    }
+    User user = usersByUsername.get(username);
+    if (user != null || mappedStore == null) {
+      return user;
+    }
+    User decoded = mappedStore.findMappedByUsername(username, snapshotSeq);
+    if (decoded == null) {
+      return null;
+    }
+    User existing = usersById.get(decoded.getId());
+    if (existing != null) {
+      // The user was renamed after the snapshot was written
+      return username.equals(existing.getUsername()) ? existing : null;
+    }
+    return register(decoded);
+  }
+
+  /**
+   * Finds the user with the specified ID.
+   *
+   * @param id the ID to look up
+   * @return the matching {@link User}, or {@code null} if there is none
+   */
+  public User findById(int id) {
+    User user = usersById.get(id);
+    if (user != null || mappedStore == null) {
+      return user;
+    }
+    User decoded = mappedStore.findMapped(id, snapshotSeq);
+    return decoded != null ? register(decoded) : null;
+  }
+
+  /**
+   * Counts the users in the repository without decoding the ones that are still
+   * only in the mapped user file.
+   *
+   * @return the number of users
+   */
+  public synchronized int count() {
+    if (mappedStore == null) {
+      return usersById.size();
+    }
+    int count = mappedStore.mappedCount();
+    for (User user : users) {
+      if (!mappedStore.mappedContains(user.getId())) {
+        count++;
       }
     }
-    return false;
+    return count;
   }
 
   /**
-   * Saves the user data to the JSON file specified in {@link #FILE}.
-   * Encrypts passwords using the {@link Encrypter} before saving.
+   * Saves the user data to the file of the configured storage format.
+   * When journaling is enabled this folds the journal into a new snapshot.
    *
    * @throws RuntimeException if an error occurs while saving the file
    */
   public void saveToFile() {
-    JsonArray jsonArray = new JsonArray();
-    Gson gson = new GsonBuilder()
-        .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
-        .setPrettyPrinting().create();
-
-    for (User user : users) {
-      JsonObject obj = new JsonObject();
-      obj.addProperty("id", user.getId());
-      obj.addProperty("username", user.getUsername());
-      obj.addProperty("password", user.getPassword());
-      obj.addProperty("balance", user.getBalance());
-      // Serializar portafolio
-      obj.add("portfolio", gson.toJsonTree(user.getPortfolio()));
-      // Serializar historial
-      obj.add("transactionHistory", gson.toJsonTree(user.getTransactionHistory()));
-      jsonArray.add(obj);
-    }
-
-    try (FileWriter writer = new FileWriter(FILE)) {
-      gson.toJson(jsonArray, writer);
+    if (journal != null) {
+      journal.compact();
+      return;
+    }
+    try {
+      writeSnapshot();
     } catch (IOException e) {
       throw new RuntimeException("Error saving users to file: " + e.getMessage(), e);
     }
   }
 
+  /**
+   * Copies every user from one store into another, keeping each user's journal
+   * sequence number, so snapshots can move losslessly between formats.
+   *
+   * @param source the store to read
+   * @param target the store to write
+   * @throws IOException if either file cannot be accessed
+   */
+  static void convert(UserStore source, UserStore target) throws IOException {
+    Map<Integer, Long> seqs = new HashMap<>();
+    try {
+      List<User> loaded = source.load(seqs);
+      List<UserSnapshot> snapshot = new ArrayList<>(loaded.size());
+      for (User user : loaded) {
+        snapshot.add(UserSnapshot.capture(user, seqs.getOrDefault(user.getId(), 0L)));
+      }
+      target.write(snapshot, source);
+    } finally {
+      source.close();
+      target.close();
+    }
+  }
+
+  /**
+   * Captures every user for a snapshot, recording the journal sequence number each
+   * user's snapshot includes. Each user is captured under its read lock, so a trade
+   * in progress is either wholly included or not at all.
+   *
+   * @param seq          the sequence number of the last journal record included for
+   *                     every user, or 0
+   * @param journaledSeq gives the sequence number of the last journal record of a
+   *                     user ID, or 0
+   * @return the captured users
+   */
+  private List<UserSnapshot> captureUsers(long seq, IntToLongFunction journaledSeq) {
+    List<User> all = getAllData();
+    List<UserSnapshot> snapshot = new ArrayList<>(all.size());
+    for (User user : all) {
+      snapshot.add(user.readLocked(
+          () -> UserSnapshot.capture(user, Math.max(seq, journaledSeq.applyAsLong(user.getId())))));
+    }
+    return snapshot;
+  }
+
   /**
    * Retrieves all users stored in the repository.
    *
-   * @return an {@link ArrayList} containing all {@link User} objects in the
-   *         repository
+   * @return a copy of the list of all {@link User} objects in the repository, in the
+   *         order they were registered
    */
   public ArrayList<User> getAllData() {
-    return users;
+    if (mappedStore != null) {
+      // Decodes the headers of the users that were not looked up yet
+      for (int i = 0, count = mappedStore.mappedCount(); i < count; i++) {
+        findById(mappedStore.mappedId(i));
+      }
+    }
+    return new ArrayList<>(users);
   }
 
   /**
    * Updates an existing user in the repository with the provided updated user
    * data.
    * Only the username is updated; password and balance remain unchanged.
+   * The changes are written by the background writer together with any other
+   * change made before the next flush, so this never waits for file I/O.
    *
    * @param updatedUser the {@link User} object containing updated data
+   * @return a future completed once the user's changes are on disk
    */
-  public void updateUser(User updatedUser) {
-    for (User user : users) {
-      if (user.getId() == updatedUser.getId()) {
-        user.setUsername(updatedUser.getUsername());
-        // Ensure password and balance remain unchanged unless explicitly updated
-        break;
+  public CompletableFuture<Void> updateUser(User updatedUser) {
+    User user = usersById.get(updatedUser.getId());
+    if (user == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+    // Renaming the stored user updates the username index through its listener
+    user.setUsername(updatedUser.getUsername());
+    // Ensure password and balance remain unchanged unless explicitly updated
+    return persist(user);
+  }
+
+  /**
+   * Gets the queue depth, batch size and flush latency of the background writer.
+   *
+   * @return the current metrics
+   */
+  public PersistenceMetrics getPersistenceMetrics() {
+    return writer.metrics();
+  }
+
+  /**
+   * Queues a changed user for the next flush.
+   *
+   * @param user the changed user
+   * @return a future completed once the change is on disk
+   */
+  private CompletableFuture<Void> persist(User user) {
+    UserWriteBehind current = writer;
+    return current != null ? current.submit(user) : CompletableFuture.completedFuture(null);
+  }
+
+  /**
+   * Keeps the username index in sync with renames, forwards every user change to
+   * the journal when journaling is enabled and queues the user for the next flush.
+   */
+  private class ChangeDispatcher implements UserChangeListener {
+
+    @Override
+    public void balanceChanged(User user) {
+      if (journal != null) {
+        journal.balanceChanged(user);
+      }
+      persist(user);
+    }
+
+    @Override
+    public void usernameChanged(User user, String oldUsername) {
+      usersByUsername.remove(oldUsername, user);
+      usersByUsername.putIfAbsent(user.getUsername(), user);
+      if (journal != null) {
+        journal.usernameChanged(user, oldUsername);
+      }
+      persist(user);
+    }
+
+    @Override
+    public void passwordChanged(User user) {
+      if (journal != null) {
+        journal.passwordChanged(user);
+      }
+      persist(user);
+    }
+
+    @Override
+    public void lotAdded(User user, Asset lot) {
+      if (journal != null) {
+        journal.lotAdded(user, lot);
+      }
+      persist(user);
+    }
+
+    @Override
+    public void lotReduced(User user, String ticker, int lotIndex, double amountSold) {
+      if (journal != null) {
+        journal.lotReduced(user, ticker, lotIndex, amountSold);
+      }
+      persist(user);
+    }
+
+    @Override
+    public void lotsRepriced(User user, String ticker, double purchasePrice) {
+      if (journal != null) {
+        journal.lotsRepriced(user, ticker, purchasePrice);
+      }
+      persist(user);
+    }
+
+    @Override
+    public void transactionAdded(User user, Transaction transaction) {
+      if (journal != null) {
+        journal.transactionAdded(user, transaction);
       }
+      persist(user);
     }
-    saveToFile();
   }
 }
 
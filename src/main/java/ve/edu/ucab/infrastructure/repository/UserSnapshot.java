@@ -0,0 +1,150 @@
+package ve.edu.ucab.infrastructure.repository;
+
+// Domain model imports
+import ve.edu.ucab.domain.model.Asset;
+import ve.edu.ucab.domain.model.Transaction;
+import ve.edu.ucab.domain.model.User;
+
+// Java utility imports
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The state of a single user captured for a snapshot of the user file. Capturing is
+ * cheap for users whose portfolio and history were never modified: those are copied
+ * from the current user file when the snapshot is written.
+ */
+final class UserSnapshot {
+
+  /**
+   * The unique identifier of the user.
+   */
+  private final int id;
+
+  /**
+   * The username at capture time.
+   */
+  private final String username;
+
+  /**
+   * The password at capture time.
+   */
+  private final String password;
+
+  /**
+   * The balance at capture time.
+   */
+  private final double balance;
+
+  /**
+   * The journal sequence number included in the snapshot, or 0.
+   */
+  private final long journalSeq;
+
+  /**
+   * A copy of the portfolio, or {@code null} if it is unchanged in the user file.
+   */
+  private final List<Asset> portfolio;
+
+  /**
+   * A copy of the history, or {@code null} if it is unchanged in the user file.
+   */
+  private final List<Transaction> transactionHistory;
+
+  /**
+   * Private constructor to initialize a captured user.
+   *
+   * @param user       the user to capture
+   * @param journalSeq the journal sequence number included in the snapshot
+   */
+  private UserSnapshot(User user, long journalSeq) {
+    this.id = user.getId();
+    this.username = user.getUsername();
+    this.password = user.getPassword();
+    this.balance = user.getBalance();
+    this.journalSeq = journalSeq;
+    if (user.isDetailsModified()) {
+      // Ninguno de los dos cambia después: los lotes son objetos nuevos y el historial
+      // es una vista acotada a su tamaño actual
+      this.portfolio = new ArrayList<>(user.getPortfolio());
+      this.transactionHistory = user.getTransactionHistory();
+    } else {
+      this.portfolio = null;
+      this.transactionHistory = null;
+    }
+  }
+
+  /**
+   * Captures the current state of a user.
+   *
+   * @param user       the user to capture
+   * @param journalSeq the journal sequence number included in the snapshot, or 0
+   * @return the captured state
+   */
+  static UserSnapshot capture(User user, long journalSeq) {
+    return new UserSnapshot(user, journalSeq);
+  }
+
+  /**
+   * Gets the unique identifier of the user.
+   *
+   * @return the user's ID
+   */
+  int getId() {
+    return id;
+  }
+
+  /**
+   * Gets the captured username.
+   *
+   * @return the username
+   */
+  String getUsername() {
+    return username;
+  }
+
+  /**
+   * Gets the captured password.
+   *
+   * @return the password
+   */
+  String getPassword() {
+    return password;
+  }
+
+  /**
+   * Gets the captured balance.
+   *
+   * @return the balance
+   */
+  double getBalance() {
+    return balance;
+  }
+
+  /**
+   * Gets the journal sequence number included in the snapshot.
+   *
+   * @return the sequence number, or 0
+   */
+  long getJournalSeq() {
+    return journalSeq;
+  }
+
+  /**
+   * Gets the captured portfolio.
+   *
+   * @return a copy of the portfolio, or {@code null} if it is unchanged in the user file
+   */
+  List<Asset> getPortfolio() {
+    return portfolio;
+  }
+
+  /**
+   * Gets the captured transaction history.
+   *
+   * @return a copy of the history, or {@code null} if it is unchanged in the user file
+   */
+  List<Transaction> getTransactionHistory() {
+    return transactionHistory;
+  }
+}
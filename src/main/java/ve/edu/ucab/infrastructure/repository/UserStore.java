@@ -0,0 +1,58 @@
+package ve.edu.ucab.infrastructure.repository;
+
+// Domain model imports
+import ve.edu.ucab.domain.model.User;
+import ve.edu.ucab.domain.model.UserDetailsLoader;
+
+// Java I/O and utility imports
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A file format for the users snapshot. Implementations load users lazily, reading
+ * portfolios and histories on demand, and replace the whole file when a new snapshot
+ * is written.
+ */
+interface UserStore extends UserDetailsLoader {
+
+  /**
+   * Checks whether the file of this store exists.
+   *
+   * @return {@code true} if there is a snapshot to load
+   */
+  boolean exists();
+
+  /**
+   * Reads the file and creates a lazily loaded user for every record in it.
+   *
+   * @param snapshotSeq receives the journal sequence number included for each user
+   * @return the users in file order
+   * @throws IOException if the file cannot be read
+   */
+  List<User> load(Map<Integer, Long> snapshotSeq) throws IOException;
+
+  /**
+   * Writes a snapshot of every user and makes it the current generation of the file.
+   *
+   * @param snapshot the captured users, in the order they are written
+   * @param previous the loader used for users whose details were not captured;
+   *                 usually this store itself
+   * @throws IOException if the snapshot cannot be written
+   */
+  void write(List<UserSnapshot> snapshot, UserDetailsLoader previous) throws IOException;
+
+  /**
+   * Replaces a missing or damaged file with the generation kept by the last write.
+   *
+   * @return {@code true} if the previous generation was restored, {@code false} if
+   *         there is none
+   * @throws IOException if the previous generation cannot be restored
+   */
+  boolean restorePrevious() throws IOException;
+
+  /**
+   * Releases the file of the current generation.
+   */
+  void close();
+}
@@ -0,0 +1,195 @@
+package ve.edu.ucab.infrastructure.repository;
+
+// Domain model imports
+import ve.edu.ucab.domain.model.User;
+
+// Java I/O and utility imports
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A group-commit writer for user changes. Callers mark users as dirty and get a
+ * future that completes once their changes are on disk; a single background thread
+ * coalesces the dirty users and flushes them in one batch every interval, or as soon
+ * as enough mutations are queued. Callers therefore never wait for file I/O.
+ */
+class UserWriteBehind {
+
+  /**
+   * Persists a batch of dirty users. Always called from the writer thread, one batch
+   * at a time.
+   */
+  interface Flusher {
+
+    /**
+     * Makes every change to the given users durable.
+     *
+     * @param userIds the IDs of the users changed since the last flush
+     * @throws IOException if the changes cannot be written
+     */
+    void flush(Set<Integer> userIds) throws IOException;
+  }
+
+  /**
+   * The callback that writes each batch.
+   */
+  private final Flusher flusher;
+
+  /**
+   * The number of queued mutations that triggers a flush without waiting for the
+   * interval.
+   */
+  private final int maxMutations;
+
+  /**
+   * The thread that flushes batches.
+   */
+  private final ScheduledExecutorService executor;
+
+  /**
+   * The IDs of the users changed since the last flush, in order of first change.
+   */
+  private Set<Integer> dirty = new LinkedHashSet<>();
+
+  /**
+   * The number of mutations queued since the last flush.
+   */
+  private int pendingMutations;
+
+  /**
+   * The future completed by the next flush.
+   */
+  private CompletableFuture<Void> pending = new CompletableFuture<>();
+
+  /**
+   * Whether a flush was already requested because the batch is full.
+   */
+  private boolean flushRequested;
+
+  /**
+   * Whether the writer was closed.
+   */
+  private boolean closed;
+
+  /**
+   * Counters behind {@link #metrics()}.
+   */
+  private long batches;
+  private long failedBatches;
+  private long flushedUsers;
+  private int lastBatchSize;
+  private long lastFlushNanos;
+  private long maxFlushNanos;
+  private long totalFlushNanos;
+
+  /**
+   * Creates the writer and starts its background thread.
+   *
+   * @param flusher      the callback that writes each batch
+   * @param intervalMs   the maximum time in milliseconds a change waits for its flush
+   * @param maxMutations the number of queued mutations that triggers an early flush
+   */
+  UserWriteBehind(Flusher flusher, long intervalMs, int maxMutations) {
+    this.flusher = flusher;
+    this.maxMutations = maxMutations;
+    executor = Executors.newSingleThreadScheduledExecutor(UserJournal.daemon("users-writer"));
+    executor.scheduleWithFixedDelay(this::flush, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Marks a user as changed.
+   *
+   * @param user the changed user
+   * @return a future completed once the change is flushed, or completed exceptionally
+   *         if the flush fails
+   */
+  synchronized CompletableFuture<Void> submit(User user) {
+    if (closed) {
+      return CompletableFuture.completedFuture(null);
+    }
+    dirty.add(user.getId());
+    if (++pendingMutations >= maxMutations && !flushRequested) {
+      flushRequested = true;
+      executor.execute(this::flush);
+    }
+    return pending;
+  }
+
+  /**
+   * Flushes the current batch, if any. Runs on the writer thread, or on the closing
+   * thread once the writer thread has stopped.
+   */
+  private void flush() {
+    Set<Integer> batch;
+    CompletableFuture<Void> done;
+    synchronized (this) {
+      flushRequested = false;
+      if (dirty.isEmpty()) {
+        return;
+      }
+      batch = dirty;
+      done = pending;
+      dirty = new LinkedHashSet<>();
+      pending = new CompletableFuture<>();
+      pendingMutations = 0;
+    }
+    long start = System.nanoTime();
+    try {
+      flusher.flush(batch);
+      recordFlush(batch.size(), System.nanoTime() - start, false);
+      done.complete(null);
+    } catch (IOException | RuntimeException e) {
+      recordFlush(batch.size(), System.nanoTime() - start, true);
+      System.err.println("Error guardando los cambios de " + batch.size() + " usuarios: " + e.getMessage());
+      done.completeExceptionally(e);
+    }
+  }
+
+  private synchronized void recordFlush(int size, long nanos, boolean failed) {
+    batches++;
+    if (failed) {
+      failedBatches++;
+    }
+    flushedUsers += size;
+    lastBatchSize = size;
+    lastFlushNanos = nanos;
+    maxFlushNanos = Math.max(maxFlushNanos, nanos);
+    totalFlushNanos += nanos;
+  }
+
+  /**
+   * Gets the current queue depth and the batch size and latency statistics.
+   *
+   * @return the metrics of the writer
+   */
+  synchronized PersistenceMetrics metrics() {
+    return new PersistenceMetrics(dirty.size(), batches, failedBatches, lastBatchSize,
+        batches > 0 ? (double) flushedUsers / batches : 0, lastFlushNanos / 1000, maxFlushNanos / 1000,
+        batches > 0 ? totalFlushNanos / 1000.0 / batches : 0);
+  }
+
+  /**
+   * Stops the writer thread and flushes the last batch on the calling thread.
+   * Changes submitted afterwards are not tracked.
+   */
+  void close() {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+    }
+    executor.shutdown();
+    try {
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+  }
+}
@@ -1,79 +1,179 @@
 package ve.edu.ucab.presentation.controller;
 
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
+import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
-import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.util.Duration;
-import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.scene.control.Button;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Polyline;
 import javafx.stage.Stage;
 import ve.edu.ucab.domain.model.AssetManager;
+import ve.edu.ucab.domain.model.BarResolution;
 import ve.edu.ucab.domain.model.CatalogAsset;
-import ve.edu.ucab.domain.model.SimuladorPrecios;
+import ve.edu.ucab.domain.model.PriceDelta;
+import ve.edu.ucab.domain.model.PriceEngine;
+import ve.edu.ucab.presentation.model.CatalogAssetRow;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
 
 public class CatalogoController {
   @FXML
-  private TableView<CatalogAsset> tablaActivos;
+  private TableView<CatalogAssetRow> tablaActivos;
+  @FXML
+  private TableColumn<CatalogAssetRow, String> colNombre;
   @FXML
-  private TableColumn<CatalogAsset, String> colNombre;
+  private TableColumn<CatalogAssetRow, String> colTicker;
   @FXML
-  private TableColumn<CatalogAsset, String> colTicker;
+  private TableColumn<CatalogAssetRow, String> colTipo;
   @FXML
-  private TableColumn<CatalogAsset, String> colTipo;
+  private TableColumn<CatalogAssetRow, Number> colPrecio;
   @FXML
-  private TableColumn<CatalogAsset, Double> colPrecio;
+  private TableColumn<CatalogAssetRow, Number> colVolatilidad;
   @FXML
-  private TableColumn<CatalogAsset, Double> colVolatilidad;
+  private TableColumn<CatalogAssetRow, Number> colTendencia;
   @FXML
   private Button volverButton;
 
-  private ObservableList<CatalogAsset> activosObservable;
-  private SimuladorPrecios simulador;
-  private Timeline timeline;
+  // Barras de un segundo que muestra cada minigráfico
+  private static final int PUNTOS_TENDENCIA = 30;
+  private static final double ANCHO_TENDENCIA = 80;
+  private static final double ALTO_TENDENCIA = 16;
+
+  private final ObservableList<CatalogAssetRow> filas = FXCollections.observableArrayList();
+  private final Map<String, CatalogAssetRow> filasPorTicker = new HashMap<>();
+  // Lista del catálogo que muestran las filas; cambia cuando se recarga assets.json
+  private List<CatalogAsset> catalogoMostrado;
+  private Flow.Subscription suscripcion;
+  private boolean cerrada;
 
   @FXML
   public void initialize() {
-    colNombre.setCellValueFactory(new PropertyValueFactory<>("assetName"));
-    colTicker.setCellValueFactory(new PropertyValueFactory<>("ticker"));
-    colTipo.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getAssetType().name()));
-    colPrecio.setCellValueFactory(new PropertyValueFactory<>("currentPrice"));
-    colVolatilidad.setCellValueFactory(new PropertyValueFactory<>("volatility"));
+    // Cada celda escucha solo la propiedad de su fila: un cambio de precio repinta esa celda
+    colNombre.setCellValueFactory(cellData -> cellData.getValue().assetNameProperty());
+    colTicker.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getTicker()));
+    colTipo.setCellValueFactory(cellData -> cellData.getValue().assetTypeProperty());
+    colPrecio.setCellValueFactory(cellData -> cellData.getValue().currentPriceProperty());
+    colVolatilidad.setCellValueFactory(cellData -> cellData.getValue().volatilityProperty());
+    colTendencia.setCellValueFactory(cellData -> cellData.getValue().currentPriceProperty());
+    colTendencia.setCellFactory(column -> new TendenciaCell());
+    tablaActivos.setItems(filas);
     cargarActivos();
-    simulador = new SimuladorPrecios(AssetManager.getInstance().getCatalogAssets());
-    timeline = new Timeline(new KeyFrame(Duration.seconds(5), e -> refrescarAutomatico()));
-    timeline.setCycleCount(Timeline.INDEFINITE);
-    timeline.play();
+    // La tabla se refresca cuando cambian precios; los cambios que llegan mientras
+    // la pantalla está ocupada se acumulan en uno solo
+    PriceEngine.getInstance().getTicks().subscribe(new Flow.Subscriber<PriceDelta>() {
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        suscripcion = subscription;
+        if (cerrada) {
+          subscription.cancel();
+          return;
+        }
+        subscription.request(1);
+      }
+
+      @Override
+      public void onNext(PriceDelta cambios) {
+        aplicarCambios(cambios);
+        suscripcion.request(1);
+      }
+
+      @Override
+      public void onError(Throwable error) {
+        System.err.println("Error recibiendo los precios: " + error.getMessage());
+      }
+
+      @Override
+      public void onComplete() {
+      }
+    }, Platform::runLater);
   }
 
+  // Sincroniza las filas con el catálogo; las filas de tickers que siguen se reutilizan
   private void cargarActivos() {
-    activosObservable = FXCollections.observableArrayList(AssetManager.getInstance().getCatalogAssets());
-    tablaActivos.setItems(activosObservable);
+    catalogoMostrado = AssetManager.getInstance().getCatalogAssets();
+    List<CatalogAssetRow> nuevas = new ArrayList<>(catalogoMostrado.size());
+    Map<String, CatalogAssetRow> anteriores = new HashMap<>(filasPorTicker);
+    filasPorTicker.clear();
+    for (CatalogAsset activo : catalogoMostrado) {
+      CatalogAssetRow fila = anteriores.remove(activo.getTicker());
+      if (fila == null) {
+        fila = new CatalogAssetRow(activo);
+      } else {
+        fila.update(activo);
+      }
+      if (filasPorTicker.putIfAbsent(activo.getTicker(), fila) == null) {
+        nuevas.add(fila);
+      }
+    }
+    filas.setAll(nuevas);
   }
 
   @FXML
   private void handleRefrescar() {
-    simulador.simularCambioPrecios();
     cargarActivos();
-    tablaActivos.refresh();
   }
 
-  private void refrescarAutomatico() {
-    simulador.simularCambioPrecios();
-    cargarActivos();
-    tablaActivos.refresh();
+  // Un tick cambia solo los precios de sus filas; la tabla no se reconstruye
+  private void aplicarCambios(PriceDelta cambios) {
+    if (AssetManager.getInstance().getCatalogAssets() != catalogoMostrado || !cambios.removed().isEmpty()) {
+      cargarActivos();
+    }
+    for (Map.Entry<String, Double> cambio : cambios.prices().entrySet()) {
+      CatalogAssetRow fila = filasPorTicker.get(cambio.getKey());
+      if (fila != null) {
+        fila.setCurrentPrice(cambio.getValue());
+      }
+    }
+  }
+
+  // Minigráfico con los últimos cierres del activo; se redibuja cuando cambia su precio
+  private static class TendenciaCell extends TableCell<CatalogAssetRow, Number> {
+    @Override
+    protected void updateItem(Number precio, boolean empty) {
+      super.updateItem(precio, empty);
+      CatalogAssetRow fila = empty || getTableRow() == null ? null : getTableRow().getItem();
+      double[] cierres = fila == null ? new double[0]
+          : PriceEngine.getInstance().getBars().getCloses(fila.getTicker(), BarResolution.SECOND, PUNTOS_TENDENCIA);
+      if (cierres.length < 2) {
+        setGraphic(null);
+        return;
+      }
+      double min = Double.MAX_VALUE;
+      double max = -Double.MAX_VALUE;
+      for (double cierre : cierres) {
+        min = Math.min(min, cierre);
+        max = Math.max(max, cierre);
+      }
+      double rango = max > min ? max - min : 1;
+      Polyline linea = new Polyline();
+      for (int i = 0; i < cierres.length; i++) {
+        linea.getPoints().addAll(i * ANCHO_TENDENCIA / (PUNTOS_TENDENCIA - 1),
+            ALTO_TENDENCIA - (cierres[i] - min) / rango * ALTO_TENDENCIA);
+      }
+      // Verde si subió en el período, rojo si bajó
+      linea.setStroke(cierres[cierres.length - 1] >= cierres[0] ? Color.web("#2e9e4f") : Color.web("#d64545"));
+      setGraphic(linea);
+    }
   }
 
   @FXML
   private void handleVolver() {
-    timeline.stop();
+    cerrada = true;
+    if (suscripcion != null) {
+      suscripcion.cancel();
+    }
     try {
       FXMLLoader loader = new FXMLLoader(getClass().getResource("/presentation/view/main.fxml"));
       Parent mainRoot = loader.load();
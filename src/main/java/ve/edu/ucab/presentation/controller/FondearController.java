@@ -1,5 +1,6 @@
 package ve.edu.ucab.presentation.controller;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -40,7 +41,13 @@ public class FondearController {
       }
       usuario.increaseBalance(monto);
       try {
-        UserRepository.getInstance().updateUser(usuario);
+        // El guardado ocurre en segundo plano; solo se avisa si falla
+        UserRepository.getInstance().updateUser(usuario).whenComplete((ignorado, error) -> {
+          if (error != null) {
+            error.printStackTrace();
+            Platform.runLater(() -> mensajeLabel.setText("Error al guardar el saldo en el archivo."));
+          }
+        });
       } catch (Exception e) {
         mensajeLabel.setText("Error al guardar el saldo en el archivo.");
         e.printStackTrace();
@@ -31,20 +31,21 @@ public class HistorialController {
     usuario = SessionManager.getCurrentUser();
     if (usuario == null)
       return;
+    // Cada fila es una vista ligera sobre el historial columnar del usuario
     List<Transaction> historial = usuario.getTransactionHistory();
     ObservableList<Transaction> data = FXCollections.observableArrayList(historial);
     tablaHistorial.setItems(data);
     colFecha.setCellValueFactory(
         cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getDateRelease().toString()));
     colTipo.setCellValueFactory(cellData -> {
-      String tipo = cellData.getValue().getTransactionType();
-      if ("BUY".equals(tipo))
+      TransactionType tipo = cellData.getValue().getType();
+      if (tipo == TransactionType.BUY)
         return new javafx.beans.property.SimpleStringProperty("Compra");
-      if ("SELL".equals(tipo))
+      if (tipo == TransactionType.SELL)
         return new javafx.beans.property.SimpleStringProperty("Venta");
-      if ("DEPOSIT".equals(tipo))
+      if (tipo == TransactionType.DEPOSIT)
         return new javafx.beans.property.SimpleStringProperty("Depósito");
-      return new javafx.beans.property.SimpleStringProperty(tipo);
+      return new javafx.beans.property.SimpleStringProperty(cellData.getValue().getTransactionType());
     });
     colActivo.setCellValueFactory(
         cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getAssetTicker()));
@@ -52,7 +53,7 @@ public class HistorialController {
         cellData -> new javafx.beans.property.SimpleDoubleProperty(cellData.getValue().getAmount()).asObject());
     colMonto.setCellValueFactory(cellData -> {
       // Para depósitos, el monto es la cantidad
-      if (cellData.getValue().getTransactionType().equals("DEPOSIT")) {
+      if (cellData.getValue().getType() == TransactionType.DEPOSIT) {
         return new javafx.beans.property.SimpleDoubleProperty(cellData.getValue().getAmount()).asObject();
       } else {
         // Para compra/venta, monto = cantidad * precio unitario de la transacción
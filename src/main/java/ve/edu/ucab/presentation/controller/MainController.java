@@ -8,11 +8,6 @@ import ve.edu.ucab.presentation.util.SessionManager;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.Parent;
 import javafx.fxml.FXMLLoader;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.util.Duration;
-import ve.edu.ucab.domain.model.AssetManager;
-import ve.edu.ucab.domain.model.SimuladorPrecios;
 
 public class MainController {
     @FXML
@@ -24,8 +19,6 @@ public class MainController {
 
     private User user;
     private boolean initialized = false;
-    private Timeline timeline;
-    private SimuladorPrecios simulador;
 
     public void setUser(User user) {
         this.user = user;
@@ -51,15 +44,7 @@ public class MainController {
             cardBalanceLabel.setText(String.format("%.2f", user.getBalance()));
             usernameLabel.setText(user.getUsername());
         }
-        // Refresco automático de precios
-        simulador = new SimuladorPrecios(AssetManager.getInstance().getCatalogAssets());
-        timeline = new Timeline(new KeyFrame(Duration.seconds(5), e -> refrescarPrecios()));
-        timeline.setCycleCount(Timeline.INDEFINITE);
-        timeline.play();
-    }
-
-    private void refrescarPrecios() {
-        simulador.simularCambioPrecios();
+        // Los precios los avanza el PriceEngine, no esta pantalla
     }
 
     @FXML
@@ -20,6 +20,7 @@ public class PerfilController {
     @FXML private Label nombreLabel;
     @FXML private Label passwordLabel;
     @FXML private Label saldoLabel;
+    @FXML private Label mensajeLabel;
 
     @FXML
     public void initialize() {
@@ -57,14 +58,29 @@ public class PerfilController {
             dialog.setHeaderText("Cambiar nombre de usuario");
             dialog.setContentText("Nuevo nombre:");
             Optional<String> result = dialog.showAndWait();
+            String oldName = user.getUsername();
             result.ifPresent(newName -> {
                 if (!newName.trim().isEmpty()) {
-                    user.setUsername(newName.trim());
-                    nombreLabel.setText(newName.trim());
                     try {
-                        UserRepository.getInstance().updateUser(user);
+                        UserRepository repository = UserRepository.getInstance();
+                        if (!user.isSameUsername(newName.trim()) && repository.existsData(newName.trim())) {
+                            // El nombre ya es de otro usuario: se deja el anterior
+                            nombreLabel.setText(oldName);
+                            mensajeLabel.setText("El nombre de usuario \"" + newName.trim() + "\" ya está en uso.");
+                            return;
+                        }
+                        user.setUsername(newName.trim());
+                        nombreLabel.setText(newName.trim());
+                        mensajeLabel.setText("");
+                        repository.updateUser(user).whenComplete((ignored, error) -> {
+                            if (error != null) {
+                                System.err.println("Error updating the user: " + error.getMessage());
+                            }
+                        });
                     } catch (Exception e) {
                         System.err.println("Error updating the user: " + e.getMessage());
+                        nombreLabel.setText(user.getUsername());
+                        mensajeLabel.setText("No se pudo cambiar el nombre de usuario.");
                     }
                 }
             });
@@ -91,7 +107,11 @@ public class PerfilController {
                     String newPassword = newResult.get();
                     try {
                         user.changePassword(oldPassword, newPassword);
-                        UserRepository.getInstance().saveToFile();
+                        UserRepository.getInstance().updateUser(user).whenComplete((ignored, error) -> {
+                            if (error != null) {
+                                System.err.println("Error guardando el usuario: " + error.getMessage());
+                            }
+                        });
                         // Opcional: mostrar mensaje de éxito
                     } catch (InvalidPasswordException e) {
                         // Opcional: mostrar mensaje de error
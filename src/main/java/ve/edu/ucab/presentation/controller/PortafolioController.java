@@ -1,95 +1,123 @@
 package ve.edu.ucab.presentation.controller;
 
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.chart.PieChart;
 import ve.edu.ucab.domain.model.*;
+import ve.edu.ucab.presentation.model.PositionRow;
 import ve.edu.ucab.presentation.util.SessionManager;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Flow;
 import javafx.application.Platform;
 
 public class PortafolioController {
   @FXML
-  private TableView<Asset> tablaPortafolio;
+  private TableView<PositionRow> tablaPortafolio;
   @FXML
-  private TableColumn<Asset, String> colNombre;
+  private TableColumn<PositionRow, String> colNombre;
   @FXML
-  private TableColumn<Asset, String> colTicker;
+  private TableColumn<PositionRow, String> colTicker;
   @FXML
-  private TableColumn<Asset, Double> colCantidad;
+  private TableColumn<PositionRow, Number> colCantidad;
   @FXML
-  private TableColumn<Asset, Double> colValorActual;
+  private TableColumn<PositionRow, Number> colValorActual;
   @FXML
-  private TableColumn<Asset, Double> colValorInvertido;
+  private TableColumn<PositionRow, Number> colValorInvertido;
   @FXML
-  private TableColumn<Asset, Double> colGanancia;
+  private TableColumn<PositionRow, Number> colGanancia;
   @FXML
   private Button volverButton;
   @FXML
   private PieChart pieChart;
 
   private User usuario;
+  private PortfolioValuation valoracion;
+  // Una fila y una porción del gráfico por ticker, actualizadas en su lugar
+  private final Map<String, PositionRow> filasPorTicker = new HashMap<>();
+  private final Map<String, PieChart.Data> porcionesPorTicker = new HashMap<>();
+  private Flow.Subscription suscripcion;
+  private boolean cerrada;
 
   @FXML
   public void initialize() {
+    volverButton.setOnAction(e -> handleVolver());
     usuario = SessionManager.getCurrentUser();
     if (usuario == null)
       return;
-    List<Asset> lotes = usuario.getPortfolio();
-    ObservableList<Asset> data = FXCollections.observableArrayList(lotes);
-    tablaPortafolio.setItems(data);
-    colNombre.setCellValueFactory(cellData -> {
-      String ticker = cellData.getValue().getTicker();
-      CatalogAsset cat = AssetManager.getInstance().getCatalogAssets().stream()
-          .filter(a -> a.getTicker().equals(ticker)).findFirst().orElse(null);
-      return new javafx.beans.property.SimpleStringProperty(cat != null ? cat.getAssetName() : ticker);
-    });
-    colTicker.setCellValueFactory(
-        cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getTicker()));
-    colCantidad.setCellValueFactory(
-        cellData -> new javafx.beans.property.SimpleDoubleProperty(cellData.getValue().getAmount()).asObject());
-    colValorActual.setCellValueFactory(cellData -> {
-      String ticker = cellData.getValue().getTicker();
-      CatalogAsset cat = AssetManager.getInstance().getCatalogAssets().stream()
-          .filter(a -> a.getTicker().equals(ticker)).findFirst().orElse(null);
-      double precioActual = (cat != null) ? cat.getCurrentPrice() : 0.0;
-      double valorActual = cellData.getValue().getAmount() * precioActual;
-      return new javafx.beans.property.SimpleDoubleProperty(valorActual).asObject();
-    });
-    colValorInvertido.setCellValueFactory(cellData -> {
-      double valorInvertido = cellData.getValue().getAmount() * cellData.getValue().getPurchasePrice();
-      return new javafx.beans.property.SimpleDoubleProperty(valorInvertido).asObject();
-    });
-    colGanancia.setCellValueFactory(cellData -> {
-      String ticker = cellData.getValue().getTicker();
-      CatalogAsset cat = AssetManager.getInstance().getCatalogAssets().stream()
-          .filter(a -> a.getTicker().equals(ticker)).findFirst().orElse(null);
-      double precioActual = (cat != null) ? cat.getCurrentPrice() : 0.0;
-      double valorActual = cellData.getValue().getAmount() * precioActual;
-      double valorInvertido = cellData.getValue().getAmount() * cellData.getValue().getPurchasePrice();
-      double ganancia = valorActual - valorInvertido;
-      return new javafx.beans.property.SimpleDoubleProperty(Math.round(ganancia * 100.0) / 100.0).asObject();
-    });
-    // PieChart: distribución por valor actual
+    valoracion = usuario.getValuation();
+    colNombre.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getAssetName()));
+    colTicker.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(cellData.getValue().getTicker()));
+    colCantidad.setCellValueFactory(cellData -> cellData.getValue().amountProperty());
+    colValorActual.setCellValueFactory(cellData -> cellData.getValue().marketValueProperty());
+    colValorInvertido.setCellValueFactory(cellData -> cellData.getValue().costBasisProperty());
+    colGanancia.setCellValueFactory(cellData -> cellData.getValue().gainProperty());
+    // Tabla y PieChart: valores cacheados por la valoración, sin recorrer los lotes
+    ObservableList<PositionRow> filas = FXCollections.observableArrayList();
     ObservableList<PieChart.Data> pieData = FXCollections.observableArrayList();
-    for (Asset a : lotes) {
-      String ticker = a.getTicker();
-      CatalogAsset cat = AssetManager.getInstance().getCatalogAssets().stream()
-          .filter(c -> c.getTicker().equals(ticker)).findFirst().orElse(null);
-      double precioActual = (cat != null) ? cat.getCurrentPrice() : 0.0;
-      double valorActual = a.getAmount() * precioActual;
-      pieData.add(new PieChart.Data(ticker, valorActual));
+    for (PositionValue posicion : valoracion.getPositions()) {
+      CatalogAsset cat = AssetManager.getInstance().findByTicker(posicion.ticker());
+      PositionRow fila = new PositionRow(posicion, cat != null ? cat.getAssetName() : posicion.ticker());
+      PieChart.Data porcion = new PieChart.Data(posicion.ticker(), posicion.marketValue());
+      filasPorTicker.put(posicion.ticker(), fila);
+      porcionesPorTicker.put(posicion.ticker(), porcion);
+      filas.add(fila);
+      pieData.add(porcion);
     }
+    tablaPortafolio.setItems(filas);
     pieChart.setData(pieData);
     // Forzar color blanco en las etiquetas después de renderizar
     Platform
         .runLater(() -> pieChart.lookupAll(".chart-pie-label").forEach(node -> node.setStyle("-fx-text-fill: white;")));
-    volverButton.setOnAction(e -> handleVolver());
+    // Cada tick revalúa solo los tickers del portafolio cuyo precio cambió
+    PriceEngine.getInstance().getTicks().subscribe(new Flow.Subscriber<PriceDelta>() {
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        suscripcion = subscription;
+        if (cerrada) {
+          subscription.cancel();
+          return;
+        }
+        subscription.request(1);
+      }
+
+      @Override
+      public void onNext(PriceDelta cambios) {
+        actualizarValores(cambios);
+        suscripcion.request(1);
+      }
+
+      @Override
+      public void onError(Throwable error) {
+        System.err.println("Error recibiendo los precios: " + error.getMessage());
+      }
+
+      @Override
+      public void onComplete() {
+      }
+    }, Platform::runLater);
+  }
+
+  private void actualizarValores(PriceDelta cambios) {
+    for (String ticker : valoracion.applyPrices(cambios)) {
+      PositionValue posicion = valoracion.getPosition(ticker);
+      PositionRow fila = filasPorTicker.get(ticker);
+      if (posicion == null || fila == null) {
+        continue;
+      }
+      fila.update(posicion);
+      porcionesPorTicker.get(ticker).setPieValue(posicion.marketValue());
+    }
   }
 
   private void handleVolver() {
+    cerrada = true;
+    if (suscripcion != null) {
+      suscripcion.cancel();
+    }
     try {
       javafx.fxml.FXMLLoader loader = new javafx.fxml.FXMLLoader(
           getClass().getResource("/presentation/view/main.fxml"));
@@ -103,4 +131,4 @@ public class PortafolioController {
       e.printStackTrace();
     }
   }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package ve.edu.ucab.presentation.controller;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -21,6 +22,16 @@ public class TransaccionesController {
   @FXML
   private TextField cantidadTextField;
   @FXML
+  private ComboBox<String> tipoOrdenComboBox;
+  @FXML
+  private TextField precioLimiteTextField;
+  @FXML
+  private TextField precioStopTextField;
+  @FXML
+  private Label ordenesLabel;
+  @FXML
+  private Button cancelarOrdenesButton;
+  @FXML
   private Button confirmarButton;
   @FXML
   private Label mensajeLabel;
@@ -51,6 +62,11 @@ public class TransaccionesController {
     tipoOperacionComboBox.setItems(FXCollections.observableArrayList("Comprar", "Vender"));
     tipoOperacionComboBox.getSelectionModel().selectFirst();
     tipoOperacionComboBox.setOnAction(e -> actualizarComboActivos());
+    // Combo tipo de orden: las límite y stop esperan en el libro hasta su precio
+    tipoOrdenComboBox.setItems(FXCollections.observableArrayList("Mercado", "Límite", "Stop", "Stop-límite"));
+    tipoOrdenComboBox.getSelectionModel().selectFirst();
+    tipoOrdenComboBox.setOnAction(e -> actualizarCamposOrden());
+    actualizarCamposOrden();
     // Inicializar ComboBox de activos
     activoComboBox.setCellFactory(param -> new ListCell<>() {
       @Override
@@ -89,15 +105,25 @@ public class TransaccionesController {
     colTicker.setCellValueFactory(new PropertyValueFactory<>("ticker"));
     colCantidad.setCellValueFactory(new PropertyValueFactory<>("amount"));
     colPrecioActual.setCellValueFactory(cellData -> {
-      String ticker = cellData.getValue().getTicker();
-      CatalogAsset cat = AssetManager.getInstance().getCatalogAssets().stream()
-          .filter(a -> a.getTicker().equals(ticker)).findFirst().orElse(null);
+      CatalogAsset cat = AssetManager.getInstance().findByTicker(cellData.getValue().getTicker());
       return new javafx.beans.property.SimpleDoubleProperty(cat != null ? cat.getCurrentPrice() : 0.0).asObject();
     });
     actualizarPortafolio();
     // Botón confirmar
     confirmarButton.setOnAction(e -> handleConfirmar());
+    cancelarOrdenesButton.setOnAction(e -> handleCancelarOrdenes());
     volverButton.setOnAction(e -> handleVolver());
+    actualizarOrdenes();
+  }
+
+  private void actualizarCamposOrden() {
+    String orden = tipoOrdenComboBox.getValue();
+    precioLimiteTextField.setDisable(!orden.equals("Límite") && !orden.equals("Stop-límite"));
+    precioStopTextField.setDisable(!orden.equals("Stop") && !orden.equals("Stop-límite"));
+  }
+
+  private void actualizarOrdenes() {
+    ordenesLabel.setText("Órdenes abiertas: " + OrderManager.getInstance().getOpenOrders(usuario).size());
   }
 
   private void actualizarPortafolio() {
@@ -133,6 +159,10 @@ public class TransaccionesController {
       mensajeLabel.setText("Cantidad inválida.");
       return;
     }
+    if (!tipoOrdenComboBox.getValue().equals("Mercado")) {
+      colocarOrden(tipo, cantidad);
+      return;
+    }
     try {
       if (tipo.equals("Comprar")) {
         CatalogAsset activo = (CatalogAsset) activoComboBox.getValue();
@@ -140,21 +170,31 @@ public class TransaccionesController {
           mensajeLabel.setText("Seleccione un activo del catálogo.");
           return;
         }
-        usuario.buyAsset(activo, cantidad);
-        mensajeLabel.setText("¡Compra exitosa! Precio actual: $" + String.format("%.2f", activo.getCurrentPrice()));
+        // Una sola versión de los precios para el costo, el lote y el mensaje
+        PriceSnapshot precios = PriceEngine.getInstance().getLatest();
+        usuario.buyAsset(activo, cantidad, precios);
+        mensajeLabel.setText("¡Compra exitosa! Precio actual: $"
+            + String.format("%.2f", precios.getPrice(activo.getTicker())));
       } else {
         Asset lote = (Asset) activoComboBox.getValue();
         if (lote == null) {
           mensajeLabel.setText("Seleccione un lote de su portafolio.");
           return;
         }
-        usuario.sellAssetByLot(lote, cantidad);
-        CatalogAsset cat = AssetManager.getInstance().getCatalogAssets().stream()
-            .filter(a -> a.getTicker().equals(lote.getTicker())).findFirst().orElse(null);
-        double precioActual = (cat != null) ? cat.getCurrentPrice() : lote.getPurchasePrice();
+        PriceSnapshot precios = PriceEngine.getInstance().getLatest();
+        usuario.sellAssetByLot(lote, cantidad, precios);
+        double precioActual = precios.getPrice(lote.getTicker());
+        if (Double.isNaN(precioActual)) {
+          precioActual = lote.getPurchasePrice();
+        }
         mensajeLabel.setText("¡Venta exitosa! Precio actual: $" + String.format("%.2f", precioActual));
       }
-      UserRepository.getInstance().updateUser(usuario);
+      // El guardado ocurre en segundo plano; solo se avisa si falla
+      UserRepository.getInstance().updateUser(usuario).whenComplete((ignorado, error) -> {
+        if (error != null) {
+          Platform.runLater(() -> mensajeLabel.setText("Error al guardar la operación: " + error.getMessage()));
+        }
+      });
       saldoLabel.setText(String.format("%.2f", usuario.getBalance()));
       actualizarPortafolio();
       actualizarComboActivos();
@@ -163,6 +203,71 @@ public class TransaccionesController {
     }
   }
 
+  // Orden límite o stop: se ejecuta cuando un tick del PriceEngine alcanza su precio
+  private void colocarOrden(String tipo, double cantidad) {
+    String orden = tipoOrdenComboBox.getValue();
+    OrderType tipoOrden = orden.equals("Límite") ? OrderType.LIMIT
+        : orden.equals("Stop") ? OrderType.STOP : OrderType.STOP_LIMIT;
+    double limite = 0;
+    double stop = 0;
+    try {
+      if (tipoOrden != OrderType.STOP) {
+        limite = Double.parseDouble(precioLimiteTextField.getText());
+      }
+      if (tipoOrden != OrderType.LIMIT) {
+        stop = Double.parseDouble(precioStopTextField.getText());
+      }
+    } catch (NumberFormatException ex) {
+      mensajeLabel.setText("Precio inválido.");
+      return;
+    }
+    Object seleccion = activoComboBox.getValue();
+    if (seleccion == null) {
+      mensajeLabel.setText(tipo.equals("Comprar") ? "Seleccione un activo del catálogo."
+          : "Seleccione un lote de su portafolio.");
+      return;
+    }
+    // Una venta por orden sale de los lotes más antiguos del ticker
+    String ticker = seleccion instanceof CatalogAsset ? ((CatalogAsset) seleccion).getTicker()
+        : ((Asset) seleccion).getTicker();
+    TransactionType lado = tipo.equals("Comprar") ? TransactionType.BUY : TransactionType.SELL;
+    try {
+      Order order = OrderManager.getInstance().place(usuario, ticker, lado, tipoOrden, cantidad, limite, stop,
+          CostMethod.FIFO);
+      switch (order.getStatus()) {
+        case FILLED:
+          mensajeLabel.setText("Orden #" + order.getId() + " ejecutada a $"
+              + String.format("%.2f", order.getFillPrice()));
+          saldoLabel.setText(String.format("%.2f", usuario.getBalance()));
+          actualizarPortafolio();
+          actualizarComboActivos();
+          break;
+        case REJECTED:
+          mensajeLabel.setText("Orden #" + order.getId() + " rechazada: " + order.getRejectReason());
+          break;
+        case FAILED:
+          mensajeLabel.setText("Orden #" + order.getId() + " falló: " + order.getRejectReason());
+          break;
+        default:
+          mensajeLabel.setText("Orden #" + order.getId() + " registrada.");
+      }
+    } catch (IllegalArgumentException ex) {
+      mensajeLabel.setText(ex.getMessage());
+    }
+    actualizarOrdenes();
+  }
+
+  private void handleCancelarOrdenes() {
+    int canceladas = 0;
+    for (Order order : OrderManager.getInstance().getOpenOrders(usuario)) {
+      if (OrderManager.getInstance().cancel(order)) {
+        canceladas++;
+      }
+    }
+    mensajeLabel.setText("Órdenes canceladas: " + canceladas);
+    actualizarOrdenes();
+  }
+
   private void handleVolver() {
     try {
       javafx.fxml.FXMLLoader loader = new javafx.fxml.FXMLLoader(
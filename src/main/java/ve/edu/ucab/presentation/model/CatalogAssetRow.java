@@ -0,0 +1,77 @@
+package ve.edu.ucab.presentation.model;
+
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import ve.edu.ucab.domain.model.CatalogAsset;
+
+/**
+ * A row of the catalog table. Its values are JavaFX properties that the screen updates
+ * in place, so a price change repaints only the cells bound to that price instead of
+ * the whole table. Must be used on the JavaFX thread.
+ */
+public class CatalogAssetRow {
+
+  private final String ticker;
+  private final ReadOnlyStringWrapper assetName = new ReadOnlyStringWrapper(this, "assetName");
+  private final ReadOnlyStringWrapper assetType = new ReadOnlyStringWrapper(this, "assetType");
+  private final ReadOnlyDoubleWrapper volatility = new ReadOnlyDoubleWrapper(this, "volatility");
+  private final ReadOnlyDoubleWrapper currentPrice = new ReadOnlyDoubleWrapper(this, "currentPrice");
+
+  /**
+   * Creates the row of a catalog asset.
+   *
+   * @param asset the asset
+   */
+  public CatalogAssetRow(CatalogAsset asset) {
+    ticker = asset.getTicker();
+    update(asset);
+  }
+
+  /**
+   * Copies the definition and current price of a catalog asset with the same ticker,
+   * after the catalog was reloaded.
+   *
+   * @param asset the asset
+   */
+  public void update(CatalogAsset asset) {
+    assetName.set(asset.getAssetName());
+    assetType.set(asset.getAssetType() != null ? asset.getAssetType().name() : "");
+    volatility.set(asset.getVolatility());
+    currentPrice.set(asset.getCurrentPrice());
+  }
+
+  public String getTicker() {
+    return ticker;
+  }
+
+  public ReadOnlyStringProperty assetNameProperty() {
+    return assetName.getReadOnlyProperty();
+  }
+
+  public ReadOnlyStringProperty assetTypeProperty() {
+    return assetType.getReadOnlyProperty();
+  }
+
+  public ReadOnlyDoubleProperty volatilityProperty() {
+    return volatility.getReadOnlyProperty();
+  }
+
+  public ReadOnlyDoubleProperty currentPriceProperty() {
+    return currentPrice.getReadOnlyProperty();
+  }
+
+  public double getCurrentPrice() {
+    return currentPrice.get();
+  }
+
+  /**
+   * Sets the current price. Cells are only notified if the price changed.
+   *
+   * @param price the new price
+   */
+  public void setCurrentPrice(double price) {
+    currentPrice.set(price);
+  }
+}
@@ -0,0 +1,69 @@
+package ve.edu.ucab.presentation.model;
+
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import ve.edu.ucab.domain.model.PositionValue;
+
+/**
+ * A row of the portfolio table: the cached value of one ticker of a
+ * {@link ve.edu.ucab.domain.model.PortfolioValuation}. Its values are JavaFX
+ * properties updated in place when the ticker is revalued. Must be used on the JavaFX
+ * thread.
+ */
+public class PositionRow {
+
+  private final String ticker;
+  private final String assetName;
+  private final ReadOnlyDoubleWrapper amount = new ReadOnlyDoubleWrapper(this, "amount");
+  private final ReadOnlyDoubleWrapper marketValue = new ReadOnlyDoubleWrapper(this, "marketValue");
+  private final ReadOnlyDoubleWrapper costBasis = new ReadOnlyDoubleWrapper(this, "costBasis");
+  private final ReadOnlyDoubleWrapper gain = new ReadOnlyDoubleWrapper(this, "gain");
+
+  /**
+   * Creates the row of a position.
+   *
+   * @param value     the value of the position
+   * @param assetName the name shown for the ticker
+   */
+  public PositionRow(PositionValue value, String assetName) {
+    this.ticker = value.ticker();
+    this.assetName = assetName;
+    update(value);
+  }
+
+  /**
+   * Copies a new value of the position.
+   *
+   * @param value the value
+   */
+  public void update(PositionValue value) {
+    amount.set(value.amount());
+    marketValue.set(value.marketValue());
+    costBasis.set(value.costBasis());
+    gain.set(value.gain());
+  }
+
+  public String getTicker() {
+    return ticker;
+  }
+
+  public String getAssetName() {
+    return assetName;
+  }
+
+  public ReadOnlyDoubleProperty amountProperty() {
+    return amount.getReadOnlyProperty();
+  }
+
+  public ReadOnlyDoubleProperty marketValueProperty() {
+    return marketValue.getReadOnlyProperty();
+  }
+
+  public ReadOnlyDoubleProperty costBasisProperty() {
+    return costBasis.getReadOnlyProperty();
+  }
+
+  public ReadOnlyDoubleProperty gainProperty() {
+    return gain.getReadOnlyProperty();
+  }
+}
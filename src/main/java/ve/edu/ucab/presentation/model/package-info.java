@@ -0,0 +1,4 @@
+/**
+ * Paquete que contiene los modelos de fila que muestran las tablas.
+ */
+package ve.edu.ucab.presentation.model;
@@ -3,7 +3,8 @@ package ve.edu.ucab.presentation.util;
 import ve.edu.ucab.domain.model.User;
 
 public class SessionManager {
-    private static User currentUser;
+    // volatile: la sesión puede leerse desde hilos distintos al de JavaFX
+    private static volatile User currentUser;
 
     public static void setCurrentUser(User user) {
         currentUser = user;
@@ -0,0 +1,52 @@
+package ve.edu.ucab.domain.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Sales at average cost: the basis reported by every sale must add up to what was
+ * paid, whatever the order of the sales.
+ */
+public class AverageCostTest {
+
+  private static final String TICKER = "TEST";
+
+  private final PriceSnapshot prices = new PriceSnapshot(1, 0, List.of(TICKER), Map.of(TICKER, 0),
+      new double[] {30});
+
+  private User userWithTwoLots() {
+    return User.createNewUser(1, "promedio", "clave", 0,
+        List.of(Asset.createNewAsset(TICKER, 1, 10), Asset.createNewAsset(TICKER, 1, 20)), List.of());
+  }
+
+  @Test
+  public void averageSalesReportTheAverageBasisUntilTheEnd() {
+    User user = userWithTwoLots();
+    List<RealizedGain> first = user.sellAsset(TICKER, 1, CostMethod.AVERAGE, prices);
+    List<RealizedGain> second = user.sellAsset(TICKER, 1, CostMethod.AVERAGE, prices);
+
+    assertEquals(15, first.get(0).purchasePrice());
+    assertEquals(15, second.get(0).purchasePrice());
+    assertEquals(30, first.get(0).purchasePrice() + second.get(0).purchasePrice());
+    assertEquals(30, first.get(0).gain() + second.get(0).gain());
+  }
+
+  @Test
+  public void lotsLeftByAnAverageSaleAreRepricedToTheAverage() {
+    User user = userWithTwoLots();
+    PortfolioValuation valuation = user.getValuation();
+    user.sellAsset(TICKER, 1, CostMethod.AVERAGE, prices);
+
+    List<Asset> lots = user.getPortfolio();
+    assertEquals(1, lots.size());
+    assertEquals(15, lots.get(0).getPurchasePrice());
+    assertEquals(15, valuation.getCostBasis());
+    // Una venta FIFO posterior ve el mismo costo
+    List<RealizedGain> next = user.sellAsset(TICKER, 1, CostMethod.FIFO, prices);
+    assertEquals(15, next.get(0).purchasePrice());
+  }
+}
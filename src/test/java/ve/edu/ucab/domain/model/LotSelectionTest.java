@@ -0,0 +1,46 @@
+package ve.edu.ucab.domain.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Sales from a lot chosen in a copy of the portfolio must come out of that lot, even
+ * when another lot has the same amount and price.
+ */
+public class LotSelectionTest {
+
+  private static final String TICKER = "TEST";
+
+  private final PriceSnapshot prices = new PriceSnapshot(1, 0, List.of(TICKER), Map.of(TICKER, 0),
+      new double[] {30});
+
+  @Test
+  public void saleByLotUsesTheSelectedLot() {
+    User user = User.createNewUser(1, "lotes", "clave", 0, List.of(Asset.createNewAsset(TICKER, 1, 10),
+        Asset.createNewAsset(TICKER, 1, 10), Asset.createNewAsset(TICKER, 1, 20)), List.of());
+    List<Asset> lots = user.getPortfolio();
+
+    user.sellAssetByLot(lots.get(1), 1, prices);
+
+    List<Asset> left = user.getPortfolio();
+    assertEquals(2, left.size());
+    assertEquals(lots.get(0).getLotId(), left.get(0).getLotId());
+    assertEquals(lots.get(2).getLotId(), left.get(1).getLotId());
+  }
+
+  @Test
+  public void soldOutLotIsNotFoundAgain() {
+    User user = User.createNewUser(1, "lotes", "clave", 0, List.of(Asset.createNewAsset(TICKER, 1, 10),
+        Asset.createNewAsset(TICKER, 1, 10)), List.of());
+    Asset first = user.getPortfolio().get(0);
+    user.sellAssetByLot(first, 1, prices);
+
+    assertThrows(IllegalArgumentException.class, () -> user.sellAssetByLot(first, 1, prices));
+    assertEquals(1, user.getPortfolio().size());
+  }
+}
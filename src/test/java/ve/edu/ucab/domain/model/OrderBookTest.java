@@ -0,0 +1,122 @@
+package ve.edu.ucab.domain.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Matching of the resting orders of one ticker: which prices reach limits, stops and
+ * stop-limits, and what a cancelled order leaves behind.
+ */
+public class OrderBookTest {
+
+  private static final String TICKER = "TEST";
+
+  private final OrderBook book = new OrderBook();
+  private long nextId;
+
+  private Order order(TransactionType side, OrderType type, double limit, double stop) {
+    return new Order(++nextId, null, TICKER, side, type, Quantity.of(1), Money.of(limit), Money.of(stop),
+        CostMethod.FIFO);
+  }
+
+  private List<Order> match(double price) {
+    List<Order> fills = new ArrayList<>();
+    book.match(Money.of(price), fills);
+    return fills;
+  }
+
+  @Test
+  public void buyLimitsFillAtOrBelowTheirLimit() {
+    Order low = order(TransactionType.BUY, OrderType.LIMIT, 10, 0);
+    Order high = order(TransactionType.BUY, OrderType.LIMIT, 11, 0);
+    book.add(low);
+    book.add(high);
+
+    assertTrue(match(11.01).isEmpty());
+    assertEquals(List.of(high), match(10.50));
+    // El precio cruza el límite de lleno: se llena aunque esté por debajo
+    assertEquals(List.of(low), match(9));
+    assertEquals(0, book.size());
+  }
+
+  @Test
+  public void sellLimitsFillAtOrAboveTheirLimit() {
+    Order low = order(TransactionType.SELL, OrderType.LIMIT, 10, 0);
+    Order high = order(TransactionType.SELL, OrderType.LIMIT, 11, 0);
+    book.add(high);
+    book.add(low);
+
+    assertTrue(match(9.99).isEmpty());
+    assertEquals(List.of(low), match(10));
+    // Ambos alcanzados: el más agresivo, el de menor límite, sale primero
+    book.add(low);
+    assertEquals(List.of(low, high), match(12));
+    assertEquals(0, book.size());
+  }
+
+  @Test
+  public void buyStopsTriggerWhenThePriceRises() {
+    Order stop = order(TransactionType.BUY, OrderType.STOP, 0, 12);
+    book.add(stop);
+
+    assertTrue(match(11.99).isEmpty());
+    assertEquals(List.of(stop), match(12.50));
+    assertEquals(0, book.size());
+  }
+
+  @Test
+  public void sellStopsTriggerWhenThePriceFalls() {
+    Order stop = order(TransactionType.SELL, OrderType.STOP, 0, 8);
+    book.add(stop);
+
+    assertTrue(match(8.01).isEmpty());
+    assertEquals(List.of(stop), match(7.50));
+    assertEquals(0, book.size());
+  }
+
+  @Test
+  public void triggeredStopLimitsRestAtTheirLimit() {
+    Order buy = order(TransactionType.BUY, OrderType.STOP_LIMIT, 12.10, 12);
+    book.add(buy);
+
+    // El precio pasa el stop pero también el límite: queda esperando en el límite
+    assertTrue(match(12.50).isEmpty());
+    assertEquals(OrderStatus.TRIGGERED, buy.getStatus());
+    assertEquals(1, book.size());
+    // Un precio bajo el stop ya no lo afecta; basta con llegar al límite
+    assertEquals(List.of(buy), match(11));
+    assertEquals(0, book.size());
+  }
+
+  @Test
+  public void stopLimitsAlreadyAtTheirLimitFillOnTheTriggeringTick() {
+    Order sell = order(TransactionType.SELL, OrderType.STOP_LIMIT, 7.90, 8);
+    book.add(sell);
+
+    assertEquals(List.of(sell), match(7.95));
+    assertEquals(OrderStatus.TRIGGERED, sell.getStatus());
+    assertEquals(0, book.size());
+  }
+
+  @Test
+  public void removedOrdersAreNotMatched() {
+    Order limit = order(TransactionType.BUY, OrderType.LIMIT, 10, 0);
+    Order stopLimit = order(TransactionType.BUY, OrderType.STOP_LIMIT, 12.10, 12);
+    book.add(limit);
+    book.add(stopLimit);
+    assertTrue(match(12.50).isEmpty());
+
+    assertTrue(book.remove(limit));
+    assertFalse(book.remove(limit));
+    // Disparado, el stop-límite se quita de su límite y no de su stop
+    assertTrue(book.remove(stopLimit));
+    assertEquals(0, book.size());
+    assertTrue(match(5).isEmpty());
+  }
+}
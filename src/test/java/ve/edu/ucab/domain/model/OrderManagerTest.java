@@ -0,0 +1,67 @@
+package ve.edu.ucab.domain.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Execution and cancellation of orders by an {@link OrderManager} that is not
+ * subscribed to the engine, fed with price deltas built here.
+ */
+public class OrderManagerTest {
+
+  private static final String TICKER = "TEST";
+
+  private final OrderManager manager = new OrderManager();
+  private final User user = User.createNewUser(1, "ordenes", "clave", 0,
+      List.of(Asset.createNewAsset(TICKER, 2, 10)), List.of());
+
+  private Order sellLimit(double limit) {
+    return new Order(1, user, TICKER, TransactionType.SELL, OrderType.LIMIT, Quantity.of(1), Money.of(limit), 0,
+        CostMethod.FIFO);
+  }
+
+  private void tick(long version, double price) {
+    manager.applyPrices(new PriceDelta(version, 0, Map.of(TICKER, price), Set.of()));
+  }
+
+  @Test
+  public void reachedOrdersExecuteAgainstTheirUser() {
+    Order order = sellLimit(25);
+    manager.rest(order);
+
+    tick(1, 24.99);
+    assertEquals(OrderStatus.OPEN, order.getStatus());
+    tick(2, 30);
+
+    assertEquals(OrderStatus.FILLED, order.getStatus());
+    assertEquals(30, order.getFillPrice());
+    assertEquals(2, order.getFillVersion());
+    assertEquals(30, user.getBalance());
+    assertEquals(1, user.getPortfolio().get(0).getAmount());
+    assertTrue(manager.getOpenOrders(user).isEmpty());
+  }
+
+  @Test
+  public void cancelledOrdersLeaveTheBook() {
+    Order order = sellLimit(25);
+    manager.rest(order);
+    assertEquals(List.of(order), manager.getOpenOrders(user));
+
+    assertTrue(manager.cancel(order));
+    assertEquals(OrderStatus.CANCELLED, order.getStatus());
+    assertTrue(manager.getOpenOrders(user).isEmpty());
+    assertEquals(0, manager.getOpenOrderCount());
+    assertFalse(manager.cancel(order));
+
+    tick(1, 30);
+    assertEquals(OrderStatus.CANCELLED, order.getStatus());
+    assertEquals(0, user.getBalance());
+  }
+}
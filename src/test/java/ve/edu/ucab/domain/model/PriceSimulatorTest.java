@@ -0,0 +1,50 @@
+package ve.edu.ucab.domain.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Generators of the simulated prices: a reload must not restart the path of the
+ * tickers that stay, and tickers with the same {@link String#hashCode()} must not
+ * share a path.
+ */
+public class PriceSimulatorTest {
+
+  private static final long SEED = 42;
+
+  private static CatalogAsset asset(String ticker) {
+    return new CatalogAsset(ticker, ticker, AssetsType.STOCK, 100, 0.05);
+  }
+
+  @Test
+  public void reloadKeepsTheGeneratorOfTickersThatStay() {
+    List<CatalogAsset> before = List.of(asset("OLD"), asset("KEEP"));
+    PriceSimulator reloaded = PriceSimulator.forCatalog(before, Map.of(), SEED);
+    PriceSimulator untouched = PriceSimulator.forCatalog(before, Map.of(), SEED);
+    double[] prices = {100, 100};
+    for (int tick = 0; tick < 3; tick++) {
+      reloaded.next(prices);
+      untouched.next(prices);
+    }
+
+    reloaded = reloaded.reload(List.of(asset("KEEP"), asset("NEW")), Map.of());
+    double[] afterReload = reloaded.next(new double[] {100, 100});
+    double[] expected = untouched.next(prices);
+    assertEquals(expected[1], afterReload[0]);
+
+    // Un simulador nuevo volvería a empezar el recorrido de KEEP
+    double[] restarted = PriceSimulator.forCatalog(List.of(asset("KEEP")), Map.of(), SEED).next(new double[] {100});
+    assertNotEquals(restarted[0], afterReload[0]);
+  }
+
+  @Test
+  public void tickersWithTheSameHashCodeGetDifferentStreams() {
+    assertEquals("Aa".hashCode(), "BB".hashCode());
+    assertNotEquals(PriceSimulator.stream(SEED, "Aa").nextLong(), PriceSimulator.stream(SEED, "BB").nextLong());
+  }
+}
@@ -0,0 +1,161 @@
+package ve.edu.ucab.domain.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Stress test of the account lock: several threads run mixed deposits, buys and sales
+ * on a few shared users at fixed prices, and every balance and holding must match a
+ * ledger kept outside the users.
+ *
+ * <p>The catalog and prices are built here, with tickers that are not in any catalog
+ * file, so the result does not depend on the data of the repository. The number of
+ * operations can be changed with {@code -Dstress.operations=N}.
+ */
+public class UserConcurrencyTest {
+
+  private static final int THREADS = 8;
+  private static final int OPERATIONS = Integer.getInteger("stress.operations", 2_000_000);
+  private static final int USERS = 4;
+  private static final double INITIAL_BALANCE = 1_000_000;
+  // Cada hilo vende de una copia del portafolio que renueva de vez en cuando: un lote
+  // que ya no existe se rechaza, como en la interfaz
+  private static final int REFRESH_EVERY = 32;
+
+  private static final List<CatalogAsset> CATALOG = List.of(
+      new CatalogAsset("Prueba A", "STRESS-A", AssetsType.STOCK, 120.37, 0.02),
+      new CatalogAsset("Prueba B", "STRESS-B", AssetsType.STOCK, 45.10, 0.02),
+      new CatalogAsset("Prueba C", "STRESS-C", AssetsType.CRYPTO, 2013.99, 0.05),
+      new CatalogAsset("Prueba D", "STRESS-D", AssetsType.CURRENCY, 1.07, 0.01));
+
+  @Test
+  public void concurrentTradesConserveBalancesAndHoldings() throws Exception {
+    PriceSnapshot prices = fixedPrices();
+    User[] users = new User[USERS];
+    AtomicLong[] expectedBalance = new AtomicLong[USERS];
+    List<Map<String, AtomicLong>> expectedUnits = new ArrayList<>();
+    for (int i = 0; i < USERS; i++) {
+      users[i] = User.createNewUser(i, "stress" + i, "clave", INITIAL_BALANCE);
+      expectedBalance[i] = new AtomicLong(users[i].getBalanceCents());
+      Map<String, AtomicLong> units = new ConcurrentHashMap<>();
+      for (CatalogAsset asset : CATALOG) {
+        units.put(asset.getTicker(), new AtomicLong());
+      }
+      expectedUnits.add(units);
+    }
+
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    List<Future<?>> workers = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      Random random = new Random(t);
+      workers.add(pool.submit(() -> {
+        List<List<Asset>> lotsSeen = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+          lotsSeen.add(List.of());
+        }
+        for (int op = 0; op < OPERATIONS / THREADS; op++) {
+          int index = random.nextInt(USERS);
+          if (random.nextInt(REFRESH_EVERY) == 0) {
+            lotsSeen.set(index, users[index].getPortfolio());
+          }
+          trade(random, users[index], expectedBalance[index], expectedUnits.get(index), lotsSeen.get(index), prices);
+        }
+      }));
+    }
+    for (Future<?> worker : workers) {
+      worker.get();
+    }
+    pool.shutdown();
+    pool.awaitTermination(10, TimeUnit.SECONDS);
+
+    for (int i = 0; i < USERS; i++) {
+      User user = users[i];
+      assertEquals(expectedBalance[i].get(), user.getBalanceCents(), "balance of user " + i);
+      Map<String, Long> held = new HashMap<>();
+      for (Asset lot : user.getPortfolio()) {
+        held.merge(lot.getTicker(), lot.getUnits(), Long::sum);
+      }
+      for (Map.Entry<String, AtomicLong> entry : expectedUnits.get(i).entrySet()) {
+        assertEquals(entry.getValue().get(), held.getOrDefault(entry.getKey(), 0L),
+            "units of " + entry.getKey() + " held by user " + i);
+      }
+      // Replaying the history must give the same balance: every sale deposits its value
+      long replayed = Money.of(INITIAL_BALANCE);
+      for (Transaction transaction : user.getTransactionHistory()) {
+        if (transaction.getType() == TransactionType.DEPOSIT) {
+          replayed += transaction.getUnits() / (Quantity.ONE / Money.ONE);
+        } else if (transaction.getType() == TransactionType.BUY) {
+          replayed -= Money.times(transaction.getPurchasePriceCents(), transaction.getUnits());
+        }
+      }
+      assertEquals(user.getBalanceCents(), replayed, "history of user " + i);
+    }
+  }
+
+  // Precios fijos de los activos de prueba, con su precio base
+  private static PriceSnapshot fixedPrices() {
+    List<String> tickers = new ArrayList<>();
+    Map<String, Integer> ids = new HashMap<>();
+    double[] values = new double[CATALOG.size()];
+    for (int i = 0; i < CATALOG.size(); i++) {
+      tickers.add(CATALOG.get(i).getTicker());
+      ids.put(CATALOG.get(i).getTicker(), i);
+      values[i] = CATALOG.get(i).getBasePrice();
+    }
+    return new PriceSnapshot(1, 0, List.copyOf(tickers), Map.copyOf(ids), values);
+  }
+
+  // Aplica una operación al azar y, si se acepta, la anota en el libro externo
+  private static void trade(Random random, User user, AtomicLong balance, Map<String, AtomicLong> units,
+      List<Asset> lots, PriceSnapshot prices) {
+    CatalogAsset asset = CATALOG.get(random.nextInt(CATALOG.size()));
+    long price = Money.of(prices.getPrice(asset.getTicker()));
+    double amount = (1 + random.nextInt(8)) * 0.25;
+    long traded = Quantity.of(amount, asset.getAssetType());
+    try {
+      switch (random.nextInt(6)) {
+        case 0:
+          user.increaseBalance(amount * 1000);
+          balance.addAndGet(Money.of(amount * 1000));
+          break;
+        case 1:
+        case 2:
+          user.buyAsset(asset, amount, prices);
+          balance.addAndGet(-Money.times(price, traded));
+          units.get(asset.getTicker()).addAndGet(traded);
+          break;
+        case 3:
+        case 4:
+          user.sellAsset(asset.getTicker(), amount, CostMethod.values()[random.nextInt(3)], prices);
+          balance.addAndGet(Money.times(price, traded));
+          units.get(asset.getTicker()).addAndGet(-traded);
+          break;
+        default:
+          if (lots.isEmpty()) {
+            return;
+          }
+          Asset lot = lots.get(random.nextInt(lots.size()));
+          long lotPrice = Money.of(prices.getPrice(lot.getTicker()));
+          long sold = Quantity.of(amount);
+          user.sellAssetByLot(lot, amount, prices);
+          balance.addAndGet(Money.times(lotPrice, sold));
+          units.get(lot.getTicker()).addAndGet(-sold);
+      }
+    } catch (IllegalArgumentException e) {
+      // Saldo o cantidad insuficiente: la operación no cambia nada
+    }
+  }
+}